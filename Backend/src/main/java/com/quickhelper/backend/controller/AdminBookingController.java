@@ -0,0 +1,43 @@
+package com.quickhelper.backend.controller;
+
+import com.quickhelper.backend.dto.BookingDeadlineStatsDTO;
+import com.quickhelper.backend.dto.BookingTransitionStatsDTO;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.service.BookingDeadlineWheel;
+import com.quickhelper.backend.service.BookingEventService;
+import com.quickhelper.backend.service.BookingTransitionMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/bookings")
+@CrossOrigin(origins = "http://localhost:5173")
+@RequiredArgsConstructor
+// Admin-only endpoints for booking operations
+public class AdminBookingController {
+    private final BookingDeadlineWheel bookingDeadlineWheel;
+    private final BookingEventService bookingEventService;
+    private final BookingTransitionMetrics bookingTransitionMetrics;
+
+    @GetMapping("/deadlines")
+    // Pending request deadlines and auto-rejection lag
+    public ResponseEntity<BookingDeadlineStatsDTO> deadlineStats() {
+        return ResponseEntity.ok(bookingDeadlineWheel.stats());
+    }
+
+    @GetMapping("/status-counts")
+    // Platform-wide number of bookings per status, served from memory
+    public ResponseEntity<Map<BookingStatus, Long>> statusCounts() {
+        return ResponseEntity.ok(bookingEventService.getStatusCounts());
+    }
+
+    @GetMapping("/transitions")
+    // Count and latency percentiles of each booking transition since startup
+    public ResponseEntity<List<BookingTransitionStatsDTO>> transitionStats() {
+        return ResponseEntity.ok(bookingTransitionMetrics.snapshot());
+    }
+}
@@ -2,6 +2,8 @@ package com.quickhelper.backend.controller;
 
 import com.quickhelper.backend.dto.ProviderResponseDTO;
 import com.quickhelper.backend.dto.ProviderReviewDecisionDTO;
+import com.quickhelper.backend.dto.SearchCacheStatsDTO;
+import com.quickhelper.backend.service.ProviderSearchCache;
 import com.quickhelper.backend.service.ProviderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -17,12 +19,19 @@ import java.util.List;
 // Admin-only endpoints for provider review and approvals
 public class AdminController {
     private final ProviderService providerService;
+    private final ProviderSearchCache providerSearchCache;
 
     @GetMapping("/pending")
     public ResponseEntity<List<ProviderResponseDTO>> listPendingProviders() {
         return ResponseEntity.ok(providerService.listPendingProviders());
     }
 
+    @GetMapping("/search-cache")
+    // Hit/miss/eviction counters of the provider search cache
+    public ResponseEntity<SearchCacheStatsDTO> searchCacheStats() {
+        return ResponseEntity.ok(providerSearchCache.stats());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProviderResponseDTO> getProvider(@PathVariable Long id) {
         return ResponseEntity.ok(providerService.getProviderById(id));
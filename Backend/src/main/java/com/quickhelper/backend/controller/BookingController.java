@@ -1,14 +1,26 @@
 package com.quickhelper.backend.controller;
 
+import com.quickhelper.backend.dto.BookingBatchRequestDTO;
+import com.quickhelper.backend.dto.BookingBatchResultDTO;
+import com.quickhelper.backend.dto.BookingEventDTO;
+import com.quickhelper.backend.dto.BookingHistoryPageDTO;
+import com.quickhelper.backend.dto.BookingLocationDTO;
 import com.quickhelper.backend.dto.BookingRequestDTO;
 import com.quickhelper.backend.dto.BookingResponseDTO;
+import com.quickhelper.backend.dto.DispatchRequestDTO;
+import com.quickhelper.backend.dto.ProviderDashboardDTO;
+import com.quickhelper.backend.dto.TimeSlotDTO;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.service.BookingEventService;
 import com.quickhelper.backend.service.BookingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,14 +28,28 @@ import java.util.List;
 @RequiredArgsConstructor
 // Booking lifecycle endpoints for users and providers
 public class BookingController {
+    private static final int MAX_HISTORY_LIMIT = 100;
+
     private final BookingService bookingService;
+    private final BookingEventService bookingEventService;
 
     @PostMapping
     // Creates a booking request for a user
     public ResponseEntity<BookingResponseDTO> createBooking(
             @RequestParam Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody BookingRequestDTO request) {
-        BookingResponseDTO booking = bookingService.createBooking(userId, request);
+        BookingResponseDTO booking = bookingService.createBooking(userId, request, idempotencyKey);
+        return ResponseEntity.status(HttpStatus.CREATED).body(booking);
+    }
+
+    @PostMapping("/dispatch")
+    // Creates a broadcast request offered to the best-ranked nearby providers
+    public ResponseEntity<BookingResponseDTO> createDispatchBooking(
+            @RequestParam Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody DispatchRequestDTO request) {
+        BookingResponseDTO booking = bookingService.createDispatchBooking(userId, request, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(booking);
     }
 
@@ -41,6 +67,60 @@ public class BookingController {
         return ResponseEntity.ok(bookings);
     }
 
+    @GetMapping("/user/{userId}/history")
+    // Returns one page of a user's bookings, newest first; pass nextCursor back to continue
+    public ResponseEntity<BookingHistoryPageDTO> getBookingHistoryByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) List<BookingStatus> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT));
+        return ResponseEntity.ok(bookingService.getBookingHistoryByUser(userId, status, cursor, boundedLimit));
+    }
+
+    @GetMapping("/provider/{providerId}/history")
+    // Returns one page of a provider's bookings, newest first; pass nextCursor back to continue
+    public ResponseEntity<BookingHistoryPageDTO> getBookingHistoryByProvider(
+            @PathVariable Long providerId,
+            @RequestParam(required = false) List<BookingStatus> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT));
+        return ResponseEntity.ok(bookingService.getBookingHistoryByProvider(providerId, status, cursor, boundedLimit));
+    }
+
+    @GetMapping("/provider/{providerId}/dashboard")
+    // Returns the provider's booking counters from the precomputed dashboard row
+    public ResponseEntity<ProviderDashboardDTO> getProviderDashboard(@PathVariable Long providerId) {
+        return ResponseEntity.ok(bookingEventService.getProviderDashboard(providerId));
+    }
+
+    @GetMapping("/provider/{providerId}/free-slots")
+    // Returns the free intervals of at least minMinutes in a provider's calendar between from and to
+    public ResponseEntity<List<TimeSlotDTO>> getFreeSlots(
+            @PathVariable Long providerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "60") int minMinutes) {
+        return ResponseEntity.ok(bookingService.getFreeSlots(providerId, from, to, minMinutes));
+    }
+
+    @GetMapping("/user/{userId}/timeline")
+    // Returns the newest events of a user's bookings; pass the last event id as before to continue
+    public ResponseEntity<List<BookingEventDTO>> getUserTimeline(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "20") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT));
+        return ResponseEntity.ok(bookingEventService.getUserTimeline(userId, before, boundedLimit));
+    }
+
+    @GetMapping("/{bookingId}/location")
+    // Returns buffered provider positions so a tracking view can draw the trail before subscribing
+    public ResponseEntity<List<BookingLocationDTO>> getLocationHistory(@PathVariable Long bookingId) {
+        return ResponseEntity.ok(bookingService.getLocationHistory(bookingId));
+    }
+
     @PutMapping("/{bookingId}/accept")
     // Provider accepts a pending booking
     public ResponseEntity<BookingResponseDTO> acceptBooking(@PathVariable Long bookingId) {
@@ -48,6 +128,28 @@ public class BookingController {
         return ResponseEntity.ok(booking);
     }
 
+    @PutMapping("/provider/{providerId}/batch")
+    // Provider accepts or rejects several pending bookings in one request; outcomes are reported per booking
+    public ResponseEntity<BookingBatchResultDTO> respondToBookings(
+            @PathVariable Long providerId,
+            @Valid @RequestBody BookingBatchRequestDTO request) {
+        return ResponseEntity.ok(bookingService.respondToBookings(providerId, request));
+    }
+
+    @PutMapping("/{bookingId}/claim")
+    // Provider claims a broadcast request; only the first claim succeeds, later ones get 409
+    public ResponseEntity<BookingResponseDTO> claimBooking(@PathVariable Long bookingId, @RequestParam Long providerId) {
+        BookingResponseDTO booking = bookingService.claimBooking(bookingId, providerId);
+        return ResponseEntity.ok(booking);
+    }
+
+    @PutMapping("/{bookingId}/decline")
+    // Provider passes on a broadcast offer
+    public ResponseEntity<Void> declineOffer(@PathVariable Long bookingId, @RequestParam Long providerId) {
+        bookingService.declineOffer(bookingId, providerId);
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{bookingId}/reject")
     // Provider rejects a pending booking
     public ResponseEntity<BookingResponseDTO> rejectBooking(@PathVariable Long bookingId) {
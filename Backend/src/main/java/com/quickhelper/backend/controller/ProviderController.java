@@ -22,6 +22,7 @@ import java.util.Set;
 @RequestMapping("/api/providers")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
 public class ProviderController {
+    private static final int MAX_NEAREST_LIMIT = 50;
 
     @Autowired
     private ProviderService providerService;
@@ -186,7 +187,7 @@ public class ProviderController {
     @GetMapping("/available")
     // Lists only available providers for a service type (optional city or distance filter)
     public ResponseEntity<List<ProviderResponseDTO>> getAvailableProviders(
-            @RequestParam com.quickhelper.backend.model.ServiceType serviceType,
+            @RequestParam ServiceType serviceType,
             @RequestParam(required = false) String city,
             @RequestParam(required = false) Double userLat,
             @RequestParam(required = false) Double userLng,
@@ -221,6 +222,55 @@ public class ProviderController {
         return ResponseEntity.ok(providers);
     }
 
+    @GetMapping("/nearest")
+    // Lists the K nearest available providers for a service type, closest first
+    public ResponseEntity<List<ProviderResponseDTO>> getNearestProviders(
+            @RequestParam ServiceType serviceType,
+            @RequestParam Double userLat,
+            @RequestParam Double userLng,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "50") Double maxDistanceKm) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_NEAREST_LIMIT));
+        List<ProviderResponseDTO> providers = providerService.getNearestAvailableProviders(
+                serviceType, userLat, userLng, boundedLimit, maxDistanceKm);
+        return ResponseEntity.ok(providers);
+    }
+
+    @GetMapping("/ranked")
+    // Lists the best matching available providers, scored on distance, rating, price, experience and responsiveness
+    public ResponseEntity<List<ProviderResponseDTO>> getRankedProviders(
+            @RequestParam ServiceType serviceType,
+            @RequestParam Double userLat,
+            @RequestParam Double userLng,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "50") Double maxDistanceKm,
+            @Valid @ModelAttribute RankingWeightsDTO weights) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_NEAREST_LIMIT));
+        List<ProviderResponseDTO> providers = providerService.getRankedProviders(
+                serviceType, userLat, userLng, maxDistanceKm, boundedLimit, weights);
+        return ResponseEntity.ok(providers);
+    }
+
+    @GetMapping("/search")
+    // Typeahead search over provider name, tagline and description (optional service type, availability or distance filter)
+    public ResponseEntity<List<ProviderResponseDTO>> searchProviders(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) ServiceType serviceType,
+            @RequestParam(defaultValue = "false") boolean availableOnly,
+            @RequestParam(required = false) Double userLat,
+            @RequestParam(required = false) Double userLng,
+            @RequestParam(required = false) Double maxDistanceKm,
+            @RequestParam(defaultValue = "10") int limit) {
+        // Distance filtering needs all three parameters
+        if ((userLat != null || userLng != null || maxDistanceKm != null) &&
+            (userLat == null || userLng == null || maxDistanceKm == null)) {
+            return ResponseEntity.ok(new ArrayList<>());
+        }
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_NEAREST_LIMIT));
+        return ResponseEntity.ok(providerService.searchProviders(
+                query, serviceType, availableOnly, userLat, userLng, maxDistanceKm, boundedLimit));
+    }
+
     @GetMapping("/{id}")
     // Fetches a provider profile by id
     public ResponseEntity<ProviderResponseDTO> getProviderById(@PathVariable Long id) {
@@ -244,6 +294,12 @@ public class ProviderController {
         return ResponseEntity.ok(provider);
     }
 
+    @GetMapping("/{id}/location")
+    // Current provider position for tracking (live ping when available)
+    public ResponseEntity<ProviderLocationDTO> getLocation(@PathVariable Long id) {
+        return ResponseEntity.ok(providerService.getCurrentLocation(id));
+    }
+
     @PutMapping("/{id}/location")
     // Updates provider geo-coordinates
     public ResponseEntity<ProviderResponseDTO> updateLocation(
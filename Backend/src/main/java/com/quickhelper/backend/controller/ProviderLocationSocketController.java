@@ -0,0 +1,32 @@
+package com.quickhelper.backend.controller;
+
+import com.quickhelper.backend.dto.LocationUpdateDTO;
+import com.quickhelper.backend.model.UserRole;
+import com.quickhelper.backend.service.ProviderLocationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+@Controller
+@RequiredArgsConstructor
+// STOMP endpoint for live provider GPS pings (client sends to /app/providers/location)
+public class ProviderLocationSocketController {
+    private final ProviderLocationService providerLocationService;
+
+    @MessageMapping("/providers/location")
+    // The sender is taken from the session the handshake interceptor authenticated, never from the payload
+    public void updateLocation(@Payload LocationUpdateDTO update, SimpMessageHeaderAccessor headers) {
+        Map<String, Object> session = headers.getSessionAttributes();
+        if (session == null || update == null || !UserRole.PROVIDER.name().equals(session.get("role"))) {
+            return;
+        }
+        Object userId = session.get("userId");
+        if (userId instanceof Long) {
+            providerLocationService.recordForUser((Long) userId, update.getLocationLat(), update.getLocationLng());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.quickhelper.backend.dto;
+
+import com.quickhelper.backend.model.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Outcome of one booking in a batch action
+public class BookingBatchItemDTO {
+    private Long bookingId;
+    private boolean applied;
+    private BookingStatus status; // status after the batch; null when the booking is not the provider's
+    private String message; // why the booking was left alone; null when applied
+}
@@ -0,0 +1,21 @@
+package com.quickhelper.backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+// Request body for accepting or rejecting several of a provider's booking requests at once
+public class BookingBatchRequestDTO {
+    public enum Action { ACCEPT, REJECT }
+
+    @NotNull(message = "Action is required")
+    private Action action;
+
+    @NotEmpty(message = "At least one booking ID is required")
+    @Size(max = 100, message = "At most 100 bookings can be answered at once")
+    private List<@NotNull Long> bookingIds;
+}
@@ -0,0 +1,17 @@
+package com.quickhelper.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Per-booking outcomes of a batch action, in request order
+public class BookingBatchResultDTO {
+    private BookingBatchRequestDTO.Action action;
+    private int applied;
+    private List<BookingBatchItemDTO> results;
+}
@@ -0,0 +1,19 @@
+package com.quickhelper.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Booking deadline wheel metrics returned to admins
+public class BookingDeadlineStatsDTO {
+    private int pendingDeadlines;
+    private long tickMillis;
+    private long expired;
+    private long batches;
+    private long failedBatches; // retried a few ticks later
+    private long lastLagMillis; // time between the oldest deadline of the latest batch and its processing
+    private long maxLagMillis;
+}
@@ -0,0 +1,23 @@
+package com.quickhelper.backend.dto;
+
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Entry of a booking timeline, read from the event log
+public class BookingEventDTO {
+    private Long id;
+    private Long bookingId;
+    private Long providerId;
+    private BookingEventType type;
+    private BookingStatus fromStatus;
+    private BookingStatus toStatus;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,16 @@
+package com.quickhelper.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// One page of booking history, newest first; nextCursor is null on the last page
+public class BookingHistoryPageDTO {
+    private List<BookingSummaryDTO> items;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.quickhelper.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Provider position pushed to the tracking view of an active booking
+public class BookingLocationDTO {
+    private Long bookingId;
+    private Double locationLat;
+    private Double locationLng;
+    private LocalDateTime reportedAt;
+}
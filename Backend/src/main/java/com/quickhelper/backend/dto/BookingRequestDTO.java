@@ -1,9 +1,12 @@
 package com.quickhelper.backend.dto;
 
 import com.quickhelper.backend.model.ServiceType;
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 // Request body for creating a booking
 public class BookingRequestDTO {
@@ -14,4 +17,9 @@ public class BookingRequestDTO {
     private ServiceType serviceType;
 
     private String note;
+
+    @Future(message = "Scheduled start must be in the future")
+    private LocalDateTime scheduledStart; // Optional slot; given together with scheduledEnd
+
+    private LocalDateTime scheduledEnd;
 }
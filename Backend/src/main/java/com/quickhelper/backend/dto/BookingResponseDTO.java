@@ -19,6 +19,8 @@ public class BookingResponseDTO {
     private ServiceType serviceType;
     private BookingStatus status;
     private String note;
+    private LocalDateTime scheduledStart;
+    private LocalDateTime scheduledEnd;
     private LocalDateTime createdAt;
     private LocalDateTime acceptedAt;
     private LocalDateTime completedAt;
@@ -0,0 +1,27 @@
+package com.quickhelper.backend.dto;
+
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.model.ServiceType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Booking history row read straight from the bookings and users columns; constructor order is used by JPQL
+public class BookingSummaryDTO {
+    private Long id;
+    private ServiceType serviceType;
+    private BookingStatus status;
+    private String note;
+    private LocalDateTime createdAt;
+    private LocalDateTime acceptedAt;
+    private LocalDateTime completedAt;
+    private Long userId;
+    private String userName;
+    private Long providerId; // null while a broadcast request is unclaimed
+    private String providerName;
+}
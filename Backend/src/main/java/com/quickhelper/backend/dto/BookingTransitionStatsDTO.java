@@ -0,0 +1,23 @@
+package com.quickhelper.backend.dto;
+
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// How often one booking transition happened since startup and how long bookings spent in the status it left
+public class BookingTransitionStatsDTO {
+    private BookingEventType type;
+    private BookingStatus fromStatus;
+    private BookingStatus toStatus;
+    private long count;
+    private long meanMillis;
+    private long p50Millis; // percentiles are bucket upper bounds, at most twice the true value
+    private long p90Millis;
+    private long p99Millis;
+    private long maxMillis;
+}
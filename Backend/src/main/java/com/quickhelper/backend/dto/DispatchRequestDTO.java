@@ -0,0 +1,20 @@
+package com.quickhelper.backend.dto;
+
+import com.quickhelper.backend.model.ServiceType;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+// Request body for a broadcast booking offered to several nearby providers
+public class DispatchRequestDTO {
+    @NotNull(message = "Service type is required")
+    private ServiceType serviceType;
+
+    @NotNull(message = "Latitude is required")
+    private Double locationLat;
+
+    @NotNull(message = "Longitude is required")
+    private Double locationLng;
+
+    private String note;
+}
@@ -0,0 +1,27 @@
+package com.quickhelper.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Precomputed booking counters of a provider; the status counts are the provider's bookings currently in each status
+public class ProviderDashboardDTO {
+    private Long providerId;
+    private long requested;
+    private long accepted;
+    private long onWay;
+    private long inService;
+    private long rejected;
+    private long cancelled;
+    private long completed;
+    private LocalDateTime updatedAt;
+
+    public long getActive() {
+        return requested + accepted + onWay + inService;
+    }
+}
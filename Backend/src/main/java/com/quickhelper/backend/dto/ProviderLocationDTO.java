@@ -0,0 +1,19 @@
+package com.quickhelper.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Current provider position for tracking views
+public class ProviderLocationDTO {
+    private Long providerId;
+    private Double locationLat;
+    private Double locationLng;
+    private boolean live; // true when taken from the live location channel rather than the stored profile
+    private LocalDateTime reportedAt; // time of the live ping, null for stored positions
+}
@@ -53,6 +53,8 @@ public class ProviderResponseDTO {
     private String tagline;
     private List<String> portfolioImages;
     private UserInfo user; // User information for display
+    private Double distanceKm; // Distance from the searching user, set by nearest/ranked queries
+    private Double rankScore; // Ranking score in [0, 1], set by ranked queries
 
     @Data
     @NoArgsConstructor
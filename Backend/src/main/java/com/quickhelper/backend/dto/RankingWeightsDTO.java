@@ -0,0 +1,23 @@
+package com.quickhelper.backend.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+// Per-request weights for provider ranking; only their relative size matters
+public class RankingWeightsDTO {
+    @PositiveOrZero(message = "Distance weight must be zero or positive")
+    private double distance = 0.4;
+
+    @PositiveOrZero(message = "Rating weight must be zero or positive")
+    private double rating = 0.3;
+
+    @PositiveOrZero(message = "Price weight must be zero or positive")
+    private double price = 0.1;
+
+    @PositiveOrZero(message = "Experience weight must be zero or positive")
+    private double experience = 0.1;
+
+    @PositiveOrZero(message = "Responsiveness weight must be zero or positive")
+    private double responsiveness = 0.1;
+}
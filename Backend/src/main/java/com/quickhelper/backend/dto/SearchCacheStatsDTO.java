@@ -0,0 +1,21 @@
+package com.quickhelper.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Provider search cache counters returned to admins
+public class SearchCacheStatsDTO {
+    private int size;
+    private int maxEntries;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private double missRate;
+    private long evictions; // dropped to stay within maxEntries
+    private long expirations; // dropped after the TTL
+    private long invalidations; // dropped because a provider in scope changed
+}
@@ -0,0 +1,16 @@
+package com.quickhelper.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Free interval of a provider's calendar, [start, end)
+public class TimeSlotDTO {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,8 @@
+package com.quickhelper.backend.exception;
+
+// Thrown when a state change loses a race with a concurrent change to the same resource
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -9,7 +9,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "idempotency_key"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,8 +24,8 @@ public class Booking {
     private User user; // Customer who created the booking
 
     @ManyToOne
-    @JoinColumn(name = "provider_id", nullable = false)
-    private User provider; // Provider assigned to fulfill the booking
+    @JoinColumn(name = "provider_id")
+    private User provider; // Provider assigned to fulfill the booking; null while a broadcast request is unclaimed
 
     @Enumerated(EnumType.STRING)
     @Column(name = "service_type", nullable = false)
@@ -35,9 +35,28 @@ public class Booking {
     @Column(nullable = false)
     private BookingStatus status = BookingStatus.REQUESTED; // Workflow state
 
+    @CreationTimestamp
+    @Column(name = "status_changed_at", nullable = false)
+    private LocalDateTime statusChangedAt; // When the booking entered its current status
+
     @Column(columnDefinition = "TEXT")
     private String note; // Optional customer note
 
+    @Column(name = "location_lat")
+    private Double locationLat; // Service location of a broadcast request
+
+    @Column(name = "location_lng")
+    private Double locationLng; // Service location of a broadcast request
+
+    @Column(name = "scheduled_start")
+    private LocalDateTime scheduledStart; // Start of the booked slot; null for on-demand bookings
+
+    @Column(name = "scheduled_end")
+    private LocalDateTime scheduledEnd; // End of the booked slot, exclusive
+
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey; // Client key of the create request, unique per user
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt; // Created timestamp
@@ -0,0 +1,44 @@
+package com.quickhelper.backend.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Kinds of entries in the append-only booking event log. Each kind is also a row of the booking transition
+// table: the statuses it may leave and the status it moves the booking to
+public enum BookingEventType {
+    CREATED(EnumSet.noneOf(BookingStatus.class), BookingStatus.REQUESTED),      // User submitted a request (direct or broadcast)
+    ACCEPTED(EnumSet.of(BookingStatus.REQUESTED), BookingStatus.ACCEPTED),       // Provider accepted a direct request
+    CLAIMED(EnumSet.of(BookingStatus.REQUESTED), BookingStatus.ACCEPTED),        // Provider won a broadcast request
+    REJECTED(EnumSet.of(BookingStatus.REQUESTED), BookingStatus.REJECTED),       // Provider rejected a direct request
+    TIMED_OUT(EnumSet.of(BookingStatus.REQUESTED), BookingStatus.REJECTED),      // Request auto-rejected because the provider did not answer
+    UNCLAIMED(EnumSet.of(BookingStatus.REQUESTED), BookingStatus.REJECTED),      // Broadcast request closed because no provider claimed it
+    // Cancelled by user/provider; REJECTED is terminal as well, otherwise a cancel could overwrite a rejection
+    // that committed first
+    CANCELLED(EnumSet.of(BookingStatus.REQUESTED, BookingStatus.ACCEPTED, BookingStatus.ON_WAY), BookingStatus.CANCELLED),
+    PROVIDER_ON_WAY(EnumSet.of(BookingStatus.ACCEPTED), BookingStatus.ON_WAY),   // Provider set off to the customer
+    SERVICE_STARTED(EnumSet.of(BookingStatus.ACCEPTED, BookingStatus.ON_WAY), BookingStatus.IN_SERVICE), // Provider started the service
+    COMPLETED(EnumSet.copyOf(BookingStatus.UNDERWAY), BookingStatus.COMPLETED),  // Service finished
+    PAYMENT_CONFIRMED(EnumSet.of(BookingStatus.COMPLETED), BookingStatus.COMPLETED); // Payment confirmed for a completed booking
+
+    private final Set<BookingStatus> sources;
+    private final BookingStatus target;
+
+    BookingEventType(Set<BookingStatus> sources, BookingStatus target) {
+        this.sources = Collections.unmodifiableSet(sources);
+        this.target = target;
+    }
+
+    // Statuses a booking may be in for this transition; empty for CREATED
+    public Set<BookingStatus> getSources() {
+        return sources;
+    }
+
+    public BookingStatus getTarget() {
+        return target;
+    }
+
+    public boolean isAllowedFrom(BookingStatus status) {
+        return sources.contains(status);
+    }
+}
@@ -1,10 +1,21 @@
 package com.quickhelper.backend.model;
 
-// Workflow states for a booking lifecycle
+import java.util.EnumSet;
+import java.util.Set;
+
+// Workflow states for a booking lifecycle; the allowed moves between them are listed in BookingEventType
 public enum BookingStatus {
     REQUESTED,  // User submitted booking
     ACCEPTED,   // Provider accepted
+    ON_WAY,     // Provider is travelling to the customer
+    IN_SERVICE, // Provider is doing the job
     REJECTED,   // Provider rejected
     CANCELLED,  // Cancelled by user/provider
-    COMPLETED   // Service finished
+    COMPLETED;  // Service finished
+
+    // Statuses in which a booking holds one of its provider's capacity slots
+    public static final Set<BookingStatus> ACTIVE = EnumSet.of(REQUESTED, ACCEPTED, ON_WAY, IN_SERVICE);
+
+    // Statuses of an assigned booking whose provider has not finished yet; the live location stream is open
+    public static final Set<BookingStatus> UNDERWAY = EnumSet.of(ACCEPTED, ON_WAY, IN_SERVICE);
 }
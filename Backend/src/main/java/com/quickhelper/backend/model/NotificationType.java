@@ -15,6 +15,8 @@ public enum NotificationType {
     
     // Provider notifications
     NEW_BOOKING_REQUEST,
+    NEW_BOOKING_OFFER,
+    BOOKING_OFFER_REVOKED,
     BOOKING_CANCELLED,
     JOB_ACCEPTED,
     NAVIGATION_STARTED,
@@ -5,16 +5,19 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.quickhelper.backend.model.ProfileStatus;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "provider_profiles")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-// Additional profile data for provider accounts
+// Additional profile data for provider accounts. Saves write only the columns that changed, so editing other
+// fields never writes back an is_available that a concurrent capacity pause or resume has since replaced
 public class ProviderProfile {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -59,6 +62,15 @@ public class ProviderProfile {
     @Column(name = "is_available", nullable = false)
     private Boolean isAvailable = true; // Availability toggle
 
+    // Both capacity columns are only written by conditional updates, never by saving a loaded profile
+    @Column(name = "active_bookings", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer default 0")
+    private Integer activeBookings = 0; // Active (REQUESTED, ACCEPTED, ON_WAY, IN_SERVICE) bookings of this provider
+
+    @Column(name = "capacity_paused", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "boolean default false")
+    private Boolean capacityPaused = false; // Availability was switched off because the provider is fully booked
+
     @Column(name = "is_approved", nullable = false)
     private Boolean isApproved = false; // Derived approval flag (kept for backward compatibility)
 
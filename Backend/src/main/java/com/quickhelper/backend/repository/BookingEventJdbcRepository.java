@@ -0,0 +1,106 @@
+package com.quickhelper.backend.repository;
+
+import com.quickhelper.backend.dto.BookingEventDTO;
+import com.quickhelper.backend.dto.ProviderDashboardDTO;
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.service.BookingEvent;
+import com.quickhelper.backend.service.ProviderBookingStatsDelta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+// Plain JDBC access to the booking event log and the provider dashboard read model
+public class BookingEventJdbcRepository {
+    private static final String APPEND =
+            "INSERT INTO booking_events (booking_id, user_id, provider_id, type, from_status, to_status) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String ADD_PROVIDER_STATS =
+            "INSERT INTO provider_booking_stats (provider_id, requested, accepted, on_way, in_service, rejected, " +
+            "cancelled, completed, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (provider_id) DO UPDATE SET " +
+            "requested = provider_booking_stats.requested + EXCLUDED.requested, " +
+            "accepted = provider_booking_stats.accepted + EXCLUDED.accepted, " +
+            "on_way = provider_booking_stats.on_way + EXCLUDED.on_way, " +
+            "in_service = provider_booking_stats.in_service + EXCLUDED.in_service, " +
+            "rejected = provider_booking_stats.rejected + EXCLUDED.rejected, " +
+            "cancelled = provider_booking_stats.cancelled + EXCLUDED.cancelled, " +
+            "completed = provider_booking_stats.completed + EXCLUDED.completed, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String FIND_PROVIDER_STATS =
+            "SELECT provider_id, requested, accepted, on_way, in_service, rejected, cancelled, completed, updated_at " +
+            "FROM provider_booking_stats WHERE provider_id = ?";
+
+    private static final String FIND_USER_TIMELINE =
+            "SELECT id, booking_id, provider_id, type, from_status, to_status, occurred_at FROM booking_events " +
+            "WHERE user_id = ? AND id < ? ORDER BY id DESC LIMIT ?";
+
+    private static final RowMapper<ProviderDashboardDTO> DASHBOARD_ROW = (rs, rowNum) ->
+            new ProviderDashboardDTO(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5),
+                    rs.getLong(6), rs.getLong(7), rs.getLong(8), rs.getTimestamp(9).toLocalDateTime());
+
+    private static final RowMapper<BookingEventDTO> EVENT_ROW = (rs, rowNum) -> {
+        long providerId = rs.getLong(3);
+        Long provider = rs.wasNull() ? null : providerId;
+        String from = rs.getString(5);
+        return new BookingEventDTO(rs.getLong(1), rs.getLong(2), provider, BookingEventType.valueOf(rs.getString(4)),
+                from != null ? BookingStatus.valueOf(from) : null, BookingStatus.valueOf(rs.getString(6)),
+                rs.getTimestamp(7).toLocalDateTime());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Appends the events in one JDBC batch in the caller's transaction
+    public void append(List<BookingEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(APPEND, events, events.size(), (ps, event) -> {
+            ps.setLong(1, event.getBookingId());
+            ps.setLong(2, event.getUserId());
+            if (event.getProviderId() != null) {
+                ps.setLong(3, event.getProviderId());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setString(4, event.getType().name());
+            ps.setString(5, event.getFromStatus() != null ? event.getFromStatus().name() : null);
+            ps.setString(6, event.getToStatus().name());
+        });
+    }
+
+    // Adds the deltas to the providers' dashboard rows, creating rows for providers seen for the first time
+    public void addProviderStats(List<ProviderBookingStatsDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ADD_PROVIDER_STATS, deltas, deltas.size(), (ps, delta) -> {
+            ps.setLong(1, delta.getProviderId());
+            ps.setInt(2, delta.get(BookingStatus.REQUESTED));
+            ps.setInt(3, delta.get(BookingStatus.ACCEPTED));
+            ps.setInt(4, delta.get(BookingStatus.ON_WAY));
+            ps.setInt(5, delta.get(BookingStatus.IN_SERVICE));
+            ps.setInt(6, delta.get(BookingStatus.REJECTED));
+            ps.setInt(7, delta.get(BookingStatus.CANCELLED));
+            ps.setInt(8, delta.get(BookingStatus.COMPLETED));
+        });
+    }
+
+    public Optional<ProviderDashboardDTO> findProviderStats(long providerId) {
+        return jdbcTemplate.query(FIND_PROVIDER_STATS, DASHBOARD_ROW, providerId).stream().findFirst();
+    }
+
+    // Events of the user's bookings older than the given event id, newest first
+    public List<BookingEventDTO> findUserTimeline(long userId, long beforeEventId, int limit) {
+        return jdbcTemplate.query(FIND_USER_TIMELINE, EVENT_ROW, userId, beforeEventId, limit);
+    }
+}
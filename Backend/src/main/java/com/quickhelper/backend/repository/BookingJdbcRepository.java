@@ -0,0 +1,141 @@
+package com.quickhelper.backend.repository;
+
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.service.AcceptedBooking;
+import com.quickhelper.backend.service.RejectedBooking;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+// Set-based booking status changes that would otherwise load and save one entity per row
+public class BookingJdbcRepository {
+    private static final String TIMEOUT_NOTE = "Auto-rejected due to timeout";
+    private static final String TIMEOUT_NOTE_SUFFIX = " (Auto-rejected due to timeout)";
+
+    // Side effects of the bookings in "rejected", shared by every bulk rejection so they cannot drift apart: each
+    // provider gets its slots back in provider_profiles, the rejections are appended to booking_events with the
+    // event type bound last, and the provider dashboard rows move them from requested to rejected
+    private static final String PROJECT_REJECTED =
+            "freed AS (SELECT provider_id, COUNT(*) AS freed FROM rejected GROUP BY provider_id), " +
+            "released AS (" +
+            "UPDATE provider_profiles pp SET active_bookings = GREATEST(pp.active_bookings - f.freed, 0) " +
+            "FROM freed f WHERE pp.user_id = f.provider_id), " +
+            "logged AS (" +
+            "INSERT INTO booking_events (booking_id, user_id, provider_id, type, from_status, to_status) " +
+            "SELECT id, user_id, provider_id, CAST(? AS VARCHAR(50)), 'REQUESTED', 'REJECTED' FROM rejected), " +
+            "projected AS (" +
+            "UPDATE provider_booking_stats s SET requested = s.requested - f.freed, rejected = s.rejected + f.freed, " +
+            "updated_at = CURRENT_TIMESTAMP FROM freed f WHERE s.provider_id = f.provider_id) ";
+
+    // SKIP LOCKED leaves rows that a concurrent accept or cancel is holding to that transaction. Unclaimed
+    // broadcast requests have no provider and escalate through dispatch instead, so they are not picked.
+    // The same statement applies the rejections' side effects, see PROJECT_REJECTED
+    private static final String REJECT_OVERDUE =
+            "WITH rejected AS (" +
+            "UPDATE bookings b SET status = 'REJECTED', status_changed_at = CURRENT_TIMESTAMP, " +
+            "note = CASE WHEN b.note IS NULL THEN ? ELSE b.note || ? END " +
+            "FROM users p " +
+            "WHERE p.id = b.provider_id AND b.id IN (" +
+            "SELECT id FROM bookings WHERE status = 'REQUESTED' AND provider_id IS NOT NULL AND created_at < ? " +
+            "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING b.id, b.user_id, b.provider_id, p.name, b.created_at), " +
+            PROJECT_REJECTED +
+            "SELECT id, user_id, provider_id, name, created_at FROM rejected";
+
+    private static final String REJECT_REQUESTED =
+            "WITH rejected AS (" +
+            "UPDATE bookings b SET status = 'REJECTED', status_changed_at = CURRENT_TIMESTAMP, " +
+            "note = CASE WHEN b.note IS NULL THEN ? ELSE b.note || ? END " +
+            "FROM users p " +
+            "WHERE p.id = b.provider_id AND b.status = 'REQUESTED' AND b.id IN (%s) " +
+            "RETURNING b.id, b.user_id, b.provider_id, p.name, b.created_at), " +
+            PROJECT_REJECTED +
+            "SELECT id, user_id, provider_id, name, created_at FROM rejected";
+
+    // Provider batch actions: only the provider's own bookings that are still REQUESTED change
+    private static final String ACCEPT_FOR_PROVIDER =
+            "UPDATE bookings b SET status = 'ACCEPTED', accepted_at = ?, status_changed_at = ? " +
+            "FROM users u " +
+            "WHERE u.id = b.user_id AND b.provider_id = ? AND b.status = 'REQUESTED' AND b.id IN (%s) " +
+            "RETURNING b.id, b.user_id, u.name, b.created_at";
+
+    // Applies the rejections' side effects in the same statement as the timeouts do, see PROJECT_REJECTED
+    private static final String REJECT_FOR_PROVIDER =
+            "WITH rejected AS (" +
+            "UPDATE bookings b SET status = 'REJECTED', status_changed_at = ? " +
+            "FROM users p " +
+            "WHERE p.id = b.provider_id AND b.provider_id = ? AND b.status = 'REQUESTED' AND b.id IN (%s) " +
+            "RETURNING b.id, b.user_id, b.provider_id, p.name, b.created_at), " +
+            PROJECT_REJECTED +
+            "SELECT id, user_id, provider_id, name, created_at FROM rejected";
+
+    private static final RowMapper<AcceptedBooking> ACCEPTED_ROW = (rs, rowNum) ->
+            new AcceptedBooking(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getTimestamp(4).toLocalDateTime());
+
+    private static final RowMapper<RejectedBooking> REJECTED_ROW = (rs, rowNum) ->
+            new RejectedBooking(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4),
+                    rs.getTimestamp(5).toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Rejects up to limit of the oldest REQUESTED bookings created before the cutoff in one statement
+    public List<RejectedBooking> rejectOverdue(LocalDateTime createdBefore, int limit) {
+        return jdbcTemplate.query(REJECT_OVERDUE, REJECTED_ROW,
+                TIMEOUT_NOTE, TIMEOUT_NOTE_SUFFIX, Timestamp.valueOf(createdBefore), limit, BookingEventType.TIMED_OUT.name());
+    }
+
+    // Rejects the given bookings that are still REQUESTED; bookings answered meanwhile are left alone
+    public List<RejectedBooking> rejectRequested(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> args = new ArrayList<>(bookingIds.size() + 3);
+        args.add(TIMEOUT_NOTE);
+        args.add(TIMEOUT_NOTE_SUFFIX);
+        args.addAll(bookingIds);
+        args.add(BookingEventType.TIMED_OUT.name());
+        return jdbcTemplate.query(String.format(REJECT_REQUESTED, placeholders(bookingIds)), REJECTED_ROW, args.toArray());
+    }
+
+    // Accepts those of the given bookings that belong to the provider and are still REQUESTED
+    public List<AcceptedBooking> acceptForProvider(long providerId, Collection<Long> bookingIds, LocalDateTime acceptedAt) {
+        if (bookingIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Timestamp at = Timestamp.valueOf(acceptedAt);
+        List<Object> args = new ArrayList<>(bookingIds.size() + 3);
+        args.add(at);
+        args.add(at);
+        args.add(providerId);
+        args.addAll(bookingIds);
+        return jdbcTemplate.query(String.format(ACCEPT_FOR_PROVIDER, placeholders(bookingIds)), ACCEPTED_ROW, args.toArray());
+    }
+
+    // Rejects those of the given bookings that belong to the provider and are still REQUESTED, with the same
+    // side effects as a timeout
+    public List<RejectedBooking> rejectForProvider(long providerId, Collection<Long> bookingIds, LocalDateTime rejectedAt) {
+        if (bookingIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> args = new ArrayList<>(bookingIds.size() + 3);
+        args.add(Timestamp.valueOf(rejectedAt));
+        args.add(providerId);
+        args.addAll(bookingIds);
+        args.add(BookingEventType.REJECTED.name());
+        return jdbcTemplate.query(String.format(REJECT_FOR_PROVIDER, placeholders(bookingIds)), REJECTED_ROW, args.toArray());
+    }
+
+    private static String placeholders(Collection<?> values) {
+        return String.join(", ", Collections.nCopies(values.size(), "?"));
+    }
+}
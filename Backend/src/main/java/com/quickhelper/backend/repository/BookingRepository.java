@@ -1,17 +1,135 @@
 package com.quickhelper.backend.repository;
 
+import com.quickhelper.backend.dto.BookingSummaryDTO;
 import com.quickhelper.backend.model.Booking;
 import com.quickhelper.backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 // JPA repository for booking entities and lookups by user/provider
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    // Booking history projection: both sides are read as columns, never as User entities
+    String HISTORY_SELECT = "SELECT new com.quickhelper.backend.dto.BookingSummaryDTO(b.id, b.serviceType, b.status, b.note, " +
+            "b.createdAt, b.acceptedAt, b.completedAt, u.id, u.name, p.id, p.name) " +
+            "FROM Booking b JOIN b.user u LEFT JOIN b.provider p ";
+    String HISTORY_AFTER = "(b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) ";
+    String HISTORY_ORDER = "ORDER BY b.createdAt DESC, b.id DESC";
+
     List<Booking> findByUser(User user);
     List<Booking> findByProvider(User provider);
     List<Booking> findByStatusAndCreatedAtBefore(com.quickhelper.backend.model.BookingStatus status, java.time.LocalDateTime dateTime);
     Long countByStatus(com.quickhelper.backend.model.BookingStatus status);
+
+    // Rows of [status, number of bookings in it]
+    @Query("SELECT b.status, COUNT(b) FROM Booking b GROUP BY b.status")
+    List<Object[]> countGroupedByStatus();
+
+    Optional<Booking> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    // Booking history, newest first, in (created_at, id) keyset order. The "After" variants continue below a cursor
+    // row; Pageable only carries the row limit
+    @Query(HISTORY_SELECT + "WHERE b.user.id = :userId AND b.status IN :statuses " + HISTORY_ORDER)
+    List<BookingSummaryDTO> findHistoryByUser(@Param("userId") Long userId,
+                                              @Param("statuses") Collection<com.quickhelper.backend.model.BookingStatus> statuses,
+                                              Pageable limit);
+
+    @Query(HISTORY_SELECT + "WHERE b.user.id = :userId AND b.status IN :statuses AND " + HISTORY_AFTER + HISTORY_ORDER)
+    List<BookingSummaryDTO> findHistoryByUserAfter(@Param("userId") Long userId,
+                                                   @Param("statuses") Collection<com.quickhelper.backend.model.BookingStatus> statuses,
+                                                   @Param("createdAt") java.time.LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable limit);
+
+    @Query(HISTORY_SELECT + "WHERE b.provider.id = :providerId AND b.status IN :statuses " + HISTORY_ORDER)
+    List<BookingSummaryDTO> findHistoryByProvider(@Param("providerId") Long providerId,
+                                                  @Param("statuses") Collection<com.quickhelper.backend.model.BookingStatus> statuses,
+                                                  Pageable limit);
+
+    @Query(HISTORY_SELECT + "WHERE b.provider.id = :providerId AND b.status IN :statuses AND " + HISTORY_AFTER + HISTORY_ORDER)
+    List<BookingSummaryDTO> findHistoryByProviderAfter(@Param("providerId") Long providerId,
+                                                       @Param("statuses") Collection<com.quickhelper.backend.model.BookingStatus> statuses,
+                                                       @Param("createdAt") java.time.LocalDateTime createdAt,
+                                                       @Param("id") Long id,
+                                                       Pageable limit);
+
+    // Rows of [provider user id, average seconds from request to acceptance]
+    @Query(value = "SELECT provider_id, AVG(EXTRACT(EPOCH FROM (accepted_at - created_at))) FROM bookings " +
+            "WHERE accepted_at IS NOT NULL AND created_at >= :since GROUP BY provider_id", nativeQuery = true)
+    List<Object[]> averageAcceptSecondsByProviderSince(@Param("since") java.time.LocalDateTime since);
+
+    // Rows of [booking id, provider profile id] for bookings in any of the given statuses
+    @Query("SELECT b.id, p.id FROM Booking b, ProviderProfile p WHERE p.user = b.provider AND b.status IN :statuses")
+    List<Object[]> findIdAndProviderProfileIdByStatusIn(@Param("statuses") Collection<com.quickhelper.backend.model.BookingStatus> statuses);
+
+    // Rows of [booking id, created at] for bookings in the given status that have a provider
+    @Query("SELECT b.id, b.createdAt FROM Booking b WHERE b.status = :status AND b.provider IS NOT NULL")
+    List<Object[]> findAssignedIdAndCreatedAtByStatus(@Param("status") com.quickhelper.backend.model.BookingStatus status);
+
+    // Broadcast requests in the given status that no provider has claimed
+    @Query("SELECT b FROM Booking b JOIN FETCH b.user WHERE b.status = :status AND b.provider IS NULL")
+    List<Booking> findUnassignedByStatus(@Param("status") com.quickhelper.backend.model.BookingStatus status);
+
+    // Rows of [booking id, status, provider user id or null] for the given bookings
+    @Query("SELECT b.id, b.status, p.id FROM Booking b LEFT JOIN b.provider p WHERE b.id IN :ids")
+    List<Object[]> findIdStatusAndProviderIdByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Rows of [booking id, provider user id, scheduled start, scheduled end] of scheduled bookings in the given
+    // statuses that end after the given time
+    @Query("SELECT b.id, p.id, b.scheduledStart, b.scheduledEnd FROM Booking b JOIN b.provider p " +
+            "WHERE b.status IN :statuses AND b.scheduledStart IS NOT NULL AND b.scheduledEnd > :after")
+    List<Object[]> findScheduledSlotsEndingAfter(@Param("statuses") Collection<com.quickhelper.backend.model.BookingStatus> statuses,
+                                                 @Param("after") java.time.LocalDateTime after);
+
+    // Rows of [booking id, scheduled start, scheduled end] of the provider's scheduled bookings in the given
+    // statuses that overlap [from, to), by start
+    @Query("SELECT b.id, b.scheduledStart, b.scheduledEnd FROM Booking b " +
+            "WHERE b.provider.id = :providerId AND b.status IN :statuses " +
+            "AND b.scheduledStart < :to AND b.scheduledEnd > :from ORDER BY b.scheduledStart")
+    List<Object[]> findScheduledSlotsOverlapping(@Param("providerId") Long providerId,
+                                                 @Param("statuses") Collection<com.quickhelper.backend.model.BookingStatus> statuses,
+                                                 @Param("from") java.time.LocalDateTime from,
+                                                 @Param("to") java.time.LocalDateTime to);
+
+    @Query("SELECT b.status FROM Booking b WHERE b.id = :id")
+    Optional<com.quickhelper.backend.model.BookingStatus> findStatusById(@Param("id") Long id);
+
+    // Conditional status change: only matches while the booking is still in one of the expected statuses, so of
+    // several concurrent transitions exactly one updates the row. Returns the number of rows changed (0 or 1)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :target, b.statusChangedAt = :at WHERE b.id = :id AND b.status IN :expected")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("expected") Collection<com.quickhelper.backend.model.BookingStatus> expected,
+                         @Param("target") com.quickhelper.backend.model.BookingStatus target,
+                         @Param("at") java.time.LocalDateTime at);
+
+    // REQUESTED -> ACCEPTED, stamping the acceptance time in the same statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.quickhelper.backend.model.BookingStatus.ACCEPTED, b.acceptedAt = :at, " +
+            "b.statusChangedAt = :at " +
+            "WHERE b.id = :id AND b.status = com.quickhelper.backend.model.BookingStatus.REQUESTED")
+    int markAccepted(@Param("id") Long id, @Param("at") java.time.LocalDateTime acceptedAt);
+
+    // Any of the expected statuses -> COMPLETED, stamping the completion time in the same statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.quickhelper.backend.model.BookingStatus.COMPLETED, b.completedAt = :at, " +
+            "b.statusChangedAt = :at WHERE b.id = :id AND b.status IN :expected")
+    int markCompleted(@Param("id") Long id,
+                      @Param("expected") Collection<com.quickhelper.backend.model.BookingStatus> expected,
+                      @Param("at") java.time.LocalDateTime completedAt);
+
+    // Awards an unclaimed broadcast request to a provider; of several concurrent claims exactly one matches
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.provider = :provider, b.status = com.quickhelper.backend.model.BookingStatus.ACCEPTED, " +
+            "b.acceptedAt = :at, b.statusChangedAt = :at WHERE b.id = :id AND b.provider IS NULL " +
+            "AND b.status = com.quickhelper.backend.model.BookingStatus.REQUESTED")
+    int claim(@Param("id") Long id, @Param("provider") User provider, @Param("at") java.time.LocalDateTime acceptedAt);
 }
@@ -0,0 +1,77 @@
+package com.quickhelper.backend.repository;
+
+import com.quickhelper.backend.model.Notification;
+import com.quickhelper.backend.model.NotificationType;
+import com.quickhelper.backend.model.UserRole;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+// Plain JDBC access to the notification outbox: appends are one batch insert, and a drain moves a batch of
+// events into notifications with a single statement
+public class NotificationOutboxRepository {
+    private static final String APPEND =
+            "INSERT INTO notification_outbox (receiver_id, receiver_role, type, title, message, is_high_priority, " +
+            "related_booking_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // SKIP LOCKED lets several instances drain concurrently without handing out the same event twice
+    private static final String DRAIN =
+            "WITH batch AS (" +
+            "DELETE FROM notification_outbox WHERE id IN (" +
+            "SELECT id FROM notification_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, receiver_id, receiver_role, type, title, message, is_high_priority, related_booking_id, created_at) " +
+            "INSERT INTO notifications (receiver_id, receiver_role, type, title, message, is_read, is_high_priority, " +
+            "related_booking_id, created_at) " +
+            "SELECT receiver_id, receiver_role, type, title, message, FALSE, is_high_priority, related_booking_id, created_at " +
+            "FROM batch ORDER BY id " +
+            "RETURNING id, receiver_id, receiver_role, type, title, message, is_high_priority, related_booking_id, created_at";
+
+    private static final RowMapper<Notification> NOTIFICATION_ROW = (rs, rowNum) -> {
+        Notification notification = new Notification();
+        notification.setId(rs.getLong(1));
+        notification.setReceiverId(rs.getLong(2));
+        notification.setReceiverRole(UserRole.valueOf(rs.getString(3)));
+        notification.setType(NotificationType.valueOf(rs.getString(4)));
+        notification.setTitle(rs.getString(5));
+        notification.setMessage(rs.getString(6));
+        notification.setIsRead(false);
+        notification.setIsHighPriority(rs.getBoolean(7));
+        long bookingId = rs.getLong(8);
+        notification.setRelatedBookingId(rs.wasNull() ? null : bookingId);
+        notification.setCreatedAt(rs.getTimestamp(9).toLocalDateTime());
+        return notification;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Appends unsaved notifications to the outbox in the caller's transaction
+    public void append(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(APPEND, notifications, notifications.size(), (ps, notification) -> {
+            ps.setLong(1, notification.getReceiverId());
+            ps.setString(2, notification.getReceiverRole().name());
+            ps.setString(3, notification.getType().name());
+            ps.setString(4, notification.getTitle());
+            ps.setString(5, notification.getMessage());
+            ps.setBoolean(6, Boolean.TRUE.equals(notification.getIsHighPriority()));
+            if (notification.getRelatedBookingId() != null) {
+                ps.setLong(7, notification.getRelatedBookingId());
+            } else {
+                ps.setNull(7, Types.BIGINT);
+            }
+        });
+    }
+
+    // Moves up to limit of the oldest events into notifications and returns the stored notifications
+    public List<Notification> drain(int limit) {
+        return jdbcTemplate.query(DRAIN, NOTIFICATION_ROW, limit);
+    }
+}
@@ -0,0 +1,38 @@
+package com.quickhelper.backend.repository;
+
+import com.quickhelper.backend.service.LivePosition;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+// Plain JDBC writes for high-rate provider position updates, bypassing the JPA load-modify-save cycle
+public class ProviderLocationJdbcRepository {
+    private static final String UPDATE_LOCATION =
+            "UPDATE provider_profiles SET location_lat = ?, location_lng = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Writes all positions in one JDBC batch; returns the number of rows updated
+    public int batchUpdateLocations(List<LivePosition> positions) {
+        if (positions.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_LOCATION, positions, positions.size(), (ps, position) -> {
+            ps.setDouble(1, position.getLat());
+            ps.setDouble(2, position.getLng());
+            ps.setLong(3, position.getProviderId());
+        });
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers may report SUCCESS_NO_INFO (-2) instead of a row count
+                updated += count > 0 ? count : 0;
+            }
+        }
+        return updated;
+    }
+}
@@ -4,11 +4,14 @@ import com.quickhelper.backend.model.ProviderProfile;
 import com.quickhelper.backend.model.ServiceType;
 import com.quickhelper.backend.model.User;
 import com.quickhelper.backend.model.ProfileStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,4 +31,88 @@ public interface ProviderProfileRepository extends JpaRepository<ProviderProfile
     List<ProviderProfile> findByUserCityAndServiceTypeAndIsAvailableTrue(@Param("city") String city, @Param("serviceType") ServiceType serviceType);
 
     Long countByIsApprovedTrue();
+
+    // Listing queries fetch the owning user and portfolio images in the same statement as the profiles,
+    // so mapping a page of results to DTOs never issues per-provider SELECTs
+    @EntityGraph(attributePaths = {"user", "portfolioImages"})
+    @Query("SELECT p FROM ProviderProfile p WHERE p.profileStatus = :status")
+    List<ProviderProfile> findListingByProfileStatus(@Param("status") ProfileStatus status);
+
+    @EntityGraph(attributePaths = {"user", "portfolioImages"})
+    // City listings match case-insensitively; pass the city trimmed and lower-cased
+    @Query("SELECT p FROM ProviderProfile p WHERE LOWER(p.user.city) = :city AND p.profileStatus = :status")
+    List<ProviderProfile> findListingByUserCity(@Param("city") String city, @Param("status") ProfileStatus status);
+
+    @EntityGraph(attributePaths = {"user", "portfolioImages"})
+    @Query("SELECT p FROM ProviderProfile p WHERE p.serviceType = :serviceType AND p.isAvailable = true " +
+            "AND p.profileStatus = :status")
+    List<ProviderProfile> findAvailableListingByServiceType(@Param("serviceType") ServiceType serviceType,
+                                                            @Param("status") ProfileStatus status);
+
+    @EntityGraph(attributePaths = {"user", "portfolioImages"})
+    @Query("SELECT p FROM ProviderProfile p WHERE LOWER(p.user.city) = :city AND p.serviceType = :serviceType " +
+            "AND p.isAvailable = true AND p.profileStatus = :status")
+    List<ProviderProfile> findAvailableListingByUserCityAndServiceType(@Param("city") String city,
+                                                                       @Param("serviceType") ServiceType serviceType,
+                                                                       @Param("status") ProfileStatus status);
+
+    @EntityGraph(attributePaths = {"user", "portfolioImages"})
+    @Query("SELECT p FROM ProviderProfile p WHERE p.id IN :ids")
+    List<ProviderProfile> findListingByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Substring text match, only used while the in-memory text index is warming up; pattern is lower-cased
+    @EntityGraph(attributePaths = {"user", "portfolioImages"})
+    @Query("SELECT p FROM ProviderProfile p WHERE p.profileStatus = :status AND (LOWER(p.displayName) LIKE :pattern " +
+            "OR LOWER(p.tagline) LIKE :pattern OR LOWER(p.description) LIKE :pattern)")
+    List<ProviderProfile> findListingByTextLike(@Param("status") ProfileStatus status, @Param("pattern") String pattern);
+
+    // Bounding-box prefilters for distance searches; the exact radius check runs on the returned rows
+    @EntityGraph(attributePaths = {"user", "portfolioImages"})
+    @Query("SELECT p FROM ProviderProfile p WHERE p.profileStatus = :status " +
+            "AND p.locationLat BETWEEN :minLat AND :maxLat AND p.locationLng BETWEEN :minLng AND :maxLng")
+    List<ProviderProfile> findByProfileStatusWithinBox(@Param("status") ProfileStatus status,
+                                                       @Param("minLat") Double minLat, @Param("maxLat") Double maxLat,
+                                                       @Param("minLng") Double minLng, @Param("maxLng") Double maxLng);
+
+    @EntityGraph(attributePaths = {"user", "portfolioImages"})
+    @Query("SELECT p FROM ProviderProfile p WHERE p.serviceType = :serviceType " +
+            "AND p.isAvailable = true AND p.profileStatus = :status " +
+            "AND p.locationLat BETWEEN :minLat AND :maxLat AND p.locationLng BETWEEN :minLng AND :maxLng")
+    List<ProviderProfile> findAvailableByServiceTypeWithinBox(@Param("serviceType") ServiceType serviceType,
+                                                              @Param("status") ProfileStatus status,
+                                                              @Param("minLat") Double minLat, @Param("maxLat") Double maxLat,
+                                                              @Param("minLng") Double minLng, @Param("maxLng") Double maxLng);
+
+    // Rows of [provider user id, active bookings] for providers with at least one active booking
+    @Query("SELECT p.user.id, p.activeBookings FROM ProviderProfile p WHERE p.activeBookings > 0")
+    List<Object[]> findActiveBookingCounts();
+
+    // Takes a booking slot only while the provider is below the cap; of several concurrent reservations for the
+    // last slot exactly one matches. Returns the number of rows changed (0 or 1)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProviderProfile p SET p.activeBookings = p.activeBookings + 1 " +
+            "WHERE p.user.id = :userId AND p.activeBookings < :cap")
+    int reserveSlot(@Param("userId") Long userId, @Param("cap") int cap);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProviderProfile p SET p.activeBookings = p.activeBookings - 1 " +
+            "WHERE p.user.id = :userId AND p.activeBookings > 0")
+    int releaseSlot(@Param("userId") Long userId);
+
+    // Switches an available provider off once the cap is reached, remembering that capacity did it
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProviderProfile p SET p.isAvailable = false, p.capacityPaused = true " +
+            "WHERE p.user.id = :userId AND p.activeBookings >= :cap AND p.isAvailable = true")
+    int pauseIfSaturated(@Param("userId") Long userId, @Param("cap") int cap);
+
+    // Switches a provider paused by capacity back on once a slot is free; manual availability is left alone
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProviderProfile p SET p.isAvailable = true, p.capacityPaused = false " +
+            "WHERE p.user.id = :userId AND p.activeBookings < :cap AND p.capacityPaused = true")
+    int resumeIfFreed(@Param("userId") Long userId, @Param("cap") int cap);
+
+    // A manual availability change takes over from the capacity pause
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProviderProfile p SET p.capacityPaused = false WHERE p.id = :id AND p.capacityPaused = true")
+    int clearCapacityPause(@Param("id") Long id);
 }
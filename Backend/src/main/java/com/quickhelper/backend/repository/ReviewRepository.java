@@ -17,4 +17,7 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     
     @org.springframework.data.jpa.repository.Query("SELECT AVG(r.rating) FROM Review r")
     Double getAverageRating();
+
+    @org.springframework.data.jpa.repository.Query("SELECT COALESCE(SUM(r.rating), 0) FROM Review r")
+    long sumRatings();
 }
@@ -0,0 +1,16 @@
+package com.quickhelper.backend.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@RequiredArgsConstructor
+// Booking moved to ACCEPTED by a bulk update, with what the notifications and transition metrics need
+public class AcceptedBooking {
+    private final long bookingId;
+    private final long userId;
+    private final String userName;
+    private final LocalDateTime createdAt; // also when it entered REQUESTED
+}
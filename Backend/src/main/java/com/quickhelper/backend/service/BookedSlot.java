@@ -0,0 +1,20 @@
+package com.quickhelper.backend.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@RequiredArgsConstructor
+// Time a provider is committed to by an active scheduled booking, [start, end)
+public class BookedSlot {
+    private final long bookingId;
+    private final long providerUserId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && end.isAfter(otherStart);
+    }
+}
@@ -0,0 +1,194 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.BookingDeadlineStatsDTO;
+import com.quickhelper.backend.util.DebugUtil;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+@Component
+// Hashed timing wheel for booking deadlines: scheduling and cancelling are O(1), and each tick only looks at
+// one slot. Deadlines that fall due together are handed to the expiry handler in batches on a worker pool.
+public class BookingDeadlineWheel {
+    private static final int RETRY_TICKS = 5;
+
+    private final long tickMillis;
+    private final List<Entry>[] slots;
+    private final int batchSize;
+    private final Executor executor;
+    private final LongSupplier clock;
+
+    // Guarded by this
+    private final Map<Long, Entry> pending = new HashMap<>();
+    private long currentTick; // last tick whose slot has been processed
+
+    private volatile Consumer<List<Long>> expiryHandler = ids -> { };
+
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile long lastLagMillis;
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    @Autowired
+    public BookingDeadlineWheel(@Value("${bookings.deadline-wheel.tick-ms:1000}") long tickMillis,
+                                @Value("${bookings.deadline-wheel.slots:512}") int slotCount,
+                                @Value("${bookings.deadline-wheel.batch-size:200}") int batchSize,
+                                @Value("${bookings.deadline-wheel.workers:2}") int workers) {
+        this(tickMillis, slotCount, batchSize, newWorkerPool(workers), System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    BookingDeadlineWheel(long tickMillis, int slotCount, int batchSize, Executor executor, LongSupplier clock) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.slots = new List[Math.max(1, slotCount)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = executor;
+        this.clock = clock;
+        this.currentTick = clock.getAsLong() / this.tickMillis;
+    }
+
+    // Receives the ids of bookings whose deadline passed, one batch per call, on a worker thread
+    public void setExpiryHandler(Consumer<List<Long>> expiryHandler) {
+        this.expiryHandler = expiryHandler;
+    }
+
+    // Schedules or reschedules the deadline of a booking; past deadlines fire on the next tick
+    public synchronized void schedule(long bookingId, long deadlineMillis) {
+        Entry previous = pending.remove(bookingId);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Entry entry = new Entry(bookingId, deadlineMillis, tick);
+        slots[(int) (tick % slots.length)].add(entry);
+        pending.put(bookingId, entry);
+    }
+
+    // Drops a deadline that is no longer needed; the slot entry is discarded lazily when its tick comes
+    public synchronized void cancel(long bookingId) {
+        Entry entry = pending.remove(bookingId);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedRateString = "${bookings.deadline-wheel.tick-ms:1000}")
+    // Processes every slot between the last processed tick and now
+    public void advance() {
+        long now = clock.getAsLong();
+        List<Entry> due = new ArrayList<>();
+        synchronized (this) {
+            long nowTick = now / tickMillis;
+            if (nowTick <= currentTick) {
+                return;
+            }
+            // After a stall longer than one revolution every slot is visited once, which covers all ticks
+            long steps = Math.min(nowTick - currentTick, slots.length);
+            for (long tick = nowTick - steps + 1; tick <= nowTick; tick++) {
+                collectDue(slots[(int) (tick % slots.length)], nowTick, due);
+            }
+            currentTick = nowTick;
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        due.sort(Comparator.comparingLong(entry -> entry.deadlineMillis));
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Entry> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            executor.execute(() -> expire(batch));
+        }
+    }
+
+    public BookingDeadlineStatsDTO stats() {
+        return new BookingDeadlineStatsDTO(pendingCount(), tickMillis, expired.get(), batches.get(),
+                failedBatches.get(), lastLagMillis, maxLagMillis.get());
+    }
+
+    private void collectDue(List<Entry> slot, long nowTick, List<Entry> due) {
+        int kept = 0;
+        for (int i = 0; i < slot.size(); i++) {
+            Entry entry = slot.get(i);
+            if (entry.cancelled) {
+                continue;
+            }
+            if (entry.tick <= nowTick) {
+                pending.remove(entry.bookingId);
+                due.add(entry);
+            } else {
+                slot.set(kept++, entry); // due in a later revolution
+            }
+        }
+        slot.subList(kept, slot.size()).clear();
+    }
+
+    private void expire(List<Entry> batch) {
+        // The batch is sorted, so its first entry carries the largest lag
+        long lag = Math.max(0, clock.getAsLong() - batch.get(0).deadlineMillis);
+        lastLagMillis = lag;
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+        List<Long> ids = new ArrayList<>(batch.size());
+        batch.forEach(entry -> ids.add(entry.bookingId));
+        try {
+            expiryHandler.accept(ids);
+            expired.addAndGet(ids.size());
+            batches.incrementAndGet();
+        } catch (RuntimeException e) {
+            failedBatches.incrementAndGet();
+            DebugUtil.logError("Failed to expire {} bookings, retrying: {}", ids.size(), e.getMessage(), e);
+            long retryAt = clock.getAsLong() + RETRY_TICKS * tickMillis;
+            ids.forEach(id -> schedule(id, retryAt));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private static ExecutorService newWorkerPool(int workers) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, workers), runnable -> {
+            Thread thread = new Thread(runnable, "booking-expiry-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class Entry {
+        private final long bookingId;
+        private final long deadlineMillis;
+        private final long tick;
+        private boolean cancelled; // guarded by the wheel
+
+        private Entry(long bookingId, long deadlineMillis, long tick) {
+            this.bookingId = bookingId;
+            this.deadlineMillis = deadlineMillis;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.ProviderResponseDTO;
+import com.quickhelper.backend.dto.RankingWeightsDTO;
+import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.repository.BookingRepository;
+import com.quickhelper.backend.util.DebugUtil;
+import com.quickhelper.backend.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+@Service
+// Broadcast dispatch: offers a request to the best-ranked available providers within a ring around the customer
+// and widens the ring when nobody claims it within the window. Offers are tracked in memory only; who wins is
+// decided by the conditional claim update in BookingService, so this class never has to lock the booking.
+public class BookingDispatchService {
+    private static final RankingWeightsDTO DEFAULT_WEIGHTS = new RankingWeightsDTO();
+
+    private final ProviderService providerService;
+    private final NotificationService notificationService;
+    private final BookingRepository bookingRepository;
+    private final BookingStateMachine stateMachine;
+    private final TransactionTemplate transactionTemplate;
+    private final int offerCount;
+    private final double[] ringsKm;
+    private final long windowMillis;
+    private final LongSupplier clock;
+
+    private final Map<Long, Dispatch> active = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookingDispatchService(ProviderService providerService,
+                                  NotificationService notificationService,
+                                  BookingRepository bookingRepository,
+                                  BookingStateMachine stateMachine,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${bookings.dispatch.offer-count:5}") int offerCount,
+                                  @Value("${bookings.dispatch.rings-km:3,8,20}") double[] ringsKm,
+                                  @Value("${bookings.dispatch.window-seconds:30}") long windowSeconds) {
+        this(providerService, notificationService, bookingRepository, stateMachine, transactionTemplate,
+                offerCount, ringsKm, windowSeconds * 1000, System::currentTimeMillis);
+    }
+
+    BookingDispatchService(ProviderService providerService, NotificationService notificationService,
+                           BookingRepository bookingRepository, BookingStateMachine stateMachine,
+                           TransactionTemplate transactionTemplate,
+                           int offerCount, double[] ringsKm, long windowMillis, LongSupplier clock) {
+        this.providerService = providerService;
+        this.notificationService = notificationService;
+        this.bookingRepository = bookingRepository;
+        this.stateMachine = stateMachine;
+        this.transactionTemplate = transactionTemplate;
+        this.offerCount = Math.max(1, offerCount);
+        this.ringsKm = ringsKm.clone();
+        this.windowMillis = Math.max(1, windowMillis);
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    // Offers lived in memory, so unclaimed requests start over from the first ring after a restart
+    public void restoreOpenRequests() {
+        List<Booking> open = bookingRepository.findUnassignedByStatus(BookingStatus.REQUESTED);
+        for (Booking booking : open) {
+            begin(booking);
+        }
+        DebugUtil.logInfo("Restored dispatch of {} broadcast requests", open.size());
+    }
+
+    // Sends the first round of offers once the new broadcast request commits
+    public void dispatch(Booking booking) {
+        TransactionUtil.afterCommit(() -> begin(booking));
+    }
+
+    // True while the provider holds a live offer for the request
+    public boolean isOffered(long bookingId, long providerId) {
+        Dispatch dispatch = active.get(bookingId);
+        if (dispatch == null) {
+            return false;
+        }
+        synchronized (dispatch) {
+            return dispatch.offered.contains(providerId) && !dispatch.declined.contains(providerId);
+        }
+    }
+
+    // Drops a provider's offer; once every offered provider has declined, the next ring goes out right away
+    public void decline(long bookingId, long providerId) {
+        Dispatch dispatch = active.get(bookingId);
+        if (dispatch == null) {
+            return;
+        }
+        boolean allDeclined;
+        synchronized (dispatch) {
+            if (!dispatch.offered.contains(providerId) || !dispatch.declined.add(providerId)) {
+                return;
+            }
+            allDeclined = dispatch.declined.size() == dispatch.offered.size();
+        }
+        if (allDeclined) {
+            escalate(dispatch);
+        }
+    }
+
+    // Ends the dispatch once a claim commits and withdraws the offers of everyone else
+    public void awarded(long bookingId, long winnerId) {
+        TransactionUtil.afterCommit(() -> close(bookingId, winnerId));
+    }
+
+    // Ends the dispatch of a request the customer withdrew
+    public void withdrawn(long bookingId) {
+        TransactionUtil.afterCommit(() -> close(bookingId, null));
+    }
+
+    public int activeCount() {
+        return active.size();
+    }
+
+    @Scheduled(fixedDelayString = "${bookings.dispatch.tick-ms:1000}")
+    // Widens the ring of every request whose offer window passed without a claim
+    public void escalateDue() {
+        long now = clock.getAsLong();
+        for (Dispatch dispatch : active.values()) {
+            boolean due;
+            synchronized (dispatch) {
+                due = !dispatch.closed && dispatch.deadline <= now;
+            }
+            if (due) {
+                escalate(dispatch);
+            }
+        }
+    }
+
+    private void begin(Booking booking) {
+        if (booking.getLocationLat() == null || booking.getLocationLng() == null || booking.getServiceType() == null) {
+            DebugUtil.logWarn("Cannot dispatch booking {} without a service type and location", booking.getId());
+            return;
+        }
+        Dispatch dispatch = new Dispatch(booking.getId(), booking.getUser().getId(), booking.getServiceType(),
+                booking.getLocationLat(), booking.getLocationLng(), booking.getCreatedAt());
+        if (active.putIfAbsent(dispatch.bookingId, dispatch) == null) {
+            escalate(dispatch);
+        }
+    }
+
+    // Offers the request to the next ring that has providers not offered yet; past the last ring it gives up
+    private void escalate(Dispatch dispatch) {
+        List<Long> fresh = new ArrayList<>();
+        synchronized (dispatch) {
+            if (dispatch.closed) {
+                return;
+            }
+            while (fresh.isEmpty() && dispatch.ring < ringsKm.length) {
+                fresh = rankedNewProviders(dispatch, ringsKm[dispatch.ring++]);
+            }
+            dispatch.offered.addAll(fresh);
+            // An exhausted dispatch retries its final reject after another window if that fails
+            dispatch.deadline = clock.getAsLong() + windowMillis;
+        }
+        if (fresh.isEmpty()) {
+            exhaust(dispatch);
+            return;
+        }
+        try {
+            notificationService.notifyBookingOffered(fresh, dispatch.bookingId, dispatch.serviceType.toString());
+        } catch (Exception e) {
+            // The offers stand; providers can still claim through the bookings list
+            DebugUtil.logError("Failed to send offers for booking {}: {}", dispatch.bookingId, e.getMessage(), e);
+        }
+    }
+
+    private List<Long> rankedNewProviders(Dispatch dispatch, double radiusKm) {
+        List<ProviderResponseDTO> ranked = providerService.getRankedProviders(dispatch.serviceType,
+                dispatch.lat, dispatch.lng, radiusKm, offerCount + dispatch.offered.size(), DEFAULT_WEIGHTS);
+        List<Long> fresh = new ArrayList<>(offerCount);
+        for (ProviderResponseDTO provider : ranked) {
+            if (fresh.size() == offerCount) {
+                break;
+            }
+            if (!dispatch.offered.contains(provider.getUserId())) {
+                fresh.add(provider.getUserId());
+            }
+        }
+        return fresh;
+    }
+
+    // Rejects a request nobody claimed; a claim or cancel that commits first makes the update match nothing
+    private void exhaust(Dispatch dispatch) {
+        Integer rejected;
+        try {
+            rejected = transactionTemplate.execute(status -> {
+                BookingEventType type = BookingEventType.UNCLAIMED;
+                LocalDateTime at = LocalDateTime.now();
+                int updated = bookingRepository.transitionStatus(dispatch.bookingId, type.getSources(), type.getTarget(), at);
+                if (updated == 1) {
+                    stateMachine.applied(new BookingEvent(dispatch.bookingId, dispatch.userId, null,
+                            type, BookingStatus.REQUESTED, type.getTarget()), dispatch.requestedAt, at);
+                }
+                return updated;
+            });
+        } catch (DataAccessException e) {
+            DebugUtil.logError("Failed to close unclaimed booking {}: {}", dispatch.bookingId, e.getMessage(), e);
+            return;
+        }
+        if (rejected == null || rejected == 0) {
+            return;
+        }
+        close(dispatch.bookingId, null);
+        try {
+            notificationService.notifyNoProviderFound(dispatch.userId, dispatch.bookingId);
+        } catch (Exception e) {
+            DebugUtil.logError("Failed to notify unclaimed booking {}: {}", dispatch.bookingId, e.getMessage(), e);
+        }
+    }
+
+    private void close(long bookingId, Long winnerId) {
+        Dispatch dispatch = active.remove(bookingId);
+        if (dispatch == null) {
+            return;
+        }
+        List<Long> revoked;
+        synchronized (dispatch) {
+            dispatch.closed = true;
+            revoked = new ArrayList<>(dispatch.offered);
+        }
+        revoked.removeIf(id -> id.equals(winnerId));
+        if (revoked.isEmpty()) {
+            return;
+        }
+        try {
+            notificationService.notifyBookingOfferRevoked(revoked, bookingId);
+        } catch (Exception e) {
+            DebugUtil.logError("Failed to revoke offers for booking {}: {}", bookingId, e.getMessage(), e);
+        }
+    }
+
+    // Offer state of one broadcast request; mutable fields are guarded by the instance
+    private static final class Dispatch {
+        private final long bookingId;
+        private final long userId;
+        private final ServiceType serviceType;
+        private final double lat;
+        private final double lng;
+        private final LocalDateTime requestedAt;
+        private final Set<Long> offered = new LinkedHashSet<>();
+        private final Set<Long> declined = new HashSet<>();
+        private int ring; // index of the next ring to offer
+        private long deadline;
+        private boolean closed;
+
+        private Dispatch(long bookingId, long userId, ServiceType serviceType, double lat, double lng,
+                         LocalDateTime requestedAt) {
+            this.bookingId = bookingId;
+            this.userId = userId;
+            this.serviceType = serviceType;
+            this.lat = lat;
+            this.lng = lng;
+            this.requestedAt = requestedAt;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+// One booking transition as appended to the event log; fromStatus is null for a new booking, and equal to
+// toStatus for events that do not change the status
+public class BookingEvent {
+    private final long bookingId;
+    private final long userId;
+    private final Long providerId; // null while a broadcast request is unclaimed
+    private final BookingEventType type;
+    private final BookingStatus fromStatus;
+    private final BookingStatus toStatus;
+
+    // Event for a booking whose entity already reflects the new status
+    public static BookingEvent of(Booking booking, BookingEventType type, BookingStatus fromStatus) {
+        return new BookingEvent(booking.getId(), booking.getUser().getId(),
+                booking.getProvider() != null ? booking.getProvider().getId() : null,
+                type, fromStatus, booking.getStatus());
+    }
+
+    public boolean changesStatus() {
+        return fromStatus != toStatus;
+    }
+}
@@ -0,0 +1,152 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.BookingEventDTO;
+import com.quickhelper.backend.dto.ProviderDashboardDTO;
+import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.repository.BookingEventJdbcRepository;
+import com.quickhelper.backend.repository.BookingRepository;
+import com.quickhelper.backend.util.DebugUtil;
+import com.quickhelper.backend.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+// Append-only booking event log and the read models projected from it. Every transition appends an event and
+// adds its effect to the provider's dashboard row in the same transaction. Platform-wide per-status counts
+// would make every transition lock the same rows, so they are kept in memory, adjusted after commit and
+// reconciled from the bookings table periodically.
+public class BookingEventService {
+    private final BookingEventJdbcRepository eventRepository;
+    private final BookingRepository bookingRepository;
+
+    private final Map<BookingStatus, AtomicLong> statusCounts = newStatusCounts();
+    private volatile boolean ready;
+
+    // Records a transition of a booking whose entity already carries the new status
+    public void record(Booking booking, BookingEventType type, BookingStatus fromStatus) {
+        recordAll(List.of(BookingEvent.of(booking, type, fromStatus)));
+    }
+
+    // Appends the events and applies them to the read models in the caller's transaction
+    public void recordAll(List<BookingEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        eventRepository.append(events);
+        eventRepository.addProviderStats(providerDeltas(events));
+        statusCountsAfterCommit(events);
+    }
+
+    // For events whose rows and provider counters were written by a bulk statement; only the in-memory
+    // status counts still need them
+    public void recordedInBulk(List<BookingEvent> events) {
+        statusCountsAfterCommit(events);
+    }
+
+    public ProviderDashboardDTO getProviderDashboard(Long providerId) {
+        return eventRepository.findProviderStats(providerId)
+                .orElseGet(() -> new ProviderDashboardDTO(providerId, 0, 0, 0, 0, 0, 0, 0, null));
+    }
+
+    // Newest events of the user's bookings, continuing below beforeEventId when given
+    public List<BookingEventDTO> getUserTimeline(Long userId, Long beforeEventId, int limit) {
+        return eventRepository.findUserTimeline(userId, beforeEventId != null ? beforeEventId : Long.MAX_VALUE, limit);
+    }
+
+    public Map<BookingStatus, Long> getStatusCounts() {
+        if (!ready) {
+            reconcile();
+        }
+        Map<BookingStatus, Long> counts = new EnumMap<>(BookingStatus.class);
+        statusCounts.forEach((status, count) -> counts.put(status, Math.max(0, count.get())));
+        return counts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${bookings.events.reconcile-interval-ms:300000}",
+            initialDelayString = "${bookings.events.reconcile-interval-ms:300000}")
+    // Replaces the per-status counts with fresh aggregates; events racing with the read are corrected next run
+    public void reconcile() {
+        try {
+            Map<BookingStatus, Long> fresh = new EnumMap<>(BookingStatus.class);
+            for (Object[] row : bookingRepository.countGroupedByStatus()) {
+                fresh.put((BookingStatus) row[0], ((Number) row[1]).longValue());
+            }
+            long drift = 0;
+            for (BookingStatus status : BookingStatus.values()) {
+                long count = fresh.getOrDefault(status, 0L);
+                drift += Math.abs(statusCounts.get(status).getAndSet(count) - count);
+            }
+            if (ready && drift > 0) {
+                DebugUtil.logWarn("Booking status counts drifted by {} before reconcile", drift);
+            }
+            ready = true;
+        } catch (DataAccessException e) {
+            DebugUtil.logError("Failed to reconcile booking status counts: {}", e.getMessage(), e);
+        }
+    }
+
+    // A provider's status counters move with the booking, except that a claim hands them a booking they did not
+    // hold while it was REQUESTED
+    static List<ProviderBookingStatsDelta> providerDeltas(List<BookingEvent> events) {
+        Map<Long, ProviderBookingStatsDelta> byProvider = new LinkedHashMap<>();
+        for (BookingEvent event : events) {
+            if (event.getProviderId() == null) {
+                continue;
+            }
+            ProviderBookingStatsDelta delta = byProvider.computeIfAbsent(event.getProviderId(), ProviderBookingStatsDelta::new);
+            if (!event.changesStatus()) {
+                continue;
+            }
+            if (event.getFromStatus() != null && event.getType() != BookingEventType.CLAIMED) {
+                delta.add(event.getFromStatus(), -1);
+            }
+            delta.add(event.getToStatus(), 1);
+        }
+        return new ArrayList<>(byProvider.values());
+    }
+
+    private void statusCountsAfterCommit(List<BookingEvent> events) {
+        List<BookingEvent> changes = new ArrayList<>(events.size());
+        for (BookingEvent event : events) {
+            if (event.changesStatus()) {
+                changes.add(event);
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> changes.forEach(event -> {
+            if (event.getFromStatus() != null) {
+                statusCounts.get(event.getFromStatus()).decrementAndGet();
+            }
+            statusCounts.get(event.getToStatus()).incrementAndGet();
+        }));
+    }
+
+    private static Map<BookingStatus, AtomicLong> newStatusCounts() {
+        Map<BookingStatus, AtomicLong> counts = new EnumMap<>(BookingStatus.class);
+        for (BookingStatus status : BookingStatus.values()) {
+            counts.put(status, new AtomicLong());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,134 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.repository.BookingJdbcRepository;
+import com.quickhelper.backend.repository.BookingRepository;
+import com.quickhelper.backend.util.DebugUtil;
+import com.quickhelper.backend.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+// Auto-rejects booking requests the provider did not answer in time. The deadline wheel expires requests
+// as they fall due; a periodic sweep catches anything the wheel missed. Both reject with set-based updates.
+public class BookingExpiryService {
+    private final BookingRepository bookingRepository;
+    private final BookingJdbcRepository bookingJdbcRepository;
+    private final NotificationService notificationService;
+    private final BookingDeadlineWheel deadlineWheel;
+    private final ProviderCapacityService capacityService;
+    private final BookingStateMachine stateMachine;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeoutMillis;
+    private final int sweepChunkSize;
+    private final int sweepMaxChunks;
+
+    public BookingExpiryService(BookingRepository bookingRepository,
+                                BookingJdbcRepository bookingJdbcRepository,
+                                NotificationService notificationService,
+                                BookingDeadlineWheel deadlineWheel,
+                                ProviderCapacityService capacityService,
+                                BookingStateMachine stateMachine,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${bookings.request-timeout-seconds:120}") long timeoutSeconds,
+                                @Value("${bookings.sweeper.chunk-size:500}") int sweepChunkSize,
+                                @Value("${bookings.sweeper.max-chunks:20}") int sweepMaxChunks) {
+        this.bookingRepository = bookingRepository;
+        this.bookingJdbcRepository = bookingJdbcRepository;
+        this.notificationService = notificationService;
+        this.deadlineWheel = deadlineWheel;
+        this.capacityService = capacityService;
+        this.stateMachine = stateMachine;
+        this.transactionTemplate = transactionTemplate;
+        this.timeoutMillis = timeoutSeconds * 1000;
+        this.sweepChunkSize = Math.max(1, sweepChunkSize);
+        this.sweepMaxChunks = Math.max(1, sweepMaxChunks);
+    }
+
+    @PostConstruct
+    void registerHandler() {
+        deadlineWheel.setExpiryHandler(this::expire);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    // Re-arms the deadlines of requests that were pending when the app stopped; overdue ones expire on the next tick
+    public void restorePendingDeadlines() {
+        List<Object[]> rows = bookingRepository.findAssignedIdAndCreatedAtByStatus(BookingStatus.REQUESTED);
+        for (Object[] row : rows) {
+            deadlineWheel.schedule(((Number) row[0]).longValue(), deadlineOf((LocalDateTime) row[1]));
+        }
+        DebugUtil.logInfo("Restored {} booking request deadlines", rows.size());
+    }
+
+    // Arms the timeout of a new request once it commits
+    public void scheduleTimeout(Booking booking) {
+        long bookingId = booking.getId();
+        long deadline = deadlineOf(booking.getCreatedAt());
+        TransactionUtil.afterCommit(() -> deadlineWheel.schedule(bookingId, deadline));
+    }
+
+    // Disarms the timeout once the request has been answered
+    public void cancelTimeout(Long bookingId) {
+        TransactionUtil.afterCommit(() -> deadlineWheel.cancel(bookingId));
+    }
+
+    // Rejects the bookings of one wheel batch that are still REQUESTED with a single update. The rejections, the
+    // provider resumes and the queued notifications commit together; on failure the wheel retries the whole batch
+    public void expire(List<Long> bookingIds) {
+        transactionTemplate.executeWithoutResult(status -> applyRejected(bookingJdbcRepository.rejectRequested(bookingIds)));
+    }
+
+    @Scheduled(fixedDelayString = "${bookings.sweeper.interval-ms:30000}", initialDelayString = "${bookings.sweeper.interval-ms:30000}")
+    // Rejects every overdue REQUESTED booking in chunks; each chunk is one short transaction, so a backlog of
+    // thousands never holds locks for long, and anything beyond max-chunks is left for the next run
+    public int sweepOverdue() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(timeoutMillis * 1_000_000);
+        int swept = 0;
+        try {
+            for (int chunk = 0; chunk < sweepMaxChunks; chunk++) {
+                List<RejectedBooking> rejected = transactionTemplate.execute(status -> {
+                    List<RejectedBooking> chunkRejected = bookingJdbcRepository.rejectOverdue(cutoff, sweepChunkSize);
+                    applyRejected(chunkRejected);
+                    return chunkRejected;
+                });
+                rejected.forEach(booking -> deadlineWheel.cancel(booking.getBookingId()));
+                swept += rejected.size();
+                if (rejected.size() < sweepChunkSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Earlier chunks are committed; the failed one rolled back and is picked up again by the next run
+            DebugUtil.logError("Booking timeout sweep failed after {} rejections: {}", swept, e.getMessage(), e);
+        }
+        if (swept > 0) {
+            DebugUtil.logInfo("Booking timeout sweep rejected {} requests", swept);
+        }
+        return swept;
+    }
+
+    // The rejecting statement already freed the slots and logged the events. In its transaction this records the
+    // transitions, resumes providers it took below capacity and queues the users' notifications
+    private void applyRejected(List<RejectedBooking> rejected) {
+        stateMachine.appliedInBulk(BookingEventType.TIMED_OUT, rejected, LocalDateTime.now());
+        capacityService.released(rejected.stream().map(RejectedBooking::getProviderId).collect(Collectors.toList()));
+        notificationService.notifyBookingsRejected(rejected);
+    }
+
+    private long deadlineOf(LocalDateTime createdAt) {
+        LocalDateTime created = createdAt != null ? createdAt : LocalDateTime.now();
+        return created.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + timeoutMillis;
+    }
+}
@@ -0,0 +1,37 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.exception.BadRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+@Getter
+@RequiredArgsConstructor
+// Position of the last row of a booking history page; clients pass it back as an opaque string
+public class BookingHistoryCursor {
+    private final LocalDateTime createdAt;
+    private final long id;
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null or blank means the first page
+    public static BookingHistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new BookingHistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid booking history cursor");
+        }
+    }
+}
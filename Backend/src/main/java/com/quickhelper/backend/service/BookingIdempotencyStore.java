@@ -0,0 +1,76 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.BookingResponseDTO;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+@Component
+// Bounded TTL store of recent booking creations by user and Idempotency-Key, so a retried create is answered
+// with the original response from one hash lookup. Keys that were evicted, expired or used on another
+// instance fall back to the unique (user_id, idempotency_key) index on bookings
+public class BookingIdempotencyStore {
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // Insertion-ordered, so iteration starts at the oldest entry; guarded by this
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64);
+
+    public BookingIdempotencyStore(@Value("${bookings.idempotency.max-entries:10000}") int maxEntries,
+                                   @Value("${bookings.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    // The response recorded for the key, or null when it is unknown or expired
+    public synchronized BookingResponseDTO get(long userId, String idempotencyKey) {
+        Key key = new Key(userId, idempotencyKey);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.createdAt >= ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.response;
+    }
+
+    // Records the response of a committed create; the first response recorded for a key wins
+    public synchronized void put(long userId, String idempotencyKey, BookingResponseDTO response) {
+        entries.putIfAbsent(new Key(userId, idempotencyKey), new Entry(response, System.currentTimeMillis()));
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @EqualsAndHashCode
+    private static final class Key {
+        private final long userId;
+        private final String idempotencyKey;
+
+        private Key(long userId, String idempotencyKey) {
+            this.userId = userId;
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+
+    private static final class Entry {
+        private final BookingResponseDTO response;
+        private final long createdAt;
+
+        private Entry(BookingResponseDTO response, long createdAt) {
+            this.response = response;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.BookingLocationDTO;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.repository.BookingRepository;
+import com.quickhelper.backend.util.DebugUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+// Streams provider positions to /topic/booking/{id}/location while a booking is underway. Each booking keeps a
+// small ring buffer of recent points for catch-up, and pushes are capped at one per interval: points arriving
+// faster are conflated so subscribers only ever receive the newest one
+public class BookingLocationStreamService {
+    private final SimpMessagingTemplate messagingTemplate;
+    private final BookingRepository bookingRepository;
+    private final int bufferSize;
+    private final long minIntervalMillis;
+
+    private final Map<Long, Stream> streams = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> bookingsByProvider = new ConcurrentHashMap<>();
+
+    public BookingLocationStreamService(SimpMessagingTemplate messagingTemplate,
+                                        BookingRepository bookingRepository,
+                                        @Value("${bookings.location-stream.buffer-size:32}") int bufferSize,
+                                        @Value("${bookings.location-stream.min-interval-ms:1000}") long minIntervalMillis) {
+        this.messagingTemplate = messagingTemplate;
+        this.bookingRepository = bookingRepository;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.minIntervalMillis = Math.max(0, minIntervalMillis);
+    }
+
+    public static String destination(long bookingId) {
+        return "/topic/booking/" + bookingId + "/location";
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    // Reopens streams for bookings that were already underway before a restart
+    public void warmUp() {
+        for (Object[] row : bookingRepository.findIdAndProviderProfileIdByStatusIn(BookingStatus.UNDERWAY)) {
+            open(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        DebugUtil.logInfo("Reopened {} booking location streams", streams.size());
+    }
+
+    // Starts streaming the provider's positions to the booking topic
+    public void open(long bookingId, long providerProfileId) {
+        Stream previous = streams.put(bookingId, new Stream(providerProfileId, bufferSize));
+        if (previous != null && previous.providerProfileId != providerProfileId) {
+            detach(bookingId, previous.providerProfileId);
+        }
+        bookingsByProvider.computeIfAbsent(providerProfileId, id -> ConcurrentHashMap.newKeySet()).add(bookingId);
+    }
+
+    // Stops streaming and drops the buffered positions; safe to call for bookings without a stream
+    public void close(long bookingId) {
+        Stream stream = streams.remove(bookingId);
+        if (stream != null) {
+            detach(bookingId, stream.providerProfileId);
+        }
+    }
+
+    public boolean isOpen(long bookingId) {
+        return streams.containsKey(bookingId);
+    }
+
+    // Fans a live ping out to every active booking of the provider
+    public void onPosition(LivePosition position) {
+        Set<Long> bookingIds = bookingsByProvider.get(position.getProviderId());
+        if (bookingIds == null) {
+            return;
+        }
+        for (Long bookingId : bookingIds) {
+            Stream stream = streams.get(bookingId);
+            if (stream == null) {
+                continue;
+            }
+            LivePosition due = stream.offer(position, position.getReportedAtMillis(), minIntervalMillis);
+            if (due != null) {
+                push(bookingId, due);
+            }
+        }
+    }
+
+    // Buffered positions for a booking, oldest first; empty when the booking is not being tracked
+    public List<BookingLocationDTO> history(long bookingId) {
+        Stream stream = streams.get(bookingId);
+        if (stream == null) {
+            return Collections.emptyList();
+        }
+        List<BookingLocationDTO> result = new ArrayList<>();
+        for (LivePosition position : stream.snapshot()) {
+            result.add(toDTO(bookingId, position));
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${bookings.location-stream.min-interval-ms:1000}")
+    // Delivers points that were held back by the rate limit once their interval has passed
+    public void flushPending() {
+        flushPending(System.currentTimeMillis());
+    }
+
+    void flushPending(long nowMillis) {
+        for (Map.Entry<Long, Stream> entry : streams.entrySet()) {
+            LivePosition due = entry.getValue().takeDue(nowMillis, minIntervalMillis);
+            if (due != null) {
+                push(entry.getKey(), due);
+            }
+        }
+    }
+
+    private void push(long bookingId, LivePosition position) {
+        try {
+            messagingTemplate.convertAndSend(destination(bookingId), toDTO(bookingId, position));
+        } catch (MessagingException e) {
+            DebugUtil.logWarn("Failed to push location for booking {}: {}", bookingId, e.getMessage());
+        }
+    }
+
+    private void detach(long bookingId, long providerProfileId) {
+        bookingsByProvider.computeIfPresent(providerProfileId, (id, bookingIds) -> {
+            bookingIds.remove(bookingId);
+            return bookingIds.isEmpty() ? null : bookingIds;
+        });
+    }
+
+    private BookingLocationDTO toDTO(long bookingId, LivePosition position) {
+        LocalDateTime reportedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(position.getReportedAtMillis()),
+                ZoneId.systemDefault());
+        return new BookingLocationDTO(bookingId, position.getLat(), position.getLng(), reportedAt);
+    }
+
+    // Ring buffer plus rate-limit state of one booking; guarded by this
+    private static final class Stream {
+        private final long providerProfileId;
+        private final LivePosition[] ring;
+        private int head; // next slot to write
+        private int size;
+        private long lastPushMillis = Long.MIN_VALUE;
+        private LivePosition held; // newest point not yet pushed because of the rate limit
+
+        private Stream(long providerProfileId, int capacity) {
+            this.providerProfileId = providerProfileId;
+            this.ring = new LivePosition[capacity];
+        }
+
+        // Buffers the point and returns it when it may be pushed now; otherwise it replaces any held point
+        private synchronized LivePosition offer(LivePosition position, long nowMillis, long minIntervalMillis) {
+            ring[head] = position;
+            head = (head + 1) % ring.length;
+            size = Math.min(size + 1, ring.length);
+            if (lastPushMillis == Long.MIN_VALUE || nowMillis - lastPushMillis >= minIntervalMillis) {
+                lastPushMillis = nowMillis;
+                held = null;
+                return position;
+            }
+            held = position;
+            return null;
+        }
+
+        private synchronized LivePosition takeDue(long nowMillis, long minIntervalMillis) {
+            if (held == null || nowMillis - lastPushMillis < minIntervalMillis) {
+                return null;
+            }
+            LivePosition due = held;
+            held = null;
+            lastPushMillis = nowMillis;
+            return due;
+        }
+
+        private synchronized List<LivePosition> snapshot() {
+            List<LivePosition> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(ring[(head - size + i + ring.length) % ring.length]);
+            }
+            return result;
+        }
+    }
+}
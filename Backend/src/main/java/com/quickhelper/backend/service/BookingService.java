@@ -1,40 +1,88 @@
 package com.quickhelper.backend.service;
 
+import com.quickhelper.backend.dto.BookingBatchItemDTO;
+import com.quickhelper.backend.dto.BookingBatchRequestDTO;
+import com.quickhelper.backend.dto.BookingBatchResultDTO;
+import com.quickhelper.backend.dto.BookingHistoryPageDTO;
+import com.quickhelper.backend.dto.BookingLocationDTO;
 import com.quickhelper.backend.dto.BookingRequestDTO;
 import com.quickhelper.backend.dto.BookingResponseDTO;
+import com.quickhelper.backend.dto.BookingSummaryDTO;
+import com.quickhelper.backend.dto.DispatchRequestDTO;
+import com.quickhelper.backend.dto.TimeSlotDTO;
 import com.quickhelper.backend.dto.UserResponseDTO;
 import com.quickhelper.backend.exception.BadRequestException;
+import com.quickhelper.backend.exception.ConflictException;
 import com.quickhelper.backend.exception.ResourceNotFoundException;
 import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingEventType;
 import com.quickhelper.backend.model.BookingStatus;
 import com.quickhelper.backend.model.User;
 import com.quickhelper.backend.model.UserRole;
 import com.quickhelper.backend.model.ProfileStatus;
 import com.quickhelper.backend.model.ProviderProfile;
+import com.quickhelper.backend.repository.BookingJdbcRepository;
 import com.quickhelper.backend.repository.BookingRepository;
 import com.quickhelper.backend.repository.UserRepository;
 import com.quickhelper.backend.repository.ProviderProfileRepository;
+import com.quickhelper.backend.util.DebugUtil;
+import com.quickhelper.backend.util.TransactionUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 // Handles booking lifecycle transitions and notification side-effects
 public class BookingService {
+    private static final String SLOT_CONSTRAINT = "excl_bookings_provider_slot";
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ProviderProfileRepository providerProfileRepository;
     private final NotificationService notificationService;
-    private final org.springframework.scheduling.TaskScheduler taskScheduler;
+    private final BookingExpiryService bookingExpiryService;
+    private final BookingDispatchService dispatchService;
+    private final ProviderResponsivenessTracker responsivenessTracker;
+    private final BookingLocationStreamService locationStreamService;
+    private final PlatformStatsService platformStatsService;
+    private final BookingIdempotencyStore idempotencyStore;
+    private final ProviderCapacityService capacityService;
+    private final BookingStateMachine stateMachine;
+    private final BookingJdbcRepository bookingJdbcRepository;
+    private final ProviderCalendarService calendarService;
 
     @Transactional
-    // Creates a new booking request from a user to a provider
+    // Creates a new booking request without an idempotency key
     public BookingResponseDTO createBooking(Long userId, BookingRequestDTO request) {
+        return createBooking(userId, request, null);
+    }
+
+    @Transactional
+    // Creates a new booking request from a user to a provider; a retry with the same idempotency key
+    // returns the original booking without creating, notifying or scheduling anything again
+    public BookingResponseDTO createBooking(Long userId, BookingRequestDTO request, String idempotencyKey) {
+        String key = normalizeIdempotencyKey(idempotencyKey);
+        BookingResponseDTO replay = findReplay(userId, key);
+        if (replay != null) {
+            return replay;
+        }
+
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
@@ -49,46 +97,51 @@ public class BookingService {
             throw new BadRequestException("Selected user is not a provider");
         }
 
+        ProviderCalendarService.validate(request.getScheduledStart(), request.getScheduledEnd());
+
         ProviderProfile providerProfile = providerProfileRepository.findByUser(provider)
                 .orElseThrow(() -> new BadRequestException("Provider does not have a profile"));
 
         if (providerProfile.getProfileStatus() != ProfileStatus.APPROVED || !Boolean.TRUE.equals(providerProfile.getIsAvailable())) {
             throw new BadRequestException("Provider is not available for bookings");
         }
+        if (request.getScheduledStart() != null) {
+            calendarService.requireFree(provider.getId(), request.getScheduledStart(), request.getScheduledEnd());
+        }
+        capacityService.reserve(provider.getId());
 
         Booking booking = new Booking();
         booking.setUser(user);
         booking.setProvider(provider);
         booking.setServiceType(request.getServiceType());
         booking.setNote(request.getNote());
+        booking.setScheduledStart(request.getScheduledStart());
+        booking.setScheduledEnd(request.getScheduledEnd());
         booking.setStatus(BookingStatus.REQUESTED);
+        booking.setIdempotencyKey(key);
 
-        Booking saved = bookingRepository.save(booking);
+        Booking saved = saveIdempotently(booking);
+        stateMachine.created(saved);
         
-        // Schedule auto-rejection check in 2 minutes
-        taskScheduler.schedule(() -> checkAndRejectBooking(saved.getId()), 
-            java.time.Instant.now().plus(2, java.time.temporal.ChronoUnit.MINUTES));
+        // Auto-reject if the provider does not answer in time
+        bookingExpiryService.scheduleTimeout(saved);
         
         try {
             // Send notification to provider
-            System.out.println("Sending notification to provider: " + provider.getId());
             notificationService.notifyBookingRequestSent(
                     user.getId(),
                     provider.getId(),
                     saved.getId(),
                     request.getServiceType().toString()
             );
-            System.out.println("Provider notification sent successfully");
         } catch (Exception e) {
-            System.err.println("Error sending provider notification: " + e.getMessage());
-            e.printStackTrace();
+            DebugUtil.logError("Error sending provider notification: {}", e.getMessage(), e);
             // Continue even if notification fails
         }
         
         try {
             // Send notification to user
-            System.out.println("Sending notification to user: " + user.getId());
-            notificationService.createAndSendNotification(
+            notificationService.enqueue(
                     user.getId(),
                     UserRole.USER,
                     com.quickhelper.backend.model.NotificationType.BOOKING_REQUEST_SENT,
@@ -97,36 +150,60 @@ public class BookingService {
                     false,
                     saved.getId()
             );
-            System.out.println("User notification sent successfully");
         } catch (Exception e) {
-            System.err.println("Error sending user notification: " + e.getMessage());
-            e.printStackTrace();
+            DebugUtil.logError("Error sending user notification: {}", e.getMessage(), e);
             // Continue even if notification fails
         }
         
-        return mapToBookingResponseDTO(saved);
+        return rememberResponse(userId, key, mapToBookingResponseDTO(saved));
     }
 
     @Transactional
-    public void checkAndRejectBooking(Long bookingId) {
-        bookingRepository.findById(bookingId).ifPresent(booking -> {
-            if (booking.getStatus() == BookingStatus.REQUESTED) {
-                booking.setStatus(BookingStatus.REJECTED);
-                if (booking.getNote() == null) {
-                    booking.setNote("Auto-rejected due to timeout");
-                } else {
-                    booking.setNote(booking.getNote() + " (Auto-rejected due to timeout)");
-                }
-                bookingRepository.save(booking);
-                
-                // Notify user
-                 notificationService.notifyBookingRejected(
-                    booking.getUser().getId(),
-                    booking.getId(),
-                    booking.getProvider().getName()
-                );
-            }
-        });
+    // Creates a broadcast request without a provider; it is offered to the best-ranked providers nearby
+    // and goes to whichever of them claims it first
+    public BookingResponseDTO createDispatchBooking(Long userId, DispatchRequestDTO request, String idempotencyKey) {
+        String key = normalizeIdempotencyKey(idempotencyKey);
+        BookingResponseDTO replay = findReplay(userId, key);
+        if (replay != null) {
+            return replay;
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+
+        if (user.getRole() != UserRole.USER) {
+            throw new BadRequestException("Only users can create bookings");
+        }
+
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setServiceType(request.getServiceType());
+        booking.setNote(request.getNote());
+        booking.setStatus(BookingStatus.REQUESTED);
+        booking.setLocationLat(request.getLocationLat());
+        booking.setLocationLng(request.getLocationLng());
+        booking.setIdempotencyKey(key);
+
+        Booking saved = saveIdempotently(booking);
+        stateMachine.created(saved);
+        dispatchService.dispatch(saved);
+
+        try {
+            notificationService.enqueue(
+                    user.getId(),
+                    UserRole.USER,
+                    com.quickhelper.backend.model.NotificationType.BOOKING_REQUEST_SENT,
+                    "Booking Request Sent",
+                    "Your request has been sent to " + request.getServiceType() + " providers nearby",
+                    false,
+                    saved.getId()
+            );
+        } catch (Exception e) {
+            DebugUtil.logError("Error sending user notification: {}", e.getMessage(), e);
+            // Continue even if notification fails
+        }
+
+        return rememberResponse(userId, key, mapToBookingResponseDTO(saved));
     }
 
     public List<BookingResponseDTO> getBookingsByUser(Long userId) {
@@ -145,38 +222,80 @@ public class BookingService {
                 .collect(Collectors.toList());
     }
 
+    // One page of a user's bookings, newest first, continuing after the cursor; empty statuses means all
+    public BookingHistoryPageDTO getBookingHistoryByUser(Long userId, Collection<BookingStatus> statuses,
+                                                         String cursor, int limit) {
+        BookingHistoryCursor after = BookingHistoryCursor.decode(cursor);
+        Collection<BookingStatus> filter = statusFilter(statuses);
+        Pageable fetch = PageRequest.of(0, limit + 1); // one extra row tells whether another page follows
+        List<BookingSummaryDTO> rows = after == null
+                ? bookingRepository.findHistoryByUser(userId, filter, fetch)
+                : bookingRepository.findHistoryByUserAfter(userId, filter, after.getCreatedAt(), after.getId(), fetch);
+        return toHistoryPage(rows, limit);
+    }
+
+    // One page of a provider's bookings, newest first, continuing after the cursor; empty statuses means all
+    public BookingHistoryPageDTO getBookingHistoryByProvider(Long providerId, Collection<BookingStatus> statuses,
+                                                             String cursor, int limit) {
+        BookingHistoryCursor after = BookingHistoryCursor.decode(cursor);
+        Collection<BookingStatus> filter = statusFilter(statuses);
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        List<BookingSummaryDTO> rows = after == null
+                ? bookingRepository.findHistoryByProvider(providerId, filter, fetch)
+                : bookingRepository.findHistoryByProviderAfter(providerId, filter, after.getCreatedAt(), after.getId(), fetch);
+        return toHistoryPage(rows, limit);
+    }
+
+    private static Collection<BookingStatus> statusFilter(Collection<BookingStatus> statuses) {
+        return statuses == null || statuses.isEmpty() ? EnumSet.allOf(BookingStatus.class) : statuses;
+    }
+
+    private static BookingHistoryPageDTO toHistoryPage(List<BookingSummaryDTO> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new BookingHistoryPageDTO(rows, null);
+        }
+        List<BookingSummaryDTO> page = rows.subList(0, limit);
+        BookingSummaryDTO last = page.get(limit - 1);
+        return new BookingHistoryPageDTO(page, new BookingHistoryCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
     @Transactional
     // Provider accepts a pending booking and triggers notifications
     public BookingResponseDTO acceptBooking(Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
 
-        if (booking.getStatus() != BookingStatus.REQUESTED) {
-            throw new BadRequestException("Only REQUESTED bookings can be accepted");
+        BookingStateMachine.require(booking, BookingEventType.ACCEPTED);
+        if (booking.getProvider() == null) {
+            throw new BadRequestException("Broadcast requests are claimed, not accepted");
         }
 
-        booking.setStatus(BookingStatus.ACCEPTED);
-        booking.setAcceptedAt(LocalDateTime.now());
-        Booking updated = bookingRepository.save(booking);
+        LocalDateTime acceptedAt = LocalDateTime.now();
+        requireTransitioned(bookingRepository.markAccepted(bookingId, acceptedAt), bookingId);
+        booking.setAcceptedAt(acceptedAt);
+        stateMachine.applied(booking, BookingEventType.ACCEPTED, acceptedAt);
+        bookingExpiryService.cancelTimeout(booking.getId());
+        recordAcceptanceSpeed(booking);
+        openLocationStream(booking);
         
         // Send notifications
         notificationService.notifyBookingAccepted(
                 booking.getUser().getId(),
-                updated.getId(),
+                booking.getId(),
                 booking.getProvider().getName()
         );
         
-        notificationService.createAndSendNotification(
+        notificationService.enqueue(
                 booking.getProvider().getId(),
                 UserRole.PROVIDER,
                 com.quickhelper.backend.model.NotificationType.JOB_ACCEPTED,
                 "Job Accepted",
                 "You have accepted the booking request from " + booking.getUser().getName(),
                 false,
-                updated.getId()
+                booking.getId()
         );
         
-        return mapToBookingResponseDTO(updated);
+        return mapToBookingResponseDTO(booking);
     }
 
     @Transactional
@@ -185,46 +304,199 @@ public class BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
 
-        if (booking.getStatus() != BookingStatus.REQUESTED) {
-            throw new BadRequestException("Only REQUESTED bookings can be rejected");
+        BookingStateMachine.require(booking, BookingEventType.REJECTED);
+        if (booking.getProvider() == null) {
+            throw new BadRequestException("Broadcast requests are declined, not rejected");
         }
 
-        booking.setStatus(BookingStatus.REJECTED);
-        Booking updated = bookingRepository.save(booking);
+        transition(booking, BookingEventType.REJECTED);
+        bookingExpiryService.cancelTimeout(booking.getId());
+        capacityService.release(booking.getProvider().getId());
         
         // Send notification to user
         notificationService.notifyBookingRejected(
                 booking.getUser().getId(),
-                updated.getId(),
+                booking.getId(),
                 booking.getProvider().getName()
         );
         
-        return mapToBookingResponseDTO(updated);
+        return mapToBookingResponseDTO(booking);
     }
 
     @Transactional
-    // Cancels a booking unless already completed/cancelled
-    public BookingResponseDTO cancelBooking(Long bookingId) {
+    // Provider accepts or rejects several of their pending requests at once. One conditional update moves those
+    // still REQUESTED; the rest are reported per booking instead of failing the batch
+    public BookingBatchResultDTO respondToBookings(Long providerId, BookingBatchRequestDTO request) {
+        User provider = userRepository.findById(providerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Provider not found with id: " + providerId));
+        if (provider.getRole() != UserRole.PROVIDER) {
+            throw new BadRequestException("Selected user is not a provider");
+        }
+
+        Set<Long> bookingIds = new LinkedHashSet<>(request.getBookingIds());
+        LocalDateTime at = LocalDateTime.now();
+        BookingEventType type;
+        List<BookingEvent> events = new ArrayList<>();
+        if (request.getAction() == BookingBatchRequestDTO.Action.ACCEPT) {
+            type = BookingEventType.ACCEPTED;
+            List<AcceptedBooking> accepted = bookingJdbcRepository.acceptForProvider(providerId, bookingIds, at);
+            List<LocalDateTime> since = new ArrayList<>();
+            for (AcceptedBooking booking : accepted) {
+                events.add(new BookingEvent(booking.getBookingId(), booking.getUserId(), providerId,
+                        type, BookingStatus.REQUESTED, type.getTarget()));
+                since.add(booking.getCreatedAt());
+            }
+            stateMachine.appliedAll(events, since, at);
+            acceptedInBatch(provider, accepted, at);
+        } else {
+            // Rejected like the timeouts: the statement frees the slots and writes the events and dashboard rows
+            type = BookingEventType.REJECTED;
+            List<RejectedBooking> rejected = bookingJdbcRepository.rejectForProvider(providerId, bookingIds, at);
+            for (RejectedBooking booking : rejected) {
+                events.add(new BookingEvent(booking.getBookingId(), booking.getUserId(), providerId,
+                        type, BookingStatus.REQUESTED, type.getTarget()));
+            }
+            stateMachine.appliedInBulk(type, rejected, at);
+            capacityService.released(Collections.nCopies(rejected.size(), providerId));
+            notificationService.notifyBookingsRejected(rejected);
+        }
+        events.forEach(event -> bookingExpiryService.cancelTimeout(event.getBookingId()));
+
+        return new BookingBatchResultDTO(request.getAction(), events.size(),
+                batchResults(providerId, bookingIds, events, type.getTarget()));
+    }
+
+    // Side effects of a batch acceptance; one profile lookup serves every location stream
+    private void acceptedInBatch(User provider, List<AcceptedBooking> accepted, LocalDateTime acceptedAt) {
+        if (accepted.isEmpty()) {
+            return;
+        }
+        Long providerUserId = provider.getId();
+        List<Double> seconds = new ArrayList<>(accepted.size());
+        List<Long> acceptedIds = new ArrayList<>(accepted.size());
+        for (AcceptedBooking booking : accepted) {
+            seconds.add(java.time.Duration.between(booking.getCreatedAt(), acceptedAt).toMillis() / 1000.0);
+            acceptedIds.add(booking.getBookingId());
+        }
+        TransactionUtil.afterCommit(() -> seconds.forEach(value -> responsivenessTracker.recordAcceptance(providerUserId, value)));
+        providerProfileRepository.findByUserId(providerUserId)
+                .map(ProviderProfile::getId)
+                .ifPresent(profileId -> TransactionUtil.afterCommit(
+                        () -> acceptedIds.forEach(bookingId -> locationStreamService.open(bookingId, profileId))));
+        notificationService.notifyBookingsAccepted(providerUserId, provider.getName(), accepted);
+    }
+
+    // Outcome of each requested booking in request order; the ones left alone are explained from a fresh read
+    private List<BookingBatchItemDTO> batchResults(Long providerId, Set<Long> bookingIds, List<BookingEvent> events,
+                                                   BookingStatus target) {
+        Set<Long> applied = events.stream().map(BookingEvent::getBookingId).collect(Collectors.toSet());
+        Map<Long, Object[]> skipped = new HashMap<>();
+        if (applied.size() < bookingIds.size()) {
+            List<Long> rest = bookingIds.stream().filter(id -> !applied.contains(id)).collect(Collectors.toList());
+            for (Object[] row : bookingRepository.findIdStatusAndProviderIdByIdIn(rest)) {
+                skipped.put((Long) row[0], row);
+            }
+        }
+        List<BookingBatchItemDTO> results = new ArrayList<>(bookingIds.size());
+        for (Long bookingId : bookingIds) {
+            if (applied.contains(bookingId)) {
+                results.add(new BookingBatchItemDTO(bookingId, true, target, null));
+                continue;
+            }
+            Object[] row = skipped.get(bookingId);
+            if (row == null) {
+                results.add(new BookingBatchItemDTO(bookingId, false, null, "Booking not found"));
+            } else if (!providerId.equals(row[2])) {
+                results.add(new BookingBatchItemDTO(bookingId, false, null, "Booking is not assigned to this provider"));
+            } else {
+                BookingStatus status = (BookingStatus) row[1];
+                results.add(new BookingBatchItemDTO(bookingId, false, status, "Booking is " + status));
+            }
+        }
+        return results;
+    }
+
+    @Transactional
+    // Provider claims a broadcast request offered to them. The claim is one conditional update, so under any
+    // number of concurrent claims exactly one provider gets the booking and the rest see 409 Conflict
+    public BookingResponseDTO claimBooking(Long bookingId, Long providerId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
 
-        if (booking.getStatus() == BookingStatus.COMPLETED || booking.getStatus() == BookingStatus.CANCELLED) {
-            throw new BadRequestException("Cannot cancel a " + booking.getStatus() + " booking");
+        if (!BookingEventType.CLAIMED.isAllowedFrom(booking.getStatus()) || booking.getProvider() != null) {
+            throw new ConflictException("Booking " + bookingId + " is no longer open to claims");
+        }
+        if (!dispatchService.isOffered(bookingId, providerId)) {
+            throw new BadRequestException("Booking " + bookingId + " was not offered to provider " + providerId);
+        }
+
+        User provider = userRepository.findById(providerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Provider not found with id: " + providerId));
+
+        capacityService.reserve(providerId); // rolled back with the transaction if the claim loses
+        LocalDateTime acceptedAt = LocalDateTime.now();
+        requireTransitioned(bookingRepository.claim(bookingId, provider, acceptedAt), bookingId);
+        booking.setProvider(provider);
+        booking.setAcceptedAt(acceptedAt);
+        stateMachine.applied(booking, BookingEventType.CLAIMED, acceptedAt);
+        dispatchService.awarded(bookingId, providerId);
+        recordAcceptanceSpeed(booking);
+        openLocationStream(booking);
+
+        notificationService.notifyBookingAccepted(
+                booking.getUser().getId(),
+                booking.getId(),
+                provider.getName()
+        );
+
+        notificationService.enqueue(
+                provider.getId(),
+                UserRole.PROVIDER,
+                com.quickhelper.backend.model.NotificationType.JOB_ACCEPTED,
+                "Job Accepted",
+                "You have accepted the booking request from " + booking.getUser().getName(),
+                false,
+                booking.getId()
+        );
+
+        return mapToBookingResponseDTO(booking);
+    }
+
+    // Provider passes on a broadcast offer; the request stays open for the other providers
+    public void declineOffer(Long bookingId, Long providerId) {
+        if (!bookingRepository.existsById(bookingId)) {
+            throw new ResourceNotFoundException("Booking not found with id: " + bookingId);
         }
+        dispatchService.decline(bookingId, providerId);
+    }
+
+    @Transactional
+    // Cancels a booking before the service has started
+    public BookingResponseDTO cancelBooking(Long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
 
-        booking.setStatus(BookingStatus.CANCELLED);
-        Booking updated = bookingRepository.save(booking);
+        BookingStateMachine.require(booking, BookingEventType.CANCELLED);
+        transition(booking, BookingEventType.CANCELLED);
+        bookingExpiryService.cancelTimeout(booking.getId());
+        closeLocationStream(booking);
+        
+        if (booking.getProvider() == null) {
+            dispatchService.withdrawn(booking.getId());
+        } else {
+            capacityService.release(booking.getProvider().getId());
+        }
         
         // Send notification to provider if cancelled by user
-        if (booking.getUser().getRole() == com.quickhelper.backend.model.UserRole.USER) {
+        if (booking.getProvider() != null && booking.getUser().getRole() == com.quickhelper.backend.model.UserRole.USER) {
             notificationService.notifyBookingCancelled(
                     booking.getProvider().getId(),
-                    updated.getId(),
+                    booking.getId(),
                     booking.getUser().getName()
             );
         }
         
-        return mapToBookingResponseDTO(updated);
+        return mapToBookingResponseDTO(booking);
     }
 
     @Transactional
@@ -233,41 +505,43 @@ public class BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
 
-        if (booking.getStatus() != BookingStatus.ACCEPTED) {
-            throw new BadRequestException("Only ACCEPTED bookings can be completed");
-        }
+        BookingStateMachine.require(booking, BookingEventType.COMPLETED);
 
-        booking.setStatus(BookingStatus.COMPLETED);
-        booking.setCompletedAt(LocalDateTime.now());
-        Booking updated = bookingRepository.save(booking);
+        LocalDateTime completedAt = LocalDateTime.now();
+        requireTransitioned(bookingRepository.markCompleted(
+                bookingId, BookingEventType.COMPLETED.getSources(), completedAt), bookingId);
+        booking.setCompletedAt(completedAt);
+        stateMachine.applied(booking, BookingEventType.COMPLETED, completedAt);
+        capacityService.release(booking.getProvider().getId());
+        closeLocationStream(booking);
+        TransactionUtil.afterCommit(platformStatsService::onBookingCompleted);
         
         // Send notifications
         notificationService.notifyServiceCompleted(
                 booking.getUser().getId(),
                 booking.getProvider().getId(),
-                updated.getId(),
+                booking.getId(),
                 booking.getUser().getName()
         );
         
         // Notify provider about earnings
         notificationService.notifyEarningsCredited(
                 booking.getProvider().getId(),
-                updated.getId(),
+                booking.getId(),
                 100.0 // Placeholder amount
         );
         
-        return mapToBookingResponseDTO(updated);
+        return mapToBookingResponseDTO(booking);
     }
 
     @Transactional
-    // Marks provider en-route and notifies user
+    // Moves an accepted booking to ON_WAY and notifies user
     public BookingResponseDTO providerOnWay(Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
 
-        if (booking.getStatus() != BookingStatus.ACCEPTED) {
-            throw new BadRequestException("Only ACCEPTED bookings can have provider on the way");
-        }
+        BookingStateMachine.require(booking, BookingEventType.PROVIDER_ON_WAY);
+        transition(booking, BookingEventType.PROVIDER_ON_WAY);
 
         // Send notification to user
         notificationService.notifyProviderOnWay(
@@ -280,14 +554,13 @@ public class BookingService {
     }
 
     @Transactional
-    // Marks service start and notifies user
+    // Moves an accepted or on-way booking to IN_SERVICE and notifies user
     public BookingResponseDTO startService(Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
 
-        if (booking.getStatus() != BookingStatus.ACCEPTED) {
-            throw new BadRequestException("Only ACCEPTED bookings can start service");
-        }
+        BookingStateMachine.require(booking, BookingEventType.SERVICE_STARTED);
+        transition(booking, BookingEventType.SERVICE_STARTED);
 
         // Send notification to user
         notificationService.notifyServiceStarted(
@@ -305,9 +578,9 @@ public class BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
 
-        if (booking.getStatus() != BookingStatus.COMPLETED) {
-            throw new BadRequestException("Only COMPLETED bookings can have payment confirmed");
-        }
+        BookingStateMachine.require(booking, BookingEventType.PAYMENT_CONFIRMED);
+        // The booking stays COMPLETED, so there is no row to update; only the event and its latency are recorded
+        stateMachine.applied(booking, BookingEventType.PAYMENT_CONFIRMED, LocalDateTime.now());
 
         // Send notification to user
         notificationService.notifyPaymentConfirmed(
@@ -319,32 +592,143 @@ public class BookingService {
         return mapToBookingResponseDTO(booking);
     }
 
+    // Blank keys count as absent; longer keys than the column holds are refused rather than truncated
+    private static String normalizeIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return null;
+        }
+        String key = idempotencyKey.trim();
+        if (key.length() > 64) {
+            throw new BadRequestException("Idempotency-Key must be at most 64 characters");
+        }
+        return key;
+    }
+
+    // Response of an earlier create with the same key: the in-memory store first, then the unique column
+    private BookingResponseDTO findReplay(Long userId, String key) {
+        if (key == null) {
+            return null;
+        }
+        BookingResponseDTO cached = idempotencyStore.get(userId, key);
+        if (cached != null) {
+            return cached;
+        }
+        return bookingRepository.findByUserIdAndIdempotencyKey(userId, key)
+                .map(existing -> rememberResponse(userId, key, mapToBookingResponseDTO(existing)))
+                .orElse(null);
+    }
+
+    // A concurrent create with the same key that committed first trips the unique index; one for an overlapping
+    // slot that got past the calendar check trips the exclusion constraint
+    private Booking saveIdempotently(Booking booking) {
+        try {
+            return bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (booking.getScheduledStart() != null && String.valueOf(e.getMostSpecificCause().getMessage())
+                    .contains(SLOT_CONSTRAINT)) {
+                throw new ConflictException("Provider " + booking.getProvider().getId() + " is already booked between "
+                        + booking.getScheduledStart() + " and " + booking.getScheduledEnd());
+            }
+            if (booking.getIdempotencyKey() == null) {
+                throw e;
+            }
+            throw new ConflictException("A booking request with this Idempotency-Key is already being processed");
+        }
+    }
+
+    private BookingResponseDTO rememberResponse(Long userId, String key, BookingResponseDTO response) {
+        if (key != null) {
+            TransactionUtil.afterCommit(() -> idempotencyStore.put(userId, key, response));
+        }
+        return response;
+    }
+
+    // The status check above reads a snapshot; the conditional UPDATE is what decides a race. Zero rows changed
+    // means another request (or the expiry job) moved the booking first, which surfaces as 409 Conflict.
+    // The update clears the persistence context, so the loaded booking is detached and only used for the response
+    private void requireTransitioned(int updatedRows, Long bookingId) {
+        if (updatedRows == 1) {
+            return;
+        }
+        String current = bookingRepository.findStatusById(bookingId)
+                .map(BookingStatus::name)
+                .orElse("deleted");
+        throw new ConflictException("Booking " + bookingId + " was changed concurrently and is now " + current);
+    }
+
+    // Conditional update from any of the transition's source statuses to its target, for transitions that
+    // change nothing but the status
+    private void transition(Booking booking, BookingEventType type) {
+        LocalDateTime at = LocalDateTime.now();
+        requireTransitioned(bookingRepository.transitionStatus(
+                booking.getId(), type.getSources(), type.getTarget(), at), booking.getId());
+        stateMachine.applied(booking, type, at);
+    }
+
+    // Feeds request-to-accept time into provider ranking once the acceptance commits
+    private void recordAcceptanceSpeed(Booking booking) {
+        if (booking.getCreatedAt() == null || booking.getAcceptedAt() == null) {
+            return;
+        }
+        Long providerUserId = booking.getProvider().getId();
+        double seconds = java.time.Duration.between(booking.getCreatedAt(), booking.getAcceptedAt()).toMillis() / 1000.0;
+        TransactionUtil.afterCommit(() -> responsivenessTracker.recordAcceptance(providerUserId, seconds));
+    }
+
+    // Free intervals in a provider's calendar between from and to
+    public List<TimeSlotDTO> getFreeSlots(Long providerId, LocalDateTime from, LocalDateTime to, int minMinutes) {
+        if (!userRepository.existsById(providerId)) {
+            throw new ResourceNotFoundException("Provider not found with id: " + providerId);
+        }
+        return calendarService.freeSlots(providerId, from, to, minMinutes);
+    }
+
+    // Recent provider positions of an active booking, oldest first; live points follow on its location topic
+    public List<BookingLocationDTO> getLocationHistory(Long bookingId) {
+        if (!bookingRepository.existsById(bookingId)) {
+            throw new ResourceNotFoundException("Booking not found with id: " + bookingId);
+        }
+        return locationStreamService.history(bookingId);
+    }
+
+    // Starts the live location stream once the acceptance commits
+    private void openLocationStream(Booking booking) {
+        Long bookingId = booking.getId();
+        providerProfileRepository.findByUserId(booking.getProvider().getId())
+                .map(ProviderProfile::getId)
+                .ifPresent(profileId -> TransactionUtil.afterCommit(() -> locationStreamService.open(bookingId, profileId)));
+    }
+
+    // Ends the live location stream once the booking is finished or cancelled
+    private void closeLocationStream(Booking booking) {
+        Long bookingId = booking.getId();
+        TransactionUtil.afterCommit(() -> locationStreamService.close(bookingId));
+    }
+
     // Maps Booking entity to API response DTO
     private BookingResponseDTO mapToBookingResponseDTO(Booking booking) {
-        UserResponseDTO userDTO = new UserResponseDTO();
-        userDTO.setId(booking.getUser().getId());
-        userDTO.setName(booking.getUser().getName());
-        userDTO.setEmail(booking.getUser().getEmail());
-        userDTO.setRole(booking.getUser().getRole());
-        userDTO.setCity(booking.getUser().getCity());
-
-        UserResponseDTO providerDTO = new UserResponseDTO();
-        providerDTO.setId(booking.getProvider().getId());
-        providerDTO.setName(booking.getProvider().getName());
-        providerDTO.setEmail(booking.getProvider().getEmail());
-        providerDTO.setRole(booking.getProvider().getRole());
-        providerDTO.setCity(booking.getProvider().getCity());
-
         return new BookingResponseDTO(
                 booking.getId(),
-                userDTO,
-                providerDTO,
+                mapToUserResponseDTO(booking.getUser()),
+                booking.getProvider() != null ? mapToUserResponseDTO(booking.getProvider()) : null, // unclaimed broadcast
                 booking.getServiceType(),
                 booking.getStatus(),
                 booking.getNote(),
+                booking.getScheduledStart(),
+                booking.getScheduledEnd(),
                 booking.getCreatedAt(),
                 booking.getAcceptedAt(),
                 booking.getCompletedAt()
         );
     }
+
+    private UserResponseDTO mapToUserResponseDTO(User user) {
+        UserResponseDTO dto = new UserResponseDTO();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setRole(user.getRole());
+        dto.setCity(user.getCity());
+        return dto;
+    }
 }
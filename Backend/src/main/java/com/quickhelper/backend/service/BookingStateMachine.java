@@ -0,0 +1,100 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.exception.BadRequestException;
+import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+// Single path for booking status changes. A transition is checked against the table in BookingEventType before
+// its conditional update, and reported here once the update matched: the event is appended, the time the
+// booking spent in the status it left goes to the transition metrics after commit, and a booking leaving the
+// active statuses gives its calendar slot back.
+public class BookingStateMachine {
+    private final BookingEventService eventService;
+    private final BookingTransitionMetrics metrics;
+    private final ProviderCalendarService calendarService;
+
+    // Returns the status the transition leaves; refuses transitions the table does not allow from the booking's status.
+    // Static because the table is all it needs, so callers check before touching any collaborator
+    public static BookingStatus require(Booking booking, BookingEventType type) {
+        BookingStatus current = booking.getStatus();
+        if (!type.isAllowedFrom(current)) {
+            throw new BadRequestException("Cannot apply " + type + " to a " + current + " booking; allowed from "
+                    + type.getSources());
+        }
+        return current;
+    }
+
+    // Records a newly saved booking
+    public void created(Booking booking) {
+        eventService.record(booking, BookingEventType.CREATED, null);
+        calendarService.booked(booking);
+    }
+
+    // Moves the loaded booking to the transition's target after its conditional update matched at the given time
+    public void applied(Booking booking, BookingEventType type, LocalDateTime at) {
+        BookingStatus from = booking.getStatus();
+        LocalDateTime since = booking.getStatusChangedAt() != null ? booking.getStatusChangedAt() : booking.getCreatedAt();
+        booking.setStatus(type.getTarget());
+        if (from != type.getTarget()) {
+            booking.setStatusChangedAt(at);
+        }
+        eventService.record(booking, type, from);
+        calendarService.ended(List.of(BookingEvent.of(booking, type, from)));
+        recordLatency(type, from, since, at);
+    }
+
+    // Same for a booking that was changed without loading it, given when it entered the status it left
+    public void applied(BookingEvent event, LocalDateTime since, LocalDateTime at) {
+        appliedAll(List.of(event), Collections.singletonList(since), at); // since may be null
+    }
+
+    // Same for bookings changed together by one statement; since holds when each entered the status it left
+    public void appliedAll(List<BookingEvent> events, List<LocalDateTime> since, LocalDateTime at) {
+        eventService.recordAll(events);
+        calendarService.ended(events);
+        for (int i = 0; i < events.size(); i++) {
+            recordLatency(events.get(i).getType(), events.get(i).getFromStatus(), since.get(i), at);
+        }
+    }
+
+    // For REQUESTED bookings rejected by a bulk statement that already appended their events and projections,
+    // whether they timed out or their provider rejected them
+    public void appliedInBulk(BookingEventType type, List<RejectedBooking> rejected, LocalDateTime at) {
+        List<BookingEvent> events = new ArrayList<>(rejected.size());
+        long[] millis = new long[rejected.size()];
+        for (int i = 0; i < rejected.size(); i++) {
+            RejectedBooking booking = rejected.get(i);
+            events.add(new BookingEvent(booking.getBookingId(), booking.getUserId(), booking.getProviderId(),
+                    type, BookingStatus.REQUESTED, type.getTarget()));
+            millis[i] = millisBetween(booking.getCreatedAt(), at);
+        }
+        eventService.recordedInBulk(events);
+        calendarService.ended(events);
+        TransactionUtil.afterCommit(() -> {
+            for (long value : millis) {
+                metrics.record(type, BookingStatus.REQUESTED, value);
+            }
+        });
+    }
+
+    private void recordLatency(BookingEventType type, BookingStatus from, LocalDateTime since, LocalDateTime at) {
+        long millis = millisBetween(since, at);
+        TransactionUtil.afterCommit(() -> metrics.record(type, from, millis));
+    }
+
+    private static long millisBetween(LocalDateTime since, LocalDateTime at) {
+        return since == null ? 0 : Math.max(0, Duration.between(since, at).toMillis());
+    }
+}
@@ -0,0 +1,51 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.BookingTransitionStatsDTO;
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+// In-process registry of booking transition counts and latencies, indexed by transition type and the status
+// it left. All histograms are allocated up front, so recording never allocates or takes a lock.
+public class BookingTransitionMetrics {
+    private final LatencyHistogram[][] latency =
+            new LatencyHistogram[BookingEventType.values().length][BookingStatus.values().length];
+
+    public BookingTransitionMetrics() {
+        for (LatencyHistogram[] byType : latency) {
+            for (int i = 0; i < byType.length; i++) {
+                byType[i] = new LatencyHistogram();
+            }
+        }
+    }
+
+    // Records one transition that left fromStatus after the booking had spent the given time in it
+    public void record(BookingEventType type, BookingStatus fromStatus, long millis) {
+        latency[type.ordinal()][fromStatus.ordinal()].record(millis);
+    }
+
+    public long count(BookingEventType type, BookingStatus fromStatus) {
+        return latency[type.ordinal()][fromStatus.ordinal()].count();
+    }
+
+    // Transitions seen since startup in table order
+    public List<BookingTransitionStatsDTO> snapshot() {
+        List<BookingTransitionStatsDTO> stats = new ArrayList<>();
+        for (BookingEventType type : BookingEventType.values()) {
+            for (BookingStatus from : type.getSources()) {
+                LatencyHistogram histogram = latency[type.ordinal()][from.ordinal()];
+                if (histogram.count() == 0) {
+                    continue;
+                }
+                stats.add(new BookingTransitionStatsDTO(type, from, type.getTarget(), histogram.count(),
+                        histogram.meanMillis(), histogram.percentileMillis(0.5), histogram.percentileMillis(0.9),
+                        histogram.percentileMillis(0.99), histogram.maxMillis()));
+            }
+        }
+        return stats;
+    }
+}
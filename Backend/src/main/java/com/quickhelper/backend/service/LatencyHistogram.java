@@ -0,0 +1,73 @@
+package com.quickhelper.backend.service;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram with power-of-two millisecond buckets. Recording is a few uncontended adder increments and
+// never allocates or locks; percentiles are read back as the upper bound of their bucket, so they overstate by
+// less than a factor of two.
+public final class LatencyHistogram {
+    private static final int BUCKETS = 40; // bucket 0 holds 0 ms, bucket i holds [2^(i-1), 2^i) ms, the last the rest
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        buckets[bucketOf(value)].increment();
+        count.increment();
+        totalMillis.add(value);
+        maxMillis.accumulate(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long meanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalMillis.sum() / n;
+    }
+
+    public long maxMillis() {
+        return maxMillis.get();
+    }
+
+    // Smallest bucket bound at or below which the given fraction of the recorded values lie
+    public long percentileMillis(double fraction) {
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            n += counts[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxMillis());
+            }
+        }
+        return maxMillis();
+    }
+
+    static int bucketOf(long millis) {
+        return Math.min(64 - Long.numberOfLeadingZeros(millis), BUCKETS - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,14 @@
+package com.quickhelper.backend.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+// Latest reported position of a provider, as received from the live location channel
+public class LivePosition {
+    private final long providerId;
+    private final double lat;
+    private final double lng;
+    private final long reportedAtMillis;
+}
@@ -0,0 +1,118 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.NotificationDTO;
+import com.quickhelper.backend.model.Notification;
+import com.quickhelper.backend.repository.NotificationOutboxRepository;
+import com.quickhelper.backend.util.DebugUtil;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+// Drains the notification outbox on a background thread: each batch is moved into notifications by one statement
+// and then pushed over WebSocket. Committing transactions wake it up; a periodic poll picks up anything left
+// behind, e.g. by a restart or a failed drain.
+public class NotificationOutboxDispatcher {
+    private final NotificationOutboxRepository outboxRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int batchSize;
+    private final Executor executor;
+
+    // Set while a drain is queued on the executor, so a burst of commits runs one drain rather than one each
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    @Autowired
+    public NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository,
+                                        SimpMessagingTemplate messagingTemplate,
+                                        @Value("${notifications.outbox.batch-size:200}") int batchSize) {
+        this(outboxRepository, messagingTemplate, batchSize, newWorker());
+    }
+
+    NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository, SimpMessagingTemplate messagingTemplate,
+                                 int batchSize, Executor executor) {
+        this.outboxRepository = outboxRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = executor;
+    }
+
+    // Called after a transaction that appended events commits; returns at once
+    public void wakeUp() {
+        if (drainQueued.compareAndSet(false, true)) {
+            executor.execute(this::drainQueued);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    // Moves and pushes batches until the outbox is empty; returns the number of notifications delivered
+    public int drain() {
+        int delivered = 0;
+        List<Notification> batch;
+        do {
+            batch = outboxRepository.drain(batchSize);
+            batch.forEach(this::push);
+            delivered += batch.size();
+        } while (batch.size() == batchSize);
+        return delivered;
+    }
+
+    private void drainQueued() {
+        // Cleared first, so events appended while this drain runs queue another one
+        drainQueued.set(false);
+        try {
+            drain();
+        } catch (DataAccessException e) {
+            DebugUtil.logError("Notification outbox drain failed, retrying on next poll: {}", e.getMessage(), e);
+        }
+    }
+
+    // The notification is already stored, so a failed push only costs the live update
+    private void push(Notification notification) {
+        NotificationDTO dto = new NotificationDTO(
+                notification.getId(),
+                notification.getReceiverId(),
+                notification.getType(),
+                notification.getTitle(),
+                notification.getMessage(),
+                notification.getIsRead(),
+                notification.getIsHighPriority(),
+                notification.getRelatedBookingId(),
+                notification.getCreatedAt()
+        );
+        String destination = NotificationService.destinationOf(notification.getReceiverRole(), notification.getReceiverId());
+        try {
+            messagingTemplate.convertAndSend(destination, dto);
+        } catch (Exception e) {
+            DebugUtil.logError("Failed to push notification {} to {}: {}", dto.getId(), destination, e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private static ExecutorService newWorker() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -2,15 +2,18 @@ package com.quickhelper.backend.service;
 
 import com.quickhelper.backend.dto.NotificationDTO;
 import com.quickhelper.backend.model.*;
+import com.quickhelper.backend.repository.NotificationOutboxRepository;
 import com.quickhelper.backend.repository.NotificationRepository;
 import com.quickhelper.backend.repository.UserRepository;
 import com.quickhelper.backend.util.DebugUtil;
+import com.quickhelper.backend.util.TransactionUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,6 +24,8 @@ public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationOutboxDispatcher outboxDispatcher;
 
     @Transactional
     // Creates a notification record and sends it via WebSocket
@@ -63,6 +68,19 @@ public class NotificationService {
         }
     }
 
+    // Queues a booking event notification in the caller's transaction without looking up the receiver or
+    // touching the notifications table; it is stored and pushed in the background after commit
+    public void enqueue(Long receiverId,
+                        UserRole receiverRole,
+                        NotificationType type,
+                        String title,
+                        String message,
+                        Boolean isHighPriority,
+                        Long relatedBookingId) {
+        enqueueAll(List.of(notification(receiverId, receiverRole, type, title, message,
+                isHighPriority != null ? isHighPriority : false, relatedBookingId)));
+    }
+
     // Fetches all notifications for a receiver in reverse chronological order
     public List<NotificationDTO> getNotifications(Long receiverId, UserRole receiverRole) {
         return DebugUtil.measureExecutionTime(() -> 
@@ -128,7 +146,7 @@ public class NotificationService {
     // Helper methods for creating notifications based on booking events for USERS
     public void notifyBookingRequestSent(Long userId, Long providerId, Long bookingId, String serviceType) {
         // Notify provider about new booking request
-        createAndSendNotification(
+        enqueue(
                 providerId,
                 UserRole.PROVIDER,
                 NotificationType.NEW_BOOKING_REQUEST,
@@ -141,7 +159,7 @@ public class NotificationService {
 
     public void notifyBookingAccepted(Long userId, Long bookingId, String providerName) {
         // Notify user that booking was accepted
-        createAndSendNotification(
+        enqueue(
                 userId,
                 UserRole.USER,
                 NotificationType.BOOKING_ACCEPTED,
@@ -154,7 +172,7 @@ public class NotificationService {
 
     public void notifyBookingRejected(Long userId, Long bookingId, String providerName) {
         // Notify user that booking was rejected
-        createAndSendNotification(
+        enqueue(
                 userId,
                 UserRole.USER,
                 NotificationType.BOOKING_REJECTED,
@@ -165,9 +183,79 @@ public class NotificationService {
         );
     }
 
+    @Transactional
+    // Queues the rejection notifications of a bulk status update with one batch insert
+    public void notifyBookingsRejected(List<RejectedBooking> rejected) {
+        if (rejected.isEmpty()) {
+            return;
+        }
+        List<Notification> notifications = new ArrayList<>(rejected.size());
+        for (RejectedBooking booking : rejected) {
+            Notification notification = new Notification();
+            notification.setReceiverId(booking.getUserId());
+            notification.setReceiverRole(UserRole.USER);
+            notification.setType(NotificationType.BOOKING_REJECTED);
+            notification.setTitle("Booking Rejected");
+            notification.setMessage(booking.getProviderName() + " has rejected your booking request");
+            notification.setIsHighPriority(true);
+            notification.setRelatedBookingId(booking.getBookingId());
+            notification.setIsRead(false);
+            notifications.add(notification);
+        }
+        enqueueAll(notifications);
+    }
+
+    @Transactional
+    // Queues the customer and provider notifications of a provider's batch acceptance with one batch insert
+    public void notifyBookingsAccepted(Long providerId, String providerName, List<AcceptedBooking> accepted) {
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<Notification> notifications = new ArrayList<>(accepted.size() * 2);
+        for (AcceptedBooking booking : accepted) {
+            notifications.add(notification(booking.getUserId(), UserRole.USER, NotificationType.BOOKING_ACCEPTED,
+                    "Booking Accepted", providerName + " has accepted your booking request", false, booking.getBookingId()));
+            notifications.add(notification(providerId, UserRole.PROVIDER, NotificationType.JOB_ACCEPTED,
+                    "Job Accepted", "You have accepted the booking request from " + booking.getUserName(), false,
+                    booking.getBookingId()));
+        }
+        enqueueAll(notifications);
+    }
+
+    @Transactional
+    // Offers a broadcast request to a group of providers at once
+    public void notifyBookingOffered(List<Long> providerIds, Long bookingId, String serviceType) {
+        enqueueAll(providerNotifications(providerIds, NotificationType.NEW_BOOKING_OFFER,
+                "New Booking Offer",
+                "A customer nearby needs a " + serviceType + " service. The first provider to accept gets the job",
+                true, bookingId));
+    }
+
+    @Transactional
+    // Withdraws an offer from providers once the request was claimed by someone else or withdrawn
+    public void notifyBookingOfferRevoked(List<Long> providerIds, Long bookingId) {
+        enqueueAll(providerNotifications(providerIds, NotificationType.BOOKING_OFFER_REVOKED,
+                "Offer No Longer Available",
+                "This booking request is no longer available",
+                false, bookingId));
+    }
+
+    public void notifyNoProviderFound(Long userId, Long bookingId) {
+        // Notify user that no provider claimed the broadcast request
+        enqueue(
+                userId,
+                UserRole.USER,
+                NotificationType.BOOKING_REJECTED,
+                "No Provider Available",
+                "No provider nearby accepted your request. Please try again later",
+                true, // High priority
+                bookingId
+        );
+    }
+
     public void notifyBookingCancelled(Long providerId, Long bookingId, String userName) {
         // Notify provider that booking was cancelled
-        createAndSendNotification(
+        enqueue(
                 providerId,
                 UserRole.PROVIDER,
                 NotificationType.BOOKING_CANCELLED,
@@ -180,7 +268,7 @@ public class NotificationService {
 
     public void notifyProviderOnWay(Long userId, Long bookingId, String providerName) {
         // Notify user that provider is on the way
-        createAndSendNotification(
+        enqueue(
                 userId,
                 UserRole.USER,
                 NotificationType.PROVIDER_ON_WAY,
@@ -193,7 +281,7 @@ public class NotificationService {
 
     public void notifyServiceStarted(Long userId, Long bookingId, String providerName) {
         // Notify user that service has started
-        createAndSendNotification(
+        enqueue(
                 userId,
                 UserRole.USER,
                 NotificationType.SERVICE_STARTED,
@@ -206,7 +294,7 @@ public class NotificationService {
 
     public void notifyServiceCompleted(Long userId, Long providerId, Long bookingId, String userName) {
         // Notify user
-        createAndSendNotification(
+        enqueue(
                 userId,
                 UserRole.USER,
                 NotificationType.SERVICE_COMPLETED,
@@ -217,7 +305,7 @@ public class NotificationService {
         );
 
         // Notify provider
-        createAndSendNotification(
+        enqueue(
                 providerId,
                 UserRole.PROVIDER,
                 NotificationType.JOB_COMPLETED,
@@ -230,7 +318,7 @@ public class NotificationService {
 
     public void notifyPaymentConfirmed(Long userId, Long bookingId, Double amount) {
         // Notify user that payment was confirmed
-        createAndSendNotification(
+        enqueue(
                 userId,
                 UserRole.USER,
                 NotificationType.PAYMENT_CONFIRMED,
@@ -243,7 +331,7 @@ public class NotificationService {
 
     public void notifyEarningsCredited(Long providerId, Long bookingId, Double amount) {
         // Notify provider that earnings were credited
-        createAndSendNotification(
+        enqueue(
                 providerId,
                 UserRole.PROVIDER,
                 NotificationType.EARNINGS_CREDITED,
@@ -257,7 +345,7 @@ public class NotificationService {
     // Additional helper methods for other events
     public void notifyRatingReminder(Long userId, Long bookingId) {
         // Notify user to rate their experience
-        createAndSendNotification(
+        enqueue(
                 userId,
                 UserRole.USER,
                 NotificationType.RATING_REMINDER,
@@ -270,7 +358,7 @@ public class NotificationService {
 
     public void notifyLiveLocationStarted(Long userId, Long bookingId) {
         // Notify user that live location tracking has started
-        createAndSendNotification(
+        enqueue(
                 userId,
                 UserRole.USER,
                 NotificationType.LIVE_LOCATION_STARTED,
@@ -286,7 +374,7 @@ public class NotificationService {
     public void sendWebSocketNotification(Long receiverId, UserRole receiverRole, NotificationDTO dto) {
         try {
             // Updated destination to support both USER and PROVIDER roles
-            String destination = "/topic/" + receiverRole.toString().toLowerCase() + "/" + receiverId + "/notifications";
+            String destination = destinationOf(receiverRole, receiverId);
             DebugUtil.logDebug("Sending notification to destination: {}", destination);
             DebugUtil.logDebug("Notification details - ID: {}, Title: {}, Type: {}", dto.getId(), dto.getTitle(), dto.getType());
             
@@ -322,6 +410,52 @@ public class NotificationService {
         DebugUtil.logInfo("Stored failed notification with ID: {}", notification.getId());
     }
 
+    private List<Notification> providerNotifications(List<Long> providerIds, NotificationType type, String title,
+                                                     String message, boolean isHighPriority, Long bookingId) {
+        List<Notification> notifications = new ArrayList<>(providerIds.size());
+        for (Long providerId : providerIds) {
+            Notification notification = new Notification();
+            notification.setReceiverId(providerId);
+            notification.setReceiverRole(UserRole.PROVIDER);
+            notification.setType(type);
+            notification.setTitle(title);
+            notification.setMessage(message);
+            notification.setIsHighPriority(isHighPriority);
+            notification.setRelatedBookingId(bookingId);
+            notification.setIsRead(false);
+            notifications.add(notification);
+        }
+        return notifications;
+    }
+
+    private static Notification notification(Long receiverId, UserRole receiverRole, NotificationType type, String title,
+                                             String message, boolean isHighPriority, Long relatedBookingId) {
+        Notification notification = new Notification();
+        notification.setReceiverId(receiverId);
+        notification.setReceiverRole(receiverRole);
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setIsHighPriority(isHighPriority);
+        notification.setRelatedBookingId(relatedBookingId);
+        notification.setIsRead(false);
+        return notification;
+    }
+
+    // Appends a group of notifications to the outbox with one batch insert; the dispatcher stores and pushes
+    // them once the caller's transaction commits
+    private void enqueueAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        outboxRepository.append(notifications);
+        TransactionUtil.afterCommit(outboxDispatcher::wakeUp);
+    }
+
+    static String destinationOf(UserRole receiverRole, Long receiverId) {
+        return "/topic/" + receiverRole.toString().toLowerCase() + "/" + receiverId + "/notifications";
+    }
+
     // Maps Notification entity to DTO
     private NotificationDTO mapToDTO(Notification notification) {
         return new NotificationDTO(
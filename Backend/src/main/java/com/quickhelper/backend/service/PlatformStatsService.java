@@ -0,0 +1,102 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.repository.BookingRepository;
+import com.quickhelper.backend.repository.ProviderProfileRepository;
+import com.quickhelper.backend.repository.ReviewRepository;
+import com.quickhelper.backend.util.DebugUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+// Platform-wide figures for the public stats endpoint, kept as counters that booking, review and approval
+// events adjust after commit. A periodic reconcile resets them from the database to repair any drift.
+public class PlatformStatsService {
+    private final ProviderProfileRepository providerProfileRepository;
+    private final BookingRepository bookingRepository;
+    private final ReviewRepository reviewRepository;
+
+    private final AtomicLong approvedProviders = new AtomicLong();
+    private final AtomicLong completedJobs = new AtomicLong();
+    private final AtomicLong reviewCount = new AtomicLong();
+    private final AtomicLong ratingSum = new AtomicLong(); // ratings are whole stars, so the sum is exact
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${stats.reconcile-interval-ms:300000}", initialDelayString = "${stats.reconcile-interval-ms:300000}")
+    // Replaces the counters with fresh aggregates; events racing with the reads are corrected on the next run
+    public void reconcile() {
+        try {
+            long providers = providerProfileRepository.countByIsApprovedTrue();
+            long jobs = bookingRepository.countByStatus(BookingStatus.COMPLETED);
+            long reviews = reviewRepository.count();
+            long sum = reviewRepository.sumRatings();
+
+            long drift = Math.abs(providers - approvedProviders.get()) + Math.abs(jobs - completedJobs.get())
+                    + Math.abs(reviews - reviewCount.get());
+            approvedProviders.set(providers);
+            completedJobs.set(jobs);
+            reviewCount.set(reviews);
+            ratingSum.set(sum);
+            if (ready && drift > 0) {
+                DebugUtil.logWarn("Platform stats drifted by {} before reconcile", drift);
+            }
+            ready = true;
+        } catch (DataAccessException e) {
+            DebugUtil.logError("Failed to reconcile platform stats: {}", e.getMessage(), e);
+        }
+    }
+
+    public void onBookingCompleted() {
+        completedJobs.incrementAndGet();
+    }
+
+    public void onReviewCreated(int rating) {
+        ratingSum.addAndGet(rating);
+        reviewCount.incrementAndGet();
+    }
+
+    // Called when a profile's approved flag flips
+    public void onProviderApprovalChanged(boolean approved) {
+        if (approved) {
+            approvedProviders.incrementAndGet();
+        } else {
+            approvedProviders.updateAndGet(count -> Math.max(0, count - 1));
+        }
+    }
+
+    public long getActiveProviders() {
+        ensureReady();
+        return approvedProviders.get();
+    }
+
+    public long getJobsCompleted() {
+        ensureReady();
+        return completedJobs.get();
+    }
+
+    // Average star rating over all reviews, or null before the first review
+    public Double getAverageRating() {
+        ensureReady();
+        long count = reviewCount.get();
+        return count > 0 ? (double) ratingSum.get() / count : null;
+    }
+
+    // Requests arriving before the startup reconcile compute the figures once themselves
+    private void ensureReady() {
+        if (!ready) {
+            reconcile();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ServiceType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+// Bitset view of the approved providers: each gets a dense ordinal, and every filter (service type,
+// availability, city) is one bitset over those ordinals, so candidate selection is a few word-wise ANDs
+public class ProviderAvailabilityRegistry {
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final Map<Long, Integer> ordinalByUser = new HashMap<>();
+    private long[] ids = new long[64];
+    private long[] userIds = new long[64];
+    private ServiceType[] serviceTypes = new ServiceType[64];
+    private String[] cities = new String[64];
+
+    // Set for every ordinal in use; freed ordinals are reused lowest first to keep the bitsets dense
+    private final BitSet approved = new BitSet();
+    private final BitSet available = new BitSet();
+    private final Map<ServiceType, BitSet> byServiceType = new EnumMap<>(ServiceType.class);
+    private final Map<String, BitSet> byCity = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public ProviderAvailabilityRegistry() {
+        for (ServiceType type : ServiceType.values()) {
+            byServiceType.put(type, new BitSet());
+        }
+    }
+
+    // True once populated from the database; callers query SQL before that
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return approved.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Replaces the whole registry content, e.g. on startup; cityByUser maps provider user ids to their city
+    public void rebuild(Collection<ProviderSnapshot> snapshots, Map<Long, String> cityByUser) {
+        lock.writeLock().lock();
+        try {
+            ordinalById.clear();
+            ordinalByUser.clear();
+            Arrays.fill(cities, null);
+            Arrays.fill(serviceTypes, null);
+            approved.clear();
+            available.clear();
+            byServiceType.values().forEach(BitSet::clear);
+            byCity.clear();
+            for (ProviderSnapshot snapshot : snapshots) {
+                applyLocked(snapshot, cityByUser.get(snapshot.getUserId()));
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds, updates or drops a provider depending on its approval status
+    public void apply(ProviderSnapshot snapshot, String city) {
+        lock.writeLock().lock();
+        try {
+            applyLocked(snapshot, city);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Moves a provider user's bits to a new city; no-op for users without an approved profile
+    public void updateCity(long userId, String city) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalByUser.get(userId);
+            if (ordinal != null) {
+                setCity(ordinal, ProviderSearchCache.normalizeCity(city));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long providerId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(providerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of approved providers matching the filters, in ordinal order; null type or city means "any"
+    public List<Long> candidates(ServiceType serviceType, String city, boolean availableOnly) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = matchLocked(serviceType, ProviderSearchCache.normalizeCity(city), availableOnly);
+            List<Long> result = new ArrayList<>(matches.cardinality());
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                result.add(ids[ordinal]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of approved providers matching the filters, without materialising their ids
+    public int count(ServiceType serviceType, String city, boolean availableOnly) {
+        lock.readLock().lock();
+        try {
+            return matchLocked(serviceType, ProviderSearchCache.normalizeCity(city), availableOnly).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet matchLocked(ServiceType serviceType, String normalizedCity, boolean availableOnly) {
+        BitSet matches;
+        if (normalizedCity != null) {
+            BitSet cityBits = byCity.get(normalizedCity);
+            if (cityBits == null) {
+                return new BitSet();
+            }
+            matches = (BitSet) cityBits.clone();
+        } else {
+            matches = (BitSet) approved.clone();
+        }
+        if (serviceType != null) {
+            matches.and(byServiceType.get(serviceType));
+        }
+        if (availableOnly) {
+            matches.and(available);
+        }
+        return matches;
+    }
+
+    private void applyLocked(ProviderSnapshot snapshot, String city) {
+        if (!snapshot.isApproved() || snapshot.getServiceType() == null) {
+            removeLocked(snapshot.getId());
+            return;
+        }
+        Integer existing = ordinalById.get(snapshot.getId());
+        int ordinal = existing != null ? existing : approved.nextClearBit(0);
+        if (existing == null) {
+            ensureCapacity(ordinal + 1);
+            ordinalById.put(snapshot.getId(), ordinal);
+            approved.set(ordinal);
+        } else if (userIds[ordinal] != snapshot.getUserId()) {
+            ordinalByUser.remove(userIds[ordinal]);
+        }
+        ids[ordinal] = snapshot.getId();
+        userIds[ordinal] = snapshot.getUserId();
+        ordinalByUser.put(snapshot.getUserId(), ordinal);
+
+        if (serviceTypes[ordinal] != snapshot.getServiceType()) {
+            if (serviceTypes[ordinal] != null) {
+                byServiceType.get(serviceTypes[ordinal]).clear(ordinal);
+            }
+            byServiceType.get(snapshot.getServiceType()).set(ordinal);
+            serviceTypes[ordinal] = snapshot.getServiceType();
+        }
+        available.set(ordinal, snapshot.isAvailable());
+        setCity(ordinal, ProviderSearchCache.normalizeCity(city));
+    }
+
+    private void setCity(int ordinal, String normalizedCity) {
+        String previous = cities[ordinal];
+        if (previous != null && previous.equals(normalizedCity)) {
+            return;
+        }
+        if (previous != null) {
+            BitSet bits = byCity.get(previous);
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                byCity.remove(previous);
+            }
+        }
+        if (normalizedCity != null) {
+            byCity.computeIfAbsent(normalizedCity, c -> new BitSet()).set(ordinal);
+        }
+        cities[ordinal] = normalizedCity;
+    }
+
+    private void removeLocked(long providerId) {
+        Integer ordinal = ordinalById.remove(providerId);
+        if (ordinal == null) {
+            return;
+        }
+        ordinalByUser.remove(userIds[ordinal]);
+        setCity(ordinal, null);
+        byServiceType.get(serviceTypes[ordinal]).clear(ordinal);
+        serviceTypes[ordinal] = null;
+        available.clear(ordinal);
+        approved.clear(ordinal);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, grown);
+        userIds = Arrays.copyOf(userIds, grown);
+        serviceTypes = Arrays.copyOf(serviceTypes, grown);
+        cities = Arrays.copyOf(cities, grown);
+    }
+}
@@ -0,0 +1,23 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.BookingStatus;
+import lombok.Getter;
+
+// Change to one provider's dashboard counters, accumulated over the events of a transaction
+public class ProviderBookingStatsDelta {
+    @Getter
+    private final long providerId;
+    private final int[] byStatus = new int[BookingStatus.values().length];
+
+    public ProviderBookingStatsDelta(long providerId) {
+        this.providerId = providerId;
+    }
+
+    public int get(BookingStatus status) {
+        return byStatus[status.ordinal()];
+    }
+
+    void add(BookingStatus status, int delta) {
+        byStatus[status.ordinal()] += delta;
+    }
+}
@@ -0,0 +1,124 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.TimeSlotDTO;
+import com.quickhelper.backend.exception.BadRequestException;
+import com.quickhelper.backend.exception.ConflictException;
+import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.repository.BookingRepository;
+import com.quickhelper.backend.util.DebugUtil;
+import com.quickhelper.backend.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+// Provider calendars for scheduled bookings. Conflict checks and free-slot queries are answered from the
+// in-memory slot index, which learns of slots after commit and is rebuilt from the bookings table periodically.
+// Two requests for the same slot can both pass the check; the exclusion constraint on bookings decides that race.
+public class ProviderCalendarService {
+    static final Duration MAX_SLOT = Duration.ofHours(12);
+    static final Duration MAX_WINDOW = Duration.ofDays(31);
+
+    private final BookingRepository bookingRepository;
+    private final ProviderSlotIndex slotIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${bookings.calendar.reconcile-interval-ms:300000}",
+            initialDelayString = "${bookings.calendar.reconcile-interval-ms:300000}")
+    // Rebuilds the index from the committed slots that have not ended yet, which also drops past ones
+    public void reconcile() {
+        try {
+            List<Object[]> rows = bookingRepository.findScheduledSlotsEndingAfter(BookingStatus.ACTIVE, LocalDateTime.now());
+            List<BookedSlot> slots = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                slots.add(new BookedSlot((Long) row[0], (Long) row[1], (LocalDateTime) row[2], (LocalDateTime) row[3]));
+            }
+            slotIndex.rebuild(slots);
+        } catch (DataAccessException e) {
+            DebugUtil.logError("Failed to rebuild provider calendars: {}", e.getMessage(), e);
+        }
+    }
+
+    // A booking is either unscheduled or has a slot of positive length up to MAX_SLOT
+    public static void validate(LocalDateTime start, LocalDateTime end) {
+        if (start == null && end == null) {
+            return;
+        }
+        if (start == null || end == null) {
+            throw new BadRequestException("Scheduled start and end must be given together");
+        }
+        if (!end.isAfter(start)) {
+            throw new BadRequestException("Scheduled end must be after scheduled start");
+        }
+        if (Duration.between(start, end).compareTo(MAX_SLOT) > 0) {
+            throw new BadRequestException("A booking can last at most " + MAX_SLOT.toHours() + " hours");
+        }
+    }
+
+    // Refuses a slot that overlaps one of the provider's active bookings as last committed
+    public void requireFree(long providerUserId, LocalDateTime start, LocalDateTime end) {
+        boolean taken = slotIndex.isReady()
+                ? slotIndex.conflicts(providerUserId, start, end)
+                : !bookingRepository.findScheduledSlotsOverlapping(providerUserId, BookingStatus.ACTIVE, start, end).isEmpty();
+        if (taken) {
+            throw new ConflictException("Provider " + providerUserId + " is already booked between " + start + " and " + end);
+        }
+    }
+
+    // Free intervals of at least minMinutes in the provider's calendar between from and to
+    public List<TimeSlotDTO> freeSlots(long providerUserId, LocalDateTime from, LocalDateTime to, int minMinutes) {
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("The end of the window must be after its start");
+        }
+        if (Duration.between(from, to).compareTo(MAX_WINDOW) > 0) {
+            throw new BadRequestException("The window can span at most " + MAX_WINDOW.toDays() + " days");
+        }
+        Duration minLength = Duration.ofMinutes(Math.max(1, minMinutes));
+        if (slotIndex.isReady()) {
+            return slotIndex.freeSlots(providerUserId, from, to, minLength);
+        }
+        List<BookedSlot> booked = new ArrayList<>();
+        for (Object[] row : bookingRepository.findScheduledSlotsOverlapping(providerUserId, BookingStatus.ACTIVE, from, to)) {
+            booked.add(new BookedSlot((Long) row[0], providerUserId, (LocalDateTime) row[1], (LocalDateTime) row[2]));
+        }
+        return ProviderSlotIndex.gaps(booked, from, to, minLength);
+    }
+
+    // Indexes the slot of a newly saved booking once it commits; no-op for unscheduled bookings
+    public void booked(Booking booking) {
+        if (booking.getScheduledStart() == null || booking.getProvider() == null) {
+            return;
+        }
+        BookedSlot slot = new BookedSlot(booking.getId(), booking.getProvider().getId(),
+                booking.getScheduledStart(), booking.getScheduledEnd());
+        TransactionUtil.afterCommit(() -> slotIndex.add(slot));
+    }
+
+    // Frees the slots of bookings that left the active statuses once the change commits
+    public void ended(List<BookingEvent> events) {
+        List<BookingEvent> ended = new ArrayList<>();
+        for (BookingEvent event : events) {
+            if (event.getProviderId() != null && !BookingStatus.ACTIVE.contains(event.getToStatus())) {
+                ended.add(event);
+            }
+        }
+        if (ended.isEmpty()) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> ended.forEach(event -> slotIndex.remove(event.getProviderId(), event.getBookingId())));
+    }
+}
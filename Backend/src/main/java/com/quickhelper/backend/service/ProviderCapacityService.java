@@ -0,0 +1,144 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.exception.ConflictException;
+import com.quickhelper.backend.repository.ProviderProfileRepository;
+import com.quickhelper.backend.util.DebugUtil;
+import com.quickhelper.backend.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+// Caps how many active (BookingStatus.ACTIVE) bookings a provider holds at once. The active_bookings column, changed
+// only by conditional updates, is the authority; striped in-memory counts mirror it after commit so requests
+// for a fully booked provider are refused without touching the database. A provider switches to unavailable
+// when the last slot is taken and back once one frees up, which keeps them out of search and dispatch meanwhile.
+public class ProviderCapacityService {
+    private static final int STRIPES = 32;
+
+    private final ProviderProfileRepository providerProfileRepository;
+    private final ProviderService providerService;
+    private final int maxActive;
+
+    // Provider user id -> active bookings; each stripe is guarded by its own monitor
+    @SuppressWarnings("unchecked")
+    private final Map<Long, Integer>[] stripes = new Map[STRIPES];
+
+    public ProviderCapacityService(ProviderProfileRepository providerProfileRepository,
+                                   ProviderService providerService,
+                                   @Value("${bookings.capacity.max-active:3}") int maxActive) {
+        this.providerProfileRepository = providerProfileRepository;
+        this.providerService = providerService;
+        this.maxActive = Math.max(1, maxActive);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new HashMap<>();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${bookings.capacity.reconcile-interval-ms:300000}",
+            initialDelayString = "${bookings.capacity.reconcile-interval-ms:300000}")
+    // Replaces the in-memory counts with the committed column values to repair any drift
+    public void reconcile() {
+        try {
+            List<Object[]> rows = providerProfileRepository.findActiveBookingCounts();
+            Map<Long, Integer> counts = new HashMap<>(rows.size() * 2);
+            for (Object[] row : rows) {
+                counts.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+            }
+            for (Map<Long, Integer> stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.clear();
+                }
+            }
+            counts.forEach((providerId, active) -> {
+                Map<Long, Integer> stripe = stripeOf(providerId);
+                synchronized (stripe) {
+                    stripe.put(providerId, active);
+                }
+            });
+        } catch (DataAccessException e) {
+            DebugUtil.logError("Failed to reconcile provider capacity: {}", e.getMessage(), e);
+        }
+    }
+
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    // Active bookings of the provider as last committed
+    public int activeBookings(long providerUserId) {
+        Map<Long, Integer> stripe = stripeOf(providerUserId);
+        synchronized (stripe) {
+            return stripe.getOrDefault(providerUserId, 0);
+        }
+    }
+
+    public boolean hasCapacity(long providerUserId) {
+        return activeBookings(providerUserId) < maxActive;
+    }
+
+    // Takes a slot for a new active booking inside the caller's transaction; a full provider surfaces as 409
+    public void reserve(long providerUserId) {
+        if (!hasCapacity(providerUserId) || providerProfileRepository.reserveSlot(providerUserId, maxActive) == 0) {
+            throw new ConflictException("Provider " + providerUserId + " is fully booked");
+        }
+        if (providerProfileRepository.pauseIfSaturated(providerUserId, maxActive) == 1) {
+            syncAvailability(providerUserId);
+        }
+        TransactionUtil.afterCommit(() -> adjust(providerUserId, 1));
+    }
+
+    // Frees the slot of a booking that stopped being active inside the caller's transaction
+    public void release(long providerUserId) {
+        if (providerProfileRepository.releaseSlot(providerUserId) == 0) {
+            return;
+        }
+        released(providerUserId);
+    }
+
+    // Slots already freed in the database by a bulk statement, one entry per booking
+    public void released(Collection<Long> providerUserIds) {
+        providerUserIds.forEach(this::released);
+    }
+
+    private void released(long providerUserId) {
+        if (providerProfileRepository.resumeIfFreed(providerUserId, maxActive) == 1) {
+            syncAvailability(providerUserId);
+        }
+        TransactionUtil.afterCommit(() -> adjust(providerUserId, -1));
+    }
+
+    // The pause and resume updates bypass the entity, so the search indexes are fed from a fresh load
+    private void syncAvailability(long providerUserId) {
+        providerProfileRepository.findByUserId(providerUserId).ifPresent(providerService::syncSearchIndexes);
+    }
+
+    private void adjust(long providerUserId, int delta) {
+        Map<Long, Integer> stripe = stripeOf(providerUserId);
+        synchronized (stripe) {
+            int active = Math.max(0, stripe.getOrDefault(providerUserId, 0) + delta);
+            if (active == 0) {
+                stripe.remove(providerUserId);
+            } else {
+                stripe.put(providerUserId, active);
+            }
+        }
+    }
+
+    private Map<Long, Integer> stripeOf(long providerUserId) {
+        return stripes[(Long.hashCode(providerUserId) & 0x7fffffff) % STRIPES];
+    }
+}
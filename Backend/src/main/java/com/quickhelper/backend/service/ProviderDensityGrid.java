@@ -0,0 +1,246 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.util.DistanceCalculator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+// Precomputed provider counts per geo cell and service type for "providers near you" figures. Counts are
+// cell-level: a cell contributes in full when its centre lies inside the radius, so no provider rows are read
+public class ProviderDensityGrid {
+    private static final int TYPE_COUNT = ServiceType.values().length;
+
+    private final double cellSizeDeg;
+    private final int lngCellCount;
+    private final int minLngIndex;
+    // Per cell: approved counts by service type ordinal, followed by available counts by ordinal
+    private final Map<Long, int[]> cells = new HashMap<>();
+    private final Map<Long, Placement> placements = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public ProviderDensityGrid(@Value("${stats.density-grid.cell-size-deg:0.1}") double cellSizeDeg) {
+        this.cellSizeDeg = cellSizeDeg;
+        this.minLngIndex = (int) Math.floor(-180.0 / cellSizeDeg);
+        this.lngCellCount = (int) Math.ceil(360.0 / cellSizeDeg - 1e-9);
+    }
+
+    // True once populated from the database; callers count in SQL before that
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Replaces the whole grid content, e.g. on startup
+    public void rebuild(Collection<ProviderSnapshot> snapshots) {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            placements.clear();
+            for (ProviderSnapshot snapshot : snapshots) {
+                applyLocked(snapshot);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds, moves or drops a provider depending on its approval status and coordinates
+    public void apply(ProviderSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            applyLocked(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Moves a counted provider to a live position; no-op for providers that are not counted
+    public void move(long providerId, double lat, double lng) {
+        lock.writeLock().lock();
+        try {
+            Placement placement = placements.get(providerId);
+            if (placement == null) {
+                return;
+            }
+            long cellKey = cellKey(lat, lng);
+            if (cellKey != placement.cellKey) {
+                place(providerId, new Placement(cellKey, placement.typeOrdinal, placement.available));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long providerId) {
+        lock.writeLock().lock();
+        try {
+            place(providerId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Approved and available providers in the cells whose centre lies within radiusKm; null type means every type
+    public Counts countWithin(double lat, double lng, double radiusKm, ServiceType serviceType) {
+        if (Double.isNaN(lat) || Double.isNaN(lng) || Double.isNaN(radiusKm) || radiusKm < 0) {
+            return new Counts(0, 0);
+        }
+        // Widen by half a cell so every cell whose centre may be in range is probed
+        double latSpan = Math.min(radiusKm / ProviderGeoIndex.KM_PER_DEGREE + cellSizeDeg, 180.0);
+        int latLo = latIndex(Math.max(lat - latSpan, -90.0));
+        int latHi = latIndex(Math.min(lat + latSpan, 90.0));
+        double poleward = Math.min(90.0, Math.max(Math.abs(lat - latSpan), Math.abs(lat + latSpan)));
+        double cos = Math.cos(Math.toRadians(poleward));
+        double lngSpan = cos > 1e-9 ? radiusKm / (ProviderGeoIndex.KM_PER_DEGREE * cos) + cellSizeDeg : 360.0;
+        boolean allLng = lngSpan >= 180.0;
+        int lngLo = allLng ? minLngIndex : lngIndex(lng - lngSpan);
+        int lngWidth = allLng ? lngCellCount - 1 : lngIndex(lng + lngSpan) - lngLo;
+
+        long approved = 0;
+        long available = 0;
+        lock.readLock().lock();
+        try {
+            long boxCells = (long) (latHi - latLo + 1) * (lngWidth + 1);
+            if (boxCells > cells.size()) {
+                for (Map.Entry<Long, int[]> e : cells.entrySet()) {
+                    int cellLat = (int) (e.getKey() >> 32);
+                    int cellLng = (int) (long) e.getKey();
+                    if (inRange(cellLat, cellLng, lat, lng, radiusKm)) {
+                        approved += sum(e.getValue(), 0, serviceType);
+                        available += sum(e.getValue(), TYPE_COUNT, serviceType);
+                    }
+                }
+            } else {
+                for (int latIdx = latLo; latIdx <= latHi; latIdx++) {
+                    for (int offset = 0; offset <= lngWidth; offset++) {
+                        int lngIdx = wrapLng(lngLo + offset);
+                        int[] counts = cells.get(key(latIdx, lngIdx));
+                        if (counts != null && inRange(latIdx, lngIdx, lat, lng, radiusKm)) {
+                            approved += sum(counts, 0, serviceType);
+                            available += sum(counts, TYPE_COUNT, serviceType);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Counts(approved, available);
+    }
+
+    private void applyLocked(ProviderSnapshot snapshot) {
+        if (!snapshot.isApproved() || !snapshot.hasLocation() || snapshot.getServiceType() == null) {
+            place(snapshot.getId(), null);
+            return;
+        }
+        place(snapshot.getId(), new Placement(cellKey(snapshot.getLat(), snapshot.getLng()),
+                snapshot.getServiceType().ordinal(), snapshot.isAvailable()));
+    }
+
+    // Swaps the provider's contribution from its old placement to the new one; null removes it
+    private void place(long providerId, Placement placement) {
+        Placement previous = placement != null ? placements.put(providerId, placement) : placements.remove(providerId);
+        if (previous != null) {
+            int[] counts = cells.get(previous.cellKey);
+            counts[previous.typeOrdinal]--;
+            if (previous.available) {
+                counts[TYPE_COUNT + previous.typeOrdinal]--;
+            }
+            if (isEmpty(counts)) {
+                cells.remove(previous.cellKey);
+            }
+        }
+        if (placement != null) {
+            int[] counts = cells.computeIfAbsent(placement.cellKey, k -> new int[2 * TYPE_COUNT]);
+            counts[placement.typeOrdinal]++;
+            if (placement.available) {
+                counts[TYPE_COUNT + placement.typeOrdinal]++;
+            }
+        }
+    }
+
+    private boolean inRange(int latIdx, int lngIdx, double lat, double lng, double radiusKm) {
+        double centreLat = (latIdx + 0.5) * cellSizeDeg;
+        double centreLng = (lngIdx + 0.5) * cellSizeDeg;
+        return DistanceCalculator.calculateDistance(lat, lng, centreLat, centreLng) <= radiusKm;
+    }
+
+    private static long sum(int[] counts, int offset, ServiceType serviceType) {
+        if (serviceType != null) {
+            return counts[offset + serviceType.ordinal()];
+        }
+        long total = 0;
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            total += counts[offset + i];
+        }
+        return total;
+    }
+
+    private static boolean isEmpty(int[] counts) {
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            if (counts[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long cellKey(double lat, double lng) {
+        return key(latIndex(lat), wrapLng(lngIndex(lng)));
+    }
+
+    private int latIndex(double lat) {
+        return (int) Math.floor(lat / cellSizeDeg);
+    }
+
+    private int lngIndex(double lng) {
+        return (int) Math.floor(lng / cellSizeDeg);
+    }
+
+    private int wrapLng(int lngIdx) {
+        return Math.floorMod(lngIdx - minLngIndex, lngCellCount) + minLngIndex;
+    }
+
+    private static long key(int latIdx, int lngIdx) {
+        return ((long) latIdx << 32) | (lngIdx & 0xffffffffL);
+    }
+
+    // Approved and available provider counts for an area
+    public static final class Counts {
+        private final long approved;
+        private final long available;
+
+        Counts(long approved, long available) {
+            this.approved = approved;
+            this.available = available;
+        }
+
+        public long getApproved() {
+            return approved;
+        }
+
+        public long getAvailable() {
+            return available;
+        }
+    }
+
+    // Cell and flags a provider currently contributes to
+    private static final class Placement {
+        private final long cellKey;
+        private final int typeOrdinal;
+        private final boolean available;
+
+        private Placement(long cellKey, int typeOrdinal, boolean available) {
+            this.cellKey = cellKey;
+            this.typeOrdinal = typeOrdinal;
+            this.available = available;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.util.DistanceCalculator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+// In-memory grid index of approved providers, bucketed by service type, for radius searches
+public class ProviderGeoIndex {
+    static final double KM_PER_DEGREE = 111.32;
+    // Per-thread output buffer for the batch distance kernel, grown to the largest cell seen
+    private static final ThreadLocal<double[]> DISTANCE_BUFFER = ThreadLocal.withInitial(() -> new double[256]);
+
+    private final double cellSizeDeg;
+    private final int lngCellCount;
+    private final int minLngIndex;
+    private final Map<ServiceType, Map<Long, Cell>> cellsByType = new EnumMap<>(ServiceType.class);
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public ProviderGeoIndex(@Value("${providers.geo-index.cell-size-deg:0.05}") double cellSizeDeg) {
+        this.cellSizeDeg = cellSizeDeg;
+        this.minLngIndex = (int) Math.floor(-180.0 / cellSizeDeg);
+        this.lngCellCount = (int) Math.ceil(360.0 / cellSizeDeg - 1e-9);
+        for (ServiceType type : ServiceType.values()) {
+            cellsByType.put(type, new HashMap<>());
+        }
+    }
+
+    // True once the index has been populated from the database; callers fall back to SQL before that
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Replaces the whole index content, e.g. on startup
+    public void rebuild(Collection<ProviderSnapshot> snapshots) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            cellsByType.values().forEach(Map::clear);
+            for (ProviderSnapshot snapshot : snapshots) {
+                applyLocked(snapshot);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Inserts, moves or drops a provider depending on its approval status and coordinates
+    public void apply(ProviderSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            applyLocked(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Moves an indexed provider, keeping the rest of its snapshot; returns the moved snapshot,
+    // or null when the provider is not indexed
+    public ProviderSnapshot move(long providerId, double lat, double lng) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(providerId);
+            if (entry == null) {
+                return null;
+            }
+            Cell cell = cellsByType.get(entry.serviceType).get(entry.cellKey);
+            ProviderSnapshot moved = cell.snapshots[entry.slot].withLocation(lat, lng);
+            applyLocked(moved);
+            return moved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long providerId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(providerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns ids of indexed providers within radiusKm; serviceType null means every type
+    public List<Long> findWithinRadius(ServiceType serviceType, double lat, double lng,
+                                       double radiusKm, boolean availableOnly) {
+        List<Long> result = new ArrayList<>();
+        forEachWithinRadius(serviceType, lat, lng, radiusKm, availableOnly,
+                (snapshot, distanceKm) -> result.add(snapshot.getId()));
+        return result;
+    }
+
+    // Hands every indexed provider within radiusKm to the visitor together with its distance
+    public void forEachWithinRadius(ServiceType serviceType, double lat, double lng, double radiusKm,
+                                    boolean availableOnly, NeighborVisitor visitor) {
+        if (Double.isNaN(lat) || Double.isNaN(lng) || Double.isNaN(radiusKm) || radiusKm < 0) {
+            return;
+        }
+
+        double latSpan = Math.min(radiusKm / KM_PER_DEGREE, 180.0);
+        int latLo = latIndex(Math.max(lat - latSpan, -90.0));
+        int latHi = latIndex(Math.min(lat + latSpan, 90.0));
+
+        // Longitude degrees shrink towards the poles, so size the box at its most poleward edge
+        double poleward = Math.min(90.0, Math.max(Math.abs(lat - latSpan), Math.abs(lat + latSpan)));
+        double cos = Math.cos(Math.toRadians(poleward));
+        double lngSpan = cos > 1e-9 ? radiusKm / (KM_PER_DEGREE * cos) : 360.0;
+        boolean allLng = lngSpan >= 180.0;
+        int lngLo = allLng ? minLngIndex : lngIndex(lng - lngSpan);
+        int lngWidth = allLng ? lngCellCount - 1 : lngIndex(lng + lngSpan) - lngLo;
+
+        lock.readLock().lock();
+        try {
+            for (ServiceType type : serviceType != null ? List.of(serviceType) : Arrays.asList(ServiceType.values())) {
+                Map<Long, Cell> cells = cellsByType.get(type);
+                if (cells.isEmpty()) {
+                    continue;
+                }
+                long boxCells = (long) (latHi - latLo + 1) * (lngWidth + 1);
+                if (boxCells > cells.size()) {
+                    // Sparse data: walking the occupied cells is cheaper than probing the whole box
+                    for (Map.Entry<Long, Cell> e : cells.entrySet()) {
+                        int cellLat = (int) (e.getKey() >> 32);
+                        int cellLng = (int) (long) e.getKey();
+                        if (cellLat < latLo || cellLat > latHi) {
+                            continue;
+                        }
+                        if (Math.floorMod(cellLng - lngLo, lngCellCount) > lngWidth) {
+                            continue;
+                        }
+                        e.getValue().visit(lat, lng, radiusKm, availableOnly, visitor);
+                    }
+                } else {
+                    for (int latIdx = latLo; latIdx <= latHi; latIdx++) {
+                        for (int offset = 0; offset <= lngWidth; offset++) {
+                            Cell cell = cells.get(key(latIdx, wrapLng(lngLo + offset)));
+                            if (cell != null) {
+                                cell.visit(lat, lng, radiusKm, availableOnly, visitor);
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns up to k available providers of the type closest to the point, nearest first.
+    // Rings of cells are visited outwards and the walk stops as soon as no unvisited cell can
+    // hold anything closer than the current k-th candidate, so only k results are ever kept.
+    public List<Neighbor> findNearest(ServiceType serviceType, double lat, double lng, int k, double maxRadiusKm) {
+        if (serviceType == null || k <= 0 || Double.isNaN(lat) || Double.isNaN(lng)
+                || Double.isNaN(maxRadiusKm) || maxRadiusKm < 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Neighbor> heap = new PriorityQueue<>(k + 1, FARTHEST_FIRST);
+        int centerLat = latIndex(lat);
+        int centerLng = lngIndex(lng);
+
+        // Smallest possible cell extent between the query and the search limit bounds ring distances from below
+        double poleward = Math.min(89.0, Math.abs(lat) + Math.min(maxRadiusKm / KM_PER_DEGREE, 90.0));
+        double minCellKm = cellSizeDeg * KM_PER_DEGREE * Math.cos(Math.toRadians(poleward));
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Cell> cells = cellsByType.get(serviceType);
+            long probed = 0;
+            for (int ring = 0; ; ring++) {
+                double ringLowerBoundKm = Math.max(0, ring - 1) * minCellKm;
+                if (ringLowerBoundKm > maxRadiusKm) {
+                    break;
+                }
+                if (heap.size() == k && heap.peek().getDistanceKm() <= ringLowerBoundKm) {
+                    break;
+                }
+                long ringCells = ring == 0 ? 1 : 8L * ring;
+                if (probed + ringCells > cells.size() || 2 * ring + 1 > lngCellCount) {
+                    // Sparse data or a ring wrapping the globe: one pass over the occupied cells is cheaper
+                    heap.clear();
+                    for (Cell cell : cells.values()) {
+                        cell.offerNearest(lat, lng, maxRadiusKm, k, heap);
+                    }
+                    break;
+                }
+                probed += ringCells;
+                for (int dLat = -ring; dLat <= ring; dLat++) {
+                    boolean edgeRow = dLat == -ring || dLat == ring;
+                    for (int dLng = -ring; dLng <= ring; dLng += edgeRow ? 1 : 2 * ring) {
+                        Cell cell = cells.get(key(centerLat + dLat, wrapLng(centerLng + dLng)));
+                        if (cell != null) {
+                            cell.offerNearest(lat, lng, maxRadiusKm, k, heap);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Neighbor> result = new ArrayList<>(heap);
+        result.sort(Collections.reverseOrder(FARTHEST_FIRST));
+        return result;
+    }
+
+    private void applyLocked(ProviderSnapshot snapshot) {
+        if (!snapshot.isApproved() || !snapshot.hasLocation() || snapshot.getServiceType() == null) {
+            removeLocked(snapshot.getId());
+            return;
+        }
+        long cellKey = key(latIndex(snapshot.getLat()), wrapLng(lngIndex(snapshot.getLng())));
+        Entry existing = entries.get(snapshot.getId());
+        if (existing != null && existing.serviceType == snapshot.getServiceType() && existing.cellKey == cellKey) {
+            cellsByType.get(existing.serviceType).get(cellKey).set(existing.slot, snapshot);
+            return;
+        }
+        removeLocked(snapshot.getId());
+        Cell cell = cellsByType.get(snapshot.getServiceType()).computeIfAbsent(cellKey, k -> new Cell());
+        int slot = cell.add(snapshot);
+        entries.put(snapshot.getId(), new Entry(snapshot.getServiceType(), cellKey, slot));
+    }
+
+    private void removeLocked(long providerId) {
+        Entry entry = entries.remove(providerId);
+        if (entry == null) {
+            return;
+        }
+        Map<Long, Cell> cells = cellsByType.get(entry.serviceType);
+        Cell cell = cells.get(entry.cellKey);
+        long movedId = cell.removeAt(entry.slot);
+        if (movedId >= 0) {
+            entries.get(movedId).slot = entry.slot;
+        }
+        if (cell.size == 0) {
+            cells.remove(entry.cellKey);
+        }
+    }
+
+    private int latIndex(double lat) {
+        return (int) Math.floor(lat / cellSizeDeg);
+    }
+
+    private int lngIndex(double lng) {
+        return (int) Math.floor(lng / cellSizeDeg);
+    }
+
+    private int wrapLng(int lngIdx) {
+        return Math.floorMod(lngIdx - minLngIndex, lngCellCount) + minLngIndex;
+    }
+
+    private static long key(int latIdx, int lngIdx) {
+        return ((long) latIdx << 32) | (lngIdx & 0xffffffffL);
+    }
+
+    private static double[] distanceBuffer(int size) {
+        double[] buffer = DISTANCE_BUFFER.get();
+        if (buffer.length < size) {
+            buffer = new double[Math.max(size, buffer.length * 2)];
+            DISTANCE_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    // Receives providers matched by a radius query; called under the index read lock
+    @FunctionalInterface
+    public interface NeighborVisitor {
+        void visit(ProviderSnapshot snapshot, double distanceKm);
+    }
+
+    private static final Comparator<Neighbor> FARTHEST_FIRST =
+            Comparator.comparingDouble(Neighbor::getDistanceKm).reversed();
+
+    // Provider id with its distance from the query point
+    public static final class Neighbor {
+        private final long providerId;
+        private final double distanceKm;
+
+        Neighbor(long providerId, double distanceKm) {
+            this.providerId = providerId;
+            this.distanceKm = distanceKm;
+        }
+
+        public long getProviderId() {
+            return providerId;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    // Position of a provider inside the grid, used for O(1) moves and removals
+    private static final class Entry {
+        private final ServiceType serviceType;
+        private final long cellKey;
+        private int slot;
+
+        private Entry(ServiceType serviceType, long cellKey, int slot) {
+            this.serviceType = serviceType;
+            this.cellKey = cellKey;
+            this.slot = slot;
+        }
+    }
+
+    // Column-oriented bucket of providers; removal swaps the last slot into the hole
+    private static final class Cell {
+        private long[] ids = new long[4];
+        private ProviderSnapshot[] snapshots = new ProviderSnapshot[4];
+        private double[] lats = new double[4];
+        private double[] lngs = new double[4];
+        private boolean[] available = new boolean[4];
+        private int size;
+
+        private int add(ProviderSnapshot snapshot) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                snapshots = Arrays.copyOf(snapshots, capacity);
+                lats = Arrays.copyOf(lats, capacity);
+                lngs = Arrays.copyOf(lngs, capacity);
+                available = Arrays.copyOf(available, capacity);
+            }
+            set(size, snapshot);
+            return size++;
+        }
+
+        private void set(int slot, ProviderSnapshot snapshot) {
+            ids[slot] = snapshot.getId();
+            snapshots[slot] = snapshot;
+            lats[slot] = snapshot.getLat();
+            lngs[slot] = snapshot.getLng();
+            available[slot] = snapshot.isAvailable();
+        }
+
+        // Returns the id that was moved into the freed slot, or -1 if the last slot was removed
+        private long removeAt(int slot) {
+            int last = --size;
+            if (slot == last) {
+                return -1;
+            }
+            ids[slot] = ids[last];
+            snapshots[slot] = snapshots[last];
+            snapshots[last] = null;
+            lats[slot] = lats[last];
+            lngs[slot] = lngs[last];
+            available[slot] = available[last];
+            return ids[slot];
+        }
+
+        // Keeps the k closest available providers of this cell in the bounded max-heap
+        private void offerNearest(double lat, double lng, double maxRadiusKm, int k, PriorityQueue<Neighbor> heap) {
+            double[] distances = distanceBuffer(size);
+            if (DistanceCalculator.calculateDistances(lat, lng, lats, lngs, size, distances, maxRadiusKm) == 0) {
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                double distance = distances[i];
+                if (!available[i] || distance > maxRadiusKm) {
+                    continue;
+                }
+                if (heap.size() < k) {
+                    heap.add(new Neighbor(ids[i], distance));
+                } else if (distance < heap.peek().getDistanceKm()) {
+                    heap.poll();
+                    heap.add(new Neighbor(ids[i], distance));
+                }
+            }
+        }
+
+        private void visit(double lat, double lng, double radiusKm, boolean availableOnly, NeighborVisitor visitor) {
+            double[] distances = distanceBuffer(size);
+            if (DistanceCalculator.calculateDistances(lat, lng, lats, lngs, size, distances, radiusKm) == 0) {
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                if (distances[i] <= radiusKm && (!availableOnly || available[i])) {
+                    visitor.visit(snapshots[i], distances[i]);
+                }
+            }
+        }
+    }
+}
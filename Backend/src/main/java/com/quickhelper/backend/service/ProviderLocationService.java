@@ -0,0 +1,119 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ProviderProfile;
+import com.quickhelper.backend.repository.ProviderLocationJdbcRepository;
+import com.quickhelper.backend.repository.ProviderProfileRepository;
+import com.quickhelper.backend.util.DebugUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+// Live provider positions: the latest ping per provider is served from memory and written to the
+// database in periodic batches, so each provider costs at most one row update per flush interval
+public class ProviderLocationService {
+    private final ProviderProfileRepository providerProfileRepository;
+    private final ProviderLocationJdbcRepository providerLocationJdbcRepository;
+    private final ProviderGeoIndex providerGeoIndex;
+    private final ProviderTextIndex providerTextIndex;
+    private final ProviderSearchCache providerSearchCache;
+    private final ProviderDensityGrid densityGrid;
+    private final BookingLocationStreamService bookingLocationStreamService;
+
+    private final Map<Long, LivePosition> latest = new ConcurrentHashMap<>();
+    // Positions not yet written; a newer ping for the same provider replaces the queued one
+    private final Map<Long, LivePosition> pending = new ConcurrentHashMap<>();
+    // Index snapshots moved since the last flush, whose cached searches are dropped once the flush lands
+    private final Map<Long, ProviderSnapshot> movedSinceFlush = new ConcurrentHashMap<>();
+    private final Map<Long, Long> profileIdByUser = new ConcurrentHashMap<>();
+
+    // Records a ping from the authenticated provider user; ignored if the user has no provider profile
+    public void recordForUser(Long userId, Double lat, Double lng) {
+        if (userId == null) {
+            return;
+        }
+        Long profileId = profileIdByUser.computeIfAbsent(userId, id -> providerProfileRepository.findByUserId(id)
+                .map(ProviderProfile::getId)
+                .orElse(null));
+        if (profileId != null) {
+            record(profileId, lat, lng);
+        }
+    }
+
+    // Records the latest position of a provider profile and moves it in the search indexes right away
+    public void record(long profileId, Double lat, Double lng) {
+        if (lat == null || lng == null || !(lat >= -90 && lat <= 90) || !(lng >= -180 && lng <= 180)) {
+            DebugUtil.logWarn("Ignoring invalid live location for provider {}: {}, {}", profileId, lat, lng);
+            return;
+        }
+        LivePosition position = new LivePosition(profileId, lat, lng, System.currentTimeMillis());
+        latest.put(profileId, position);
+        pending.put(profileId, position);
+
+        ProviderSnapshot moved = providerGeoIndex.move(profileId, lat, lng);
+        providerTextIndex.move(profileId, lat, lng);
+        densityGrid.move(profileId, lat, lng);
+        if (moved != null) {
+            movedSinceFlush.put(profileId, moved);
+        }
+        bookingLocationStreamService.onPosition(position);
+    }
+
+    // Latest live position, or null when the provider has not reported one since startup
+    public LivePosition currentPosition(long profileId) {
+        return latest.get(profileId);
+    }
+
+    // Drops the live state after a direct database update so it cannot overwrite that update
+    public void forget(long profileId) {
+        latest.remove(profileId);
+        pending.remove(profileId);
+        movedSinceFlush.remove(profileId);
+    }
+
+    @Scheduled(fixedDelayString = "${providers.location.flush-interval-ms:5000}")
+    // Writes the queued positions in one JDBC batch
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<LivePosition> batch = new ArrayList<>(pending.size());
+        for (Long profileId : pending.keySet()) {
+            LivePosition position = pending.remove(profileId);
+            if (position != null) {
+                batch.add(position);
+            }
+        }
+
+        try {
+            int updated = providerLocationJdbcRepository.batchUpdateLocations(batch);
+            DebugUtil.logDebug("Flushed {} live provider positions ({} rows)", batch.size(), updated);
+        } catch (DataAccessException e) {
+            // Re-queue for the next flush unless a newer ping has arrived meanwhile
+            batch.forEach(position -> pending.putIfAbsent(position.getProviderId(), position));
+            DebugUtil.logError("Failed to flush live provider positions: {}", e.getMessage(), e);
+            return;
+        }
+
+        for (LivePosition position : batch) {
+            ProviderSnapshot moved = movedSinceFlush.remove(position.getProviderId());
+            if (moved != null) {
+                providerSearchCache.invalidate(moved, null);
+            }
+        }
+    }
+
+    @PreDestroy
+    // Persists the last positions on shutdown
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,89 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.RankingWeightsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+// Scores a candidate set and selects the best N with a bounded heap instead of a full sort
+public class ProviderRankingEngine {
+    private final ProviderScoringStage scoringStage;
+
+    // Returns candidate slots of the top results, best first; scores receives every candidate's score
+    public int[] topN(RankingCandidates candidates, RankingWeightsDTO weights, double maxDistanceKm,
+                      int limit, double[] scores) {
+        int n = candidates.size();
+        int k = Math.min(limit, n);
+        if (k <= 0) {
+            return new int[0];
+        }
+        scoringStage.score(candidates, weights, maxDistanceKm, scores);
+
+        // Min-heap of slot indices: the root is the weakest of the current top k
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int i = 0; i < n; i++) {
+            if (heapSize < k) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, candidates, scores);
+            } else if (better(i, heap[0], candidates, scores)) {
+                heap[0] = i;
+                siftDown(heap, heapSize, candidates, scores);
+            }
+        }
+
+        // Drain the heap weakest first, filling the result from the back
+        int[] result = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, candidates, scores);
+        }
+        return result;
+    }
+
+    // Higher score wins; equal scores prefer the closer provider
+    private static boolean better(int a, int b, RankingCandidates candidates, double[] scores) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return candidates.distanceKm(a) < candidates.distanceKm(b);
+    }
+
+    private static void siftUp(int[] heap, int pos, RankingCandidates candidates, double[] scores) {
+        int item = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!better(heap[parent], item, candidates, scores)) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = item;
+    }
+
+    private static void siftDown(int[] heap, int size, RankingCandidates candidates, double[] scores) {
+        if (size == 0) {
+            return;
+        }
+        int pos = 0;
+        int item = heap[0];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && better(heap[child], heap[child + 1], candidates, scores)) {
+                child++;
+            }
+            if (!better(item, heap[child], candidates, scores)) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = item;
+    }
+}
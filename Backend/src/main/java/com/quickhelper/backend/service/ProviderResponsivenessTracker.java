@@ -0,0 +1,50 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+// Keeps a recency-weighted average of how fast each provider accepts booking requests
+public class ProviderResponsivenessTracker {
+    private static final double SMOOTHING = 0.2; // weight of the newest acceptance
+    private static final int WARMUP_DAYS = 30;
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, Double> acceptSecondsByProvider = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    // Seeds the averages from recently accepted bookings
+    public void warmUp() {
+        List<Object[]> rows = bookingRepository.averageAcceptSecondsByProviderSince(
+                LocalDateTime.now().minusDays(WARMUP_DAYS));
+        for (Object[] row : rows) {
+            if (row[0] != null && row[1] != null) {
+                acceptSecondsByProvider.put(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue());
+            }
+        }
+    }
+
+    // Records one acceptance for the provider user
+    public void recordAcceptance(Long providerUserId, double seconds) {
+        if (providerUserId == null || Double.isNaN(seconds) || seconds < 0) {
+            return;
+        }
+        acceptSecondsByProvider.merge(providerUserId, seconds,
+                (previous, latest) -> previous + SMOOTHING * (latest - previous));
+    }
+
+    // Average seconds to accept, or NaN when the provider has no recent acceptances
+    public double averageAcceptSeconds(long providerUserId) {
+        Double seconds = acceptSecondsByProvider.get(providerUserId);
+        return seconds != null ? seconds : Double.NaN;
+    }
+}
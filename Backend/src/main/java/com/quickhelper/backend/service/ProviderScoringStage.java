@@ -0,0 +1,10 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.RankingWeightsDTO;
+
+// Pluggable scoring step of provider ranking; declare another bean as @Primary to replace the default
+public interface ProviderScoringStage {
+
+    // Writes one score per candidate into scores; higher means a better match
+    void score(RankingCandidates candidates, RankingWeightsDTO weights, double maxDistanceKm, double[] scores);
+}
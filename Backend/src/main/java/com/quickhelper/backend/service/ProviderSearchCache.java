@@ -0,0 +1,189 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.ProviderResponseDTO;
+import com.quickhelper.backend.dto.SearchCacheStatsDTO;
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.util.DistanceCalculator;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+@Component
+// Bounded LRU + TTL cache for provider search results, invalidated per provider change after commit
+public class ProviderSearchCache {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final double cellSizeDeg;
+
+    // Access-ordered, so iteration starts at the least recently used entry; guarded by this
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // Bumped by every invalidation so loads that raced with a change are not stored
+    private long version;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    public ProviderSearchCache(@Value("${providers.search-cache.max-entries:500}") int maxEntries,
+                               @Value("${providers.search-cache.ttl-seconds:60}") long ttlSeconds,
+                               @Value("${providers.search-cache.cell-size-deg:0.01}") double cellSizeDeg) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.cellSizeDeg = cellSizeDeg;
+    }
+
+    // Key for city/service-type listings; null service type or city means "any"
+    public Key listingKey(ServiceType serviceType, String city, boolean availableOnly) {
+        return new Key(serviceType, normalizeCity(city), availableOnly, false, 0, 0, 0);
+    }
+
+    // Key for radius searches: the origin is snapped to a coarse cell and the radius widened to cover the
+    // whole cell, so every origin in the cell shares one candidate list that callers filter exactly
+    public Key areaKey(ServiceType serviceType, boolean availableOnly, double lat, double lng, double radiusKm) {
+        double centreLat = Math.min(90.0, (Math.floor(lat / cellSizeDeg) + 0.5) * cellSizeDeg);
+        double centreLng = (Math.floor(lng / cellSizeDeg) + 0.5) * cellSizeDeg;
+        double halfDiagonalKm = DistanceCalculator.calculateDistance(centreLat, centreLng,
+                Math.max(-90.0, centreLat - cellSizeDeg / 2), centreLng - cellSizeDeg / 2);
+        return new Key(serviceType, null, availableOnly, true, centreLat, centreLng, radiusKm + halfDiagonalKm);
+    }
+
+    public static String normalizeCity(String city) {
+        if (city == null || city.trim().isEmpty()) {
+            return null;
+        }
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Returns the cached results for the key, loading and caching them on a miss
+    public List<ProviderResponseDTO> get(Key key, Supplier<List<ProviderResponseDTO>> loader) {
+        long loadVersion;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.currentTimeMillis() - entry.createdAt < ttlMillis) {
+                    hits++;
+                    return entry.results;
+                }
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            loadVersion = version;
+        }
+
+        List<ProviderResponseDTO> results = List.copyOf(loader.get());
+        Set<Long> providerIds = new HashSet<>();
+        for (ProviderResponseDTO dto : results) {
+            providerIds.add(dto.getId());
+        }
+
+        synchronized (this) {
+            if (loadVersion == version) {
+                entries.put(key, new Entry(results, providerIds, System.currentTimeMillis()));
+                Iterator<Entry> eldest = entries.values().iterator();
+                while (entries.size() > maxEntries && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                    evictions++;
+                }
+            }
+        }
+        return results;
+    }
+
+    // Drops the entries a provider change can affect: those listing the provider, and those whose
+    // filter matches its new state; call after the change has committed
+    public synchronized void invalidate(ProviderSnapshot provider, String city) {
+        version++;
+        String normalizedCity = normalizeCity(city);
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> entry = it.next();
+            if (entry.getValue().providerIds.contains(provider.getId())
+                    || entry.getKey().matches(provider, normalizedCity)) {
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        version++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    public synchronized SearchCacheStatsDTO stats() {
+        long lookups = hits + misses;
+        return new SearchCacheStatsDTO(
+                entries.size(),
+                maxEntries,
+                hits,
+                misses,
+                lookups > 0 ? (double) hits / lookups : 0.0,
+                lookups > 0 ? (double) misses / lookups : 0.0,
+                evictions,
+                expirations,
+                invalidations
+        );
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    public static final class Key {
+        private final ServiceType serviceType;
+        private final String city;
+        private final boolean availableOnly;
+        private final boolean area;
+        private final double centreLat;
+        private final double centreLng;
+        private final double searchRadiusKm;
+
+        private Key(ServiceType serviceType, String city, boolean availableOnly, boolean area,
+                    double centreLat, double centreLng, double searchRadiusKm) {
+            this.serviceType = serviceType;
+            this.city = city;
+            this.availableOnly = availableOnly;
+            this.area = area;
+            this.centreLat = centreLat;
+            this.centreLng = centreLng;
+            this.searchRadiusKm = searchRadiusKm;
+        }
+
+        // True when a provider in this state belongs in the results for this key
+        boolean matches(ProviderSnapshot provider, String normalizedCity) {
+            if (!provider.isApproved()
+                    || (availableOnly && !provider.isAvailable())
+                    || (serviceType != null && serviceType != provider.getServiceType())
+                    || (city != null && !city.equals(normalizedCity))) {
+                return false;
+            }
+            return !area || (provider.hasLocation() && DistanceCalculator.calculateDistance(
+                    centreLat, centreLng, provider.getLat(), provider.getLng()) <= searchRadiusKm);
+        }
+    }
+
+    private static final class Entry {
+        private final List<ProviderResponseDTO> results;
+        private final Set<Long> providerIds;
+        private final long createdAt;
+
+        private Entry(List<ProviderResponseDTO> results, Set<Long> providerIds, long createdAt) {
+            this.results = results;
+            this.providerIds = providerIds;
+            this.createdAt = createdAt;
+        }
+    }
+}
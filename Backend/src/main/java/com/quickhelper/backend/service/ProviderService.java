@@ -9,18 +9,32 @@ import com.quickhelper.backend.model.UserRole;
 import com.quickhelper.backend.model.ProfileStatus;
 import com.quickhelper.backend.repository.ProviderProfileRepository;
 import com.quickhelper.backend.repository.UserRepository;
+import com.quickhelper.backend.util.BoundingBox;
+import com.quickhelper.backend.util.DebugUtil;
 import com.quickhelper.backend.util.DistanceCalculator;
+import com.quickhelper.backend.util.TransactionUtil;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 
 @Service
 public class ProviderService {
+    private static final int ID_BATCH_SIZE = 1000;
 
     @Autowired
     private ProviderProfileRepository providerProfileRepository;
@@ -31,6 +45,52 @@ public class ProviderService {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private ProviderGeoIndex providerGeoIndex;
+
+    @Autowired
+    private ProviderSearchCache providerSearchCache;
+
+    @Autowired
+    private ProviderTextIndex providerTextIndex;
+
+    @Autowired
+    private ProviderLocationService providerLocationService;
+
+    @Autowired
+    private ProviderAvailabilityRegistry availabilityRegistry;
+
+    @Autowired
+    private ProviderDensityGrid densityGrid;
+
+    @Autowired
+    private PlatformStatsService platformStatsService;
+
+    @Autowired
+    private ProviderRankingEngine providerRankingEngine;
+
+    @Autowired
+    private ProviderResponsivenessTracker responsivenessTracker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    // Loads approved providers into the in-memory search index once the app is up
+    public void warmSearchIndexes() {
+        List<ProviderProfile> approved = providerProfileRepository.findByProfileStatus(ProfileStatus.APPROVED);
+        List<ProviderTextIndex.Document> documents = approved.stream()
+                .map(p -> textDocument(p, ProviderSnapshot.of(p)))
+                .collect(Collectors.toList());
+        List<ProviderSnapshot> snapshots = documents.stream().map(ProviderTextIndex.Document::getSnapshot).collect(Collectors.toList());
+        Map<Long, String> cityByUser = new HashMap<>();
+        approved.forEach(p -> cityByUser.put(p.getUser().getId(), p.getUser().getCity()));
+        availabilityRegistry.rebuild(snapshots, cityByUser);
+        densityGrid.rebuild(snapshots);
+        providerGeoIndex.rebuild(snapshots);
+        providerTextIndex.rebuild(documents);
+        DebugUtil.logInfo("Provider availability registry built with {} providers", availabilityRegistry.size());
+        DebugUtil.logInfo("Provider geo index built with {} providers", providerGeoIndex.size());
+        DebugUtil.logInfo("Provider text index built with {} providers", providerTextIndex.size());
+    }
+
     @Transactional
     // Creates a provider profile for a given user (must have PROVIDER role)
     public ProviderResponseDTO createProviderProfile(Long userId, ProviderCreateRequestDTO request) {
@@ -119,6 +179,7 @@ public class ProviderService {
         profile.setRejectionReason(null); // Clear previous rejection reason on update
 
         ProviderProfile updated = providerProfileRepository.save(profile);
+        syncSearchIndexes(updated);
         return mapToProviderResponseDTO(updated);
     }
 
@@ -129,6 +190,7 @@ public class ProviderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Provider profile not found with id: " + profileId));
 
         validateProfileCompleteness(profile);
+        boolean wasApproved = Boolean.TRUE.equals(profile.getIsApproved());
 
         profile.setProfileStatus(ProfileStatus.PENDING_APPROVAL);
         profile.setIsApproved(false);
@@ -136,6 +198,8 @@ public class ProviderService {
         profile.setRejectionReason(null);
 
         ProviderProfile updated = providerProfileRepository.save(profile);
+        trackApprovalChange(wasApproved, updated);
+        syncSearchIndexes(updated);
         return mapToProviderResponseDTO(updated);
     }
 
@@ -208,7 +272,7 @@ public class ProviderService {
 
     // Admin: list providers awaiting approval
     public List<ProviderResponseDTO> listPendingProviders() {
-        return providerProfileRepository.findByProfileStatus(ProfileStatus.PENDING_APPROVAL)
+        return providerProfileRepository.findListingByProfileStatus(ProfileStatus.PENDING_APPROVAL)
                 .stream()
                 .map(this::mapToProviderResponseDTO)
                 .collect(Collectors.toList());
@@ -221,11 +285,14 @@ public class ProviderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Provider profile not found with id: " + profileId));
 
         validateProfileCompleteness(profile);
+        boolean wasApproved = Boolean.TRUE.equals(profile.getIsApproved());
 
         profile.setProfileStatus(ProfileStatus.APPROVED);
         profile.setIsApproved(true);
         profile.setRejectionReason(null);
         ProviderProfile updated = providerProfileRepository.save(profile);
+        trackApprovalChange(wasApproved, updated);
+        syncSearchIndexes(updated);
         return mapToProviderResponseDTO(updated);
     }
 
@@ -235,15 +302,27 @@ public class ProviderService {
         ProviderProfile profile = providerProfileRepository.findById(profileId)
                 .orElseThrow(() -> new ResourceNotFoundException("Provider profile not found with id: " + profileId));
 
+        boolean wasApproved = Boolean.TRUE.equals(profile.getIsApproved());
+
         profile.setProfileStatus(ProfileStatus.REJECTED);
         profile.setIsApproved(false);
         profile.setIsAvailable(false);
         profile.setRejectionReason(reason);
 
         ProviderProfile updated = providerProfileRepository.save(profile);
+        trackApprovalChange(wasApproved, updated);
+        syncSearchIndexes(updated);
         return mapToProviderResponseDTO(updated);
     }
 
+    // Adjusts the platform's approved provider count once the change commits
+    private void trackApprovalChange(boolean wasApproved, ProviderProfile profile) {
+        boolean approved = Boolean.TRUE.equals(profile.getIsApproved());
+        if (approved != wasApproved) {
+            TransactionUtil.afterCommit(() -> platformStatsService.onProviderApprovalChanged(approved));
+        }
+    }
+
     private void validateProfileCompleteness(ProviderProfile profile) {
         if (profile.getServiceType() == null ||
                 profile.getDescription() == null || profile.getDescription().isBlank() ||
@@ -257,123 +336,331 @@ public class ProviderService {
 
     // Returns all providers, optionally filtered by city
     public List<ProviderResponseDTO> getAllProviders(String city) {
+        return providerSearchCache.get(providerSearchCache.listingKey(null, city, false), () -> loadAllProviders(city));
+    }
+
+    private List<ProviderResponseDTO> loadAllProviders(String city) {
+        if (availabilityRegistry.isReady()) {
+            return mapProfiles(availabilityRegistry.candidates(null, city, false));
+        }
+        String normalizedCity = ProviderSearchCache.normalizeCity(city);
         List<ProviderProfile> profiles;
-        if (city != null && !city.trim().isEmpty()) {
-            System.out.println("Getting approved providers for city: " + city);
-            profiles = providerProfileRepository.findByUserCity(city);
+        if (normalizedCity != null) {
+            DebugUtil.logDebug("Getting approved providers for city: {}", city);
+            profiles = providerProfileRepository.findListingByUserCity(normalizedCity, ProfileStatus.APPROVED);
         } else {
-            System.out.println("Getting all approved providers");
-            profiles = providerProfileRepository.findAll();
+            DebugUtil.logDebug("Getting all approved providers");
+            profiles = providerProfileRepository.findListingByProfileStatus(ProfileStatus.APPROVED);
         }
-        System.out.println("Found " + profiles.size() + " providers");
+        DebugUtil.logDebug("Found {} providers", profiles.size());
         return profiles.stream()
-                .filter(p -> p.getProfileStatus() == ProfileStatus.APPROVED)
                 .map(this::mapToProviderResponseDTO)
                 .collect(Collectors.toList());
     }
 
     // Returns all providers within a specified distance from user coordinates
     public List<ProviderResponseDTO> getAllProvidersWithinDistance(Double userLat, Double userLng, Double maxDistanceKm) {
-        System.out.println("getAllProvidersWithinDistance called with: userLat=" + userLat + 
-                          ", userLng=" + userLng + ", maxDistanceKm=" + maxDistanceKm);
+        DebugUtil.logDebug("getAllProvidersWithinDistance called with: userLat={}, userLng={}, maxDistanceKm={}",
+                userLat, userLng, maxDistanceKm);
         
         // Validate inputs
         if (userLat == null || userLng == null || maxDistanceKm == null) {
-            System.out.println("Invalid input: null parameter detected");
+            DebugUtil.logDebug("Invalid input: null parameter detected");
             return new ArrayList<>(); // Return empty list
         }
         
         if (Double.isNaN(userLat) || Double.isNaN(userLng) || Double.isNaN(maxDistanceKm)) {
-            System.out.println("Invalid input: NaN detected");
+            DebugUtil.logDebug("Invalid input: NaN detected");
             return new ArrayList<>(); // Return empty list
         }
         
         if (Double.isInfinite(userLat) || Double.isInfinite(userLng) || Double.isInfinite(maxDistanceKm)) {
-            System.out.println("Invalid input: Infinite value detected");
+            DebugUtil.logDebug("Invalid input: Infinite value detected");
             return new ArrayList<>(); // Return empty list
         }
-        
-        List<ProviderProfile> profiles = providerProfileRepository.findAll();
-        System.out.println("Total providers in database: " + profiles.size());
-        
-        List<ProviderResponseDTO> result = profiles.stream()
-                .filter(p -> p.getProfileStatus() == ProfileStatus.APPROVED)
-                .filter(profile -> profile.getLocationLat() != null && profile.getLocationLng() != null)
-                .filter(profile -> {
-                    double distance = DistanceCalculator.calculateDistance(
-                            userLat, userLng, 
-                            profile.getLocationLat(), profile.getLocationLng());
-                    System.out.println("Provider " + profile.getId() + " distance: " + distance + " km");
-                    return distance <= maxDistanceKm;
-                })
-                .map(this::mapToProviderResponseDTO)
-                .collect(Collectors.toList());
-                
-        System.out.println("Providers within distance: " + result.size());
+
+        List<ProviderResponseDTO> result = searchWithinDistance(null, false, userLat, userLng, maxDistanceKm);
+        DebugUtil.logDebug("Providers within distance: {}", result.size());
         return result;
     }
 
     // Returns only available providers for a service type (optional city)
     public List<ProviderResponseDTO> getAvailableProviders(com.quickhelper.backend.model.ServiceType serviceType, String city) {
+        return providerSearchCache.get(providerSearchCache.listingKey(serviceType, city, true),
+                () -> loadAvailableProviders(serviceType, city));
+    }
+
+    private List<ProviderResponseDTO> loadAvailableProviders(ServiceType serviceType, String city) {
+        if (availabilityRegistry.isReady()) {
+            return mapProfiles(availabilityRegistry.candidates(serviceType, city, true));
+        }
+        String normalizedCity = ProviderSearchCache.normalizeCity(city);
         List<ProviderProfile> profiles;
-        if (city != null && !city.trim().isEmpty()) {
-            System.out.println("Getting available providers for service " + serviceType + " in city: " + city);
+        if (normalizedCity != null) {
+            DebugUtil.logDebug("Getting available providers for service {} in city: {}", serviceType, city);
             profiles = providerProfileRepository
-                    .findByUserCityAndServiceTypeAndIsAvailableTrue(city, serviceType);
+                    .findAvailableListingByUserCityAndServiceType(normalizedCity, serviceType, ProfileStatus.APPROVED);
         } else {
-            System.out.println("Getting all available providers for service: " + serviceType);
+            DebugUtil.logDebug("Getting all available providers for service: {}", serviceType);
             profiles = providerProfileRepository
-                    .findByServiceTypeAndIsAvailableTrue(serviceType);
+                    .findAvailableListingByServiceType(serviceType, ProfileStatus.APPROVED);
         }
-        System.out.println("Found " + profiles.size() + " available providers");
+        DebugUtil.logDebug("Found {} available providers", profiles.size());
         return profiles.stream()
-                .filter(p -> p.getProfileStatus() == ProfileStatus.APPROVED)
                 .map(this::mapToProviderResponseDTO)
                 .collect(Collectors.toList());
     }
 
     // Returns only available providers for a service type within a specified distance
     public List<ProviderResponseDTO> getAvailableProvidersWithinDistance(com.quickhelper.backend.model.ServiceType serviceType, Double userLat, Double userLng, Double maxDistanceKm) {
-        System.out.println("getAvailableProvidersWithinDistance called with: serviceType=" + serviceType +
-                          ", userLat=" + userLat + ", userLng=" + userLng + ", maxDistanceKm=" + maxDistanceKm);
+        DebugUtil.logDebug("getAvailableProvidersWithinDistance called with: serviceType={}, userLat={}, userLng={}, maxDistanceKm={}",
+                serviceType, userLat, userLng, maxDistanceKm);
         
         // Validate inputs
         if (userLat == null || userLng == null || maxDistanceKm == null) {
-            System.out.println("Invalid input: null parameter detected");
+            DebugUtil.logDebug("Invalid input: null parameter detected");
             return new ArrayList<>(); // Return empty list
         }
         
         if (Double.isNaN(userLat) || Double.isNaN(userLng) || Double.isNaN(maxDistanceKm)) {
-            System.out.println("Invalid input: NaN detected");
+            DebugUtil.logDebug("Invalid input: NaN detected");
             return new ArrayList<>(); // Return empty list
         }
         
         if (Double.isInfinite(userLat) || Double.isInfinite(userLng) || Double.isInfinite(maxDistanceKm)) {
-            System.out.println("Invalid input: Infinite value detected");
+            DebugUtil.logDebug("Invalid input: Infinite value detected");
             return new ArrayList<>(); // Return empty list
         }
         
-        List<ProviderProfile> profiles = providerProfileRepository
-                .findByServiceTypeAndIsAvailableTrue(serviceType);
-        System.out.println("Available providers for service " + serviceType + ": " + profiles.size());
-        
-        List<ProviderResponseDTO> result = profiles.stream()
-                .filter(p -> p.getProfileStatus() == ProfileStatus.APPROVED)
+        List<ProviderResponseDTO> result = searchWithinDistance(serviceType, true, userLat, userLng, maxDistanceKm);
+        DebugUtil.logDebug("Available providers within distance: {}", result.size());
+        return result;
+    }
+
+    // Serves a radius search from the coarse-cell cache entry, then applies the exact radius
+    private List<ProviderResponseDTO> searchWithinDistance(ServiceType serviceType, boolean availableOnly,
+                                                           double userLat, double userLng, double maxDistanceKm) {
+        ProviderSearchCache.Key key = providerSearchCache.areaKey(serviceType, availableOnly, userLat, userLng, maxDistanceKm);
+        List<ProviderResponseDTO> candidates = providerSearchCache.get(key, () -> loadWithinDistance(
+                serviceType, availableOnly, key.getCentreLat(), key.getCentreLng(), key.getSearchRadiusKm()));
+        return candidates.stream()
+                .filter(dto -> DistanceCalculator.calculateDistance(
+                        userLat, userLng, dto.getLocationLat(), dto.getLocationLng()) <= maxDistanceKm)
+                .collect(Collectors.toList());
+    }
+
+    // serviceType == null searches every approved provider regardless of availability
+    private List<ProviderResponseDTO> loadWithinDistance(ServiceType serviceType, boolean availableOnly,
+                                                         double lat, double lng, double radiusKm) {
+        if (providerGeoIndex.isReady()) {
+            List<Long> ids = providerGeoIndex.findWithinRadius(serviceType, lat, lng, radiusKm, availableOnly);
+            DebugUtil.logDebug("Providers within distance (geo index): {}", ids.size());
+            return mapProfiles(ids);
+        }
+
+        BoundingBox box = BoundingBox.around(lat, lng, radiusKm);
+        List<ProviderProfile> profiles = serviceType == null
+                ? providerProfileRepository.findByProfileStatusWithinBox(
+                        ProfileStatus.APPROVED, box.getMinLat(), box.getMaxLat(), box.getMinLng(), box.getMaxLng())
+                : providerProfileRepository.findAvailableByServiceTypeWithinBox(
+                        serviceType, ProfileStatus.APPROVED, box.getMinLat(), box.getMaxLat(), box.getMinLng(), box.getMaxLng());
+        DebugUtil.logDebug("Providers inside bounding box: {}", profiles.size());
+
+        return profiles.stream()
                 .filter(profile -> profile.getLocationLat() != null && profile.getLocationLng() != null)
-                .filter(profile -> {
-                    double distance = DistanceCalculator.calculateDistance(
-                            userLat, userLng,
-                            profile.getLocationLat(), profile.getLocationLng());
-                    System.out.println("Provider " + profile.getId() + " distance: " + distance + " km");
-                    return distance <= maxDistanceKm;
-                })
+                .filter(profile -> DistanceCalculator.calculateDistance(
+                        lat, lng, profile.getLocationLat(), profile.getLocationLng()) <= radiusKm)
                 .map(this::mapToProviderResponseDTO)
                 .collect(Collectors.toList());
-                
-        System.out.println("Available providers within distance: " + result.size());
+    }
+
+    // Returns the K nearest approved, available providers of a service type, closest first
+    public List<ProviderResponseDTO> getNearestAvailableProviders(ServiceType serviceType, Double userLat, Double userLng,
+                                                                  int limit, Double maxDistanceKm) {
+        if (serviceType == null || userLat == null || userLng == null || maxDistanceKm == null || limit <= 0
+                || !Double.isFinite(userLat) || !Double.isFinite(userLng) || Double.isNaN(maxDistanceKm)) {
+            return new ArrayList<>();
+        }
+
+        if (noneAvailable(serviceType)) {
+            return new ArrayList<>();
+        }
+
+        List<ProviderGeoIndex.Neighbor> nearest;
+        if (providerGeoIndex.isReady()) {
+            nearest = providerGeoIndex.findNearest(serviceType, userLat, userLng, limit, maxDistanceKm);
+        } else {
+            nearest = nearestFromDatabase(serviceType, userLat, userLng, limit, maxDistanceKm);
+        }
+        if (nearest.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, ProviderProfile> profiles = new HashMap<>();
+        providerProfileRepository.findListingByIdIn(nearest.stream().map(ProviderGeoIndex.Neighbor::getProviderId).toList())
+                .forEach(p -> profiles.put(p.getId(), p));
+        List<ProviderResponseDTO> result = new ArrayList<>(nearest.size());
+        for (ProviderGeoIndex.Neighbor neighbor : nearest) {
+            ProviderProfile profile = profiles.get(neighbor.getProviderId());
+            if (profile == null || profile.getProfileStatus() != ProfileStatus.APPROVED) {
+                continue;
+            }
+            ProviderResponseDTO dto = mapToProviderResponseDTO(profile);
+            dto.setDistanceKm(neighbor.getDistanceKm());
+            result.add(dto);
+        }
         return result;
     }
 
+    // Returns the best N available providers of a service type within range, scored with per-request weights
+    public List<ProviderResponseDTO> getRankedProviders(ServiceType serviceType, Double userLat, Double userLng,
+                                                        Double maxDistanceKm, int limit, RankingWeightsDTO weights) {
+        if (serviceType == null || userLat == null || userLng == null || maxDistanceKm == null || limit <= 0
+                || !Double.isFinite(userLat) || !Double.isFinite(userLng) || Double.isNaN(maxDistanceKm)) {
+            return new ArrayList<>();
+        }
+
+        if (noneAvailable(serviceType)) {
+            return new ArrayList<>();
+        }
+
+        RankingCandidates candidates = new RankingCandidates(64);
+        if (providerGeoIndex.isReady()) {
+            providerGeoIndex.forEachWithinRadius(serviceType, userLat, userLng, maxDistanceKm, true,
+                    (snapshot, distanceKm) -> candidates.add(snapshot, distanceKm,
+                            responsivenessTracker.averageAcceptSeconds(snapshot.getUserId())));
+        } else {
+            BoundingBox box = BoundingBox.around(userLat, userLng, maxDistanceKm);
+            for (ProviderProfile profile : providerProfileRepository.findAvailableByServiceTypeWithinBox(
+                    serviceType, ProfileStatus.APPROVED, box.getMinLat(), box.getMaxLat(), box.getMinLng(), box.getMaxLng())) {
+                double distance = DistanceCalculator.calculateDistance(
+                        userLat, userLng, profile.getLocationLat(), profile.getLocationLng());
+                if (distance <= maxDistanceKm) {
+                    ProviderSnapshot snapshot = ProviderSnapshot.of(profile);
+                    candidates.add(snapshot, distance, responsivenessTracker.averageAcceptSeconds(snapshot.getUserId()));
+                }
+            }
+        }
+
+        double[] scores = new double[candidates.size()];
+        int[] top = providerRankingEngine.topN(candidates, weights, maxDistanceKm, limit, scores);
+        if (top.length == 0) {
+            return new ArrayList<>();
+        }
+
+        List<Long> ids = new ArrayList<>(top.length);
+        for (int slot : top) {
+            ids.add(candidates.providerId(slot));
+        }
+        Map<Long, ProviderProfile> profiles = new HashMap<>();
+        providerProfileRepository.findListingByIdIn(ids).forEach(p -> profiles.put(p.getId(), p));
+
+        List<ProviderResponseDTO> result = new ArrayList<>(top.length);
+        for (int slot : top) {
+            ProviderProfile profile = profiles.get(candidates.providerId(slot));
+            if (profile == null || profile.getProfileStatus() != ProfileStatus.APPROVED) {
+                continue;
+            }
+            ProviderResponseDTO dto = mapToProviderResponseDTO(profile);
+            dto.setDistanceKm(candidates.distanceKm(slot));
+            dto.setRankScore(scores[slot]);
+            result.add(dto);
+        }
+        return result;
+    }
+
+    // Full-text search over display name, tagline and description, best matches first; the
+    // service type, availability and distance filters are optional
+    public List<ProviderResponseDTO> searchProviders(String query, ServiceType serviceType, boolean availableOnly,
+                                                     Double userLat, Double userLng, Double maxDistanceKm, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (userLat != null && userLng != null && maxDistanceKm != null
+                && (!Double.isFinite(userLat) || !Double.isFinite(userLng) || Double.isNaN(maxDistanceKm))) {
+            return new ArrayList<>();
+        }
+
+        if (!providerTextIndex.isReady()) {
+            return searchProvidersInDatabase(query, serviceType, availableOnly, userLat, userLng, maxDistanceKm, limit);
+        }
+
+        List<ProviderTextIndex.Hit> hits = providerTextIndex.search(
+                query, serviceType, availableOnly, userLat, userLng, maxDistanceKm, limit);
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProviderProfile> profiles = new HashMap<>();
+        providerProfileRepository.findListingByIdIn(hits.stream().map(ProviderTextIndex.Hit::getProviderId).toList())
+                .forEach(p -> profiles.put(p.getId(), p));
+        List<ProviderResponseDTO> result = new ArrayList<>(hits.size());
+        for (ProviderTextIndex.Hit hit : hits) {
+            ProviderProfile profile = profiles.get(hit.getProviderId());
+            if (profile == null || profile.getProfileStatus() != ProfileStatus.APPROVED) {
+                continue;
+            }
+            ProviderResponseDTO dto = mapToProviderResponseDTO(profile);
+            dto.setDistanceKm(hit.getDistanceKm());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    // Substring scan used only until the text index is warm
+    private List<ProviderResponseDTO> searchProvidersInDatabase(String query, ServiceType serviceType, boolean availableOnly,
+                                                                Double userLat, Double userLng, Double maxDistanceKm, int limit) {
+        boolean geo = userLat != null && userLng != null && maxDistanceKm != null;
+        String pattern = "%" + query.trim().toLowerCase(Locale.ROOT) + "%";
+        List<ProviderResponseDTO> result = new ArrayList<>();
+        for (ProviderProfile profile : providerProfileRepository.findListingByTextLike(ProfileStatus.APPROVED, pattern)) {
+            if ((serviceType != null && profile.getServiceType() != serviceType)
+                    || (availableOnly && !Boolean.TRUE.equals(profile.getIsAvailable()))) {
+                continue;
+            }
+            ProviderResponseDTO dto = mapToProviderResponseDTO(profile);
+            if (geo) {
+                if (profile.getLocationLat() == null || profile.getLocationLng() == null) {
+                    continue;
+                }
+                double distance = DistanceCalculator.calculateDistance(
+                        userLat, userLng, profile.getLocationLat(), profile.getLocationLng());
+                if (distance > maxDistanceKm) {
+                    continue;
+                }
+                dto.setDistanceKm(distance);
+            }
+            result.add(dto);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // Bounded top-K over the database rows, used only until the geo index is warm
+    private List<ProviderGeoIndex.Neighbor> nearestFromDatabase(ServiceType serviceType, double userLat, double userLng,
+                                                                int limit, double maxDistanceKm) {
+        PriorityQueue<ProviderGeoIndex.Neighbor> heap = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(ProviderGeoIndex.Neighbor::getDistanceKm).reversed());
+        BoundingBox box = BoundingBox.around(userLat, userLng, maxDistanceKm);
+        List<ProviderProfile> candidates = providerProfileRepository.findAvailableByServiceTypeWithinBox(
+                serviceType, ProfileStatus.APPROVED, box.getMinLat(), box.getMaxLat(), box.getMinLng(), box.getMaxLng());
+        for (ProviderProfile profile : candidates) {
+            double distance = DistanceCalculator.calculateDistance(
+                    userLat, userLng, profile.getLocationLat(), profile.getLocationLng());
+            if (distance > maxDistanceKm) {
+                continue;
+            }
+            heap.add(new ProviderGeoIndex.Neighbor(profile.getId(), distance));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<ProviderGeoIndex.Neighbor> nearest = new ArrayList<>(heap);
+        nearest.sort(Comparator.comparingDouble(ProviderGeoIndex.Neighbor::getDistanceKm));
+        return nearest;
+    }
+
     // Fetches a provider profile by id
     public ProviderResponseDTO getProviderById(Long id) {
         ProviderProfile profile = providerProfileRepository.findById(id)
@@ -405,7 +692,9 @@ public class ProviderService {
         }
 
         profile.setIsAvailable(request.getIsAvailable());
+        providerProfileRepository.clearCapacityPause(id); // the provider's own choice wins over a capacity pause
         ProviderProfile updated = providerProfileRepository.save(profile);
+        syncSearchIndexes(updated);
         return mapToProviderResponseDTO(updated);
     }
 
@@ -417,9 +706,60 @@ public class ProviderService {
         profile.setLocationLat(request.getLocationLat());
         profile.setLocationLng(request.getLocationLng());
         ProviderProfile updated = providerProfileRepository.save(profile);
+        TransactionUtil.afterCommit(() -> providerLocationService.forget(id));
+        syncSearchIndexes(updated);
         return mapToProviderResponseDTO(updated);
     }
 
+    // Current position of a provider: the live ping if one arrived since startup, otherwise the stored profile
+    public ProviderLocationDTO getCurrentLocation(Long id) {
+        LivePosition live = providerLocationService.currentPosition(id);
+        if (live != null) {
+            LocalDateTime reportedAt = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(live.getReportedAtMillis()), ZoneId.systemDefault());
+            return new ProviderLocationDTO(id, live.getLat(), live.getLng(), true, reportedAt);
+        }
+        ProviderProfile profile = providerProfileRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Provider profile not found with id: " + id));
+        return new ProviderLocationDTO(id, profile.getLocationLat(), profile.getLocationLng(), false, null);
+    }
+
+    // Skips the geo and ranking stages when the registry already knows nobody of the type is available
+    private boolean noneAvailable(ServiceType serviceType) {
+        return availabilityRegistry.isReady() && availabilityRegistry.count(serviceType, null, true) == 0;
+    }
+
+    // Loads the given profiles by id and maps them, skipping rows deleted since indexing
+    private List<ProviderResponseDTO> mapProfiles(List<Long> ids) {
+        List<ProviderResponseDTO> result = new ArrayList<>(ids.size());
+        // Chunked to stay well inside the bind parameter limit for large listings
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            providerProfileRepository.findListingByIdIn(ids.subList(from, Math.min(ids.size(), from + ID_BATCH_SIZE))).stream()
+                    .filter(p -> p.getProfileStatus() == ProfileStatus.APPROVED)
+                    .map(this::mapToProviderResponseDTO)
+                    .forEach(result::add);
+        }
+        return result;
+    }
+
+    // Pushes the committed state of a profile into the in-memory search index and drops affected cached searches
+    public void syncSearchIndexes(ProviderProfile profile) {
+        ProviderSnapshot snapshot = ProviderSnapshot.of(profile);
+        ProviderTextIndex.Document document = textDocument(profile, snapshot);
+        String city = profile.getUser().getCity();
+        TransactionUtil.afterCommit(() -> {
+            availabilityRegistry.apply(snapshot, city);
+            densityGrid.apply(snapshot);
+            providerGeoIndex.apply(snapshot);
+            providerTextIndex.apply(document);
+            providerSearchCache.invalidate(snapshot, city);
+        });
+    }
+
+    private static ProviderTextIndex.Document textDocument(ProviderProfile profile, ProviderSnapshot snapshot) {
+        return new ProviderTextIndex.Document(snapshot, profile.getDisplayName(), profile.getTagline(), profile.getDescription());
+    }
+
     private ProviderResponseDTO mapToProviderResponseDTO(ProviderProfile profile) {
         ProviderResponseDTO dto = new ProviderResponseDTO(
                 profile.getId(),
@@ -441,7 +781,8 @@ public class ProviderService {
                 profile.getProfilePhotoUrl(),
                 profile.getTagline()
         );
-        dto.setPortfolioImages(profile.getPortfolioImages());
+        // Copy so cached DTOs do not hold on to the persistence context's collection
+        dto.setPortfolioImages(profile.getPortfolioImages() != null ? new ArrayList<>(profile.getPortfolioImages()) : null);
         
         // Set user information for display
         ProviderResponseDTO.UserInfo userInfo = new ProviderResponseDTO.UserInfo(
@@ -449,6 +790,13 @@ public class ProviderService {
                 profile.getUser().getCity()
         );
         dto.setUser(userInfo);
+
+        // Live pings reach the database only on the next flush, so prefer the in-memory position
+        LivePosition live = providerLocationService.currentPosition(profile.getId());
+        if (live != null) {
+            dto.setLocationLat(live.getLat());
+            dto.setLocationLng(live.getLng());
+        }
         
         return dto;
     }
@@ -0,0 +1,142 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.TimeSlotDTO;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+// Booked slots of each provider, keyed by start. A provider's slots never overlap, so ordering them by start
+// orders them by end as well: the only slot that can overlap [start, end) is the last one starting before end.
+// That makes a conflict check one TreeMap lookup and a free-slot query O(log n + slots in the window)
+public class ProviderSlotIndex {
+    private volatile Map<Long, ProviderSlots> byProvider = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // True once populated from the database; callers query SQL before that
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ProviderSlots slots : byProvider.values()) {
+            synchronized (slots) {
+                size += slots.byStart.size();
+            }
+        }
+        return size;
+    }
+
+    // Replaces the whole index content, e.g. on startup or reconcile
+    public void rebuild(Collection<BookedSlot> slots) {
+        Map<Long, ProviderSlots> fresh = new ConcurrentHashMap<>();
+        for (BookedSlot slot : slots) {
+            fresh.computeIfAbsent(slot.getProviderUserId(), id -> new ProviderSlots()).put(slot);
+        }
+        byProvider = fresh;
+        ready = true;
+    }
+
+    // Adds a committed slot. Committed slots cannot overlap, so any slot it overlaps is stale (its release was
+    // missed) and is dropped to keep the single-neighbour conflict check valid
+    public void add(BookedSlot slot) {
+        byProvider.compute(slot.getProviderUserId(), (id, slots) -> {
+            ProviderSlots target = slots != null ? slots : new ProviderSlots();
+            synchronized (target) {
+                target.put(slot);
+            }
+            return target;
+        });
+    }
+
+    public void remove(long providerUserId, long bookingId) {
+        byProvider.computeIfPresent(providerUserId, (id, slots) -> {
+            synchronized (slots) {
+                slots.remove(bookingId);
+                return slots.byStart.isEmpty() ? null : slots;
+            }
+        });
+    }
+
+    public boolean conflicts(long providerUserId, LocalDateTime start, LocalDateTime end) {
+        ProviderSlots slots = byProvider.get(providerUserId);
+        if (slots == null) {
+            return false;
+        }
+        synchronized (slots) {
+            Map.Entry<LocalDateTime, BookedSlot> before = slots.byStart.lowerEntry(end);
+            return before != null && before.getValue().getEnd().isAfter(start);
+        }
+    }
+
+    // Free intervals of at least minLength inside [from, to), in order
+    public List<TimeSlotDTO> freeSlots(long providerUserId, LocalDateTime from, LocalDateTime to, Duration minLength) {
+        List<BookedSlot> booked = new ArrayList<>();
+        ProviderSlots slots = byProvider.get(providerUserId);
+        if (slots != null) {
+            synchronized (slots) {
+                Map.Entry<LocalDateTime, BookedSlot> first = slots.byStart.floorEntry(from);
+                if (first != null) {
+                    booked.add(first.getValue());
+                }
+                booked.addAll(slots.byStart.subMap(from, false, to, false).values());
+            }
+        }
+        return gaps(booked, from, to, minLength);
+    }
+
+    // Gaps of at least minLength between booked slots ordered by start, clipped to [from, to)
+    static List<TimeSlotDTO> gaps(List<BookedSlot> booked, LocalDateTime from, LocalDateTime to, Duration minLength) {
+        List<TimeSlotDTO> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (BookedSlot slot : booked) {
+            addGap(free, cursor, slot.getStart(), to, minLength);
+            if (slot.getEnd().isAfter(cursor)) {
+                cursor = slot.getEnd();
+            }
+        }
+        addGap(free, cursor, to, to, minLength);
+        return free;
+    }
+
+    private static void addGap(List<TimeSlotDTO> free, LocalDateTime start, LocalDateTime end, LocalDateTime to,
+                               Duration minLength) {
+        LocalDateTime clipped = end.isAfter(to) ? to : end;
+        if (clipped.isAfter(start) && Duration.between(start, clipped).compareTo(minLength) >= 0) {
+            free.add(new TimeSlotDTO(start, clipped));
+        }
+    }
+
+    // One provider's slots; guarded by its own monitor
+    private static final class ProviderSlots {
+        private final TreeMap<LocalDateTime, BookedSlot> byStart = new TreeMap<>();
+        private final Map<Long, LocalDateTime> startByBooking = new HashMap<>();
+
+        private void put(BookedSlot slot) {
+            remove(slot.getBookingId());
+            Map.Entry<LocalDateTime, BookedSlot> before = byStart.lowerEntry(slot.getEnd());
+            while (before != null && before.getValue().overlaps(slot.getStart(), slot.getEnd())) {
+                remove(before.getValue().getBookingId());
+                before = byStart.lowerEntry(slot.getEnd());
+            }
+            byStart.put(slot.getStart(), slot);
+            startByBooking.put(slot.getBookingId(), slot.getStart());
+        }
+
+        private void remove(long bookingId) {
+            LocalDateTime start = startByBooking.remove(bookingId);
+            if (start != null) {
+                byStart.remove(start);
+            }
+        }
+    }
+}
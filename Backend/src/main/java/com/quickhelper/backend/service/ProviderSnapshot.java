@@ -0,0 +1,47 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ProfileStatus;
+import com.quickhelper.backend.model.ProviderProfile;
+import com.quickhelper.backend.model.ServiceType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+// Immutable copy of the provider fields used by in-memory search structures
+public class ProviderSnapshot {
+    private final long id;
+    private final long userId;
+    private final ServiceType serviceType;
+    private final double lat;
+    private final double lng;
+    private final boolean available;
+    private final boolean approved;
+    private final double rating;
+    private final int basePrice; // -1 when not set
+    private final int experienceYears; // -1 when not set
+
+    // Captures the searchable state of a profile; call before the entity is mutated again
+    public static ProviderSnapshot of(ProviderProfile profile) {
+        return new ProviderSnapshot(
+                profile.getId(),
+                profile.getUser().getId(),
+                profile.getServiceType(),
+                profile.getLocationLat() != null ? profile.getLocationLat() : Double.NaN,
+                profile.getLocationLng() != null ? profile.getLocationLng() : Double.NaN,
+                Boolean.TRUE.equals(profile.getIsAvailable()),
+                profile.getProfileStatus() == ProfileStatus.APPROVED,
+                profile.getRating() != null ? profile.getRating() : 0.0,
+                profile.getBasePrice() != null ? profile.getBasePrice() : -1,
+                profile.getExperienceYears() != null ? profile.getExperienceYears() : -1
+        );
+    }
+
+    public ProviderSnapshot withLocation(double newLat, double newLng) {
+        return new ProviderSnapshot(id, userId, serviceType, newLat, newLng, available, approved, rating, basePrice, experienceYears);
+    }
+
+    public boolean hasLocation() {
+        return !Double.isNaN(lat) && !Double.isNaN(lng);
+    }
+}
@@ -0,0 +1,400 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.util.DistanceCalculator;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+// In-memory inverted index over provider display name, tagline and description for typeahead search
+public class ProviderTextIndex {
+    static final int MIN_TOKEN_LENGTH = 2;
+    static final int MAX_QUERY_TOKENS = 8;
+    // Term frequency weights per field: a match in the name says more than one in the description
+    private static final int DISPLAY_NAME_WEIGHT = 3;
+    private static final int TAGLINE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    // Sorted term dictionary, so a prefix maps to one contiguous sub-map
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    // Providers get dense ordinals so per-query scratch state can live in flat arrays
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private ProviderSnapshot[] snapshots = new ProviderSnapshot[1024];
+    private String[][] docTerms = new String[1024][];
+    private int ordinalCount;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Replaces the whole index content, e.g. on startup
+    public void rebuild(List<Document> documents) {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            ordinals.clear();
+            freeOrdinals.clear();
+            Arrays.fill(snapshots, null);
+            Arrays.fill(docTerms, null);
+            ordinalCount = 0;
+            for (Document document : documents) {
+                applyLocked(document);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Re-indexes a provider's text, or drops it when the profile is no longer approved
+    public void apply(Document document) {
+        lock.writeLock().lock();
+        try {
+            applyLocked(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Keeps the distance filter in step with live positions
+    public void move(long providerId, double lat, double lng) {
+        lock.writeLock().lock();
+        try {
+            Integer ord = ordinals.get(providerId);
+            if (ord != null) {
+                snapshots[ord] = snapshots[ord].withLocation(lat, lng);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long providerId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(providerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to limit providers matching every query token, best first. Each token matches
+     * indexed terms by prefix, so partially typed words work. Scores are field-weighted term
+     * frequencies summed over the matched terms. A non-null origin restricts results to
+     * radiusKm and fills in the distance.
+     */
+    public List<Hit> search(String query, ServiceType serviceType, boolean availableOnly,
+                            Double originLat, Double originLng, Double radiusKm, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+        boolean geo = originLat != null && originLng != null && radiusKm != null;
+
+        lock.readLock().lock();
+        try {
+            Scratch scratch = SCRATCH.get();
+            int base = scratch.begin(ordinalCount, tokens.size());
+            int candidates = 0;
+
+            // AND across tokens: a provider survives token i only if it matched tokens 0..i-1
+            for (int t = 0; t < tokens.size(); t++) {
+                String token = tokens.get(t);
+                boolean last = t == tokens.size() - 1;
+                NavigableMap<String, Postings> matches =
+                        terms.subMap(token, true, token + Character.MAX_VALUE, true);
+                for (Postings postings : matches.values()) {
+                    for (int i = 0; i < postings.size; i++) {
+                        int ord = postings.ords[i];
+                        int mark = scratch.marks[ord];
+                        if (mark == base + t) {
+                            scratch.marks[ord] = base + t + 1;
+                            scratch.scores[ord] += postings.tfs[i];
+                            if (last) {
+                                scratch.candidates[candidates++] = ord;
+                            }
+                        } else if (mark == base + t + 1) {
+                            scratch.scores[ord] += postings.tfs[i];
+                        } else if (t == 0) {
+                            scratch.marks[ord] = base + 1;
+                            scratch.scores[ord] = postings.tfs[i];
+                            if (last) {
+                                scratch.candidates[candidates++] = ord;
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Filter and keep the best `limit` with a bounded min-heap over ordinals
+            int[] heap = new int[Math.min(limit, Math.max(candidates, 1))];
+            double[] distances = geo ? scratch.distances : null;
+            int heapSize = 0;
+            for (int c = 0; c < candidates; c++) {
+                int ord = scratch.candidates[c];
+                ProviderSnapshot snapshot = snapshots[ord];
+                if ((serviceType != null && snapshot.getServiceType() != serviceType)
+                        || (availableOnly && !snapshot.isAvailable())) {
+                    continue;
+                }
+                if (geo) {
+                    if (!snapshot.hasLocation()) {
+                        continue;
+                    }
+                    double distance = DistanceCalculator.calculateDistance(
+                            originLat, originLng, snapshot.getLat(), snapshot.getLng());
+                    if (distance > radiusKm) {
+                        continue;
+                    }
+                    distances[ord] = distance;
+                }
+                if (heapSize < heap.length) {
+                    heap[heapSize] = ord;
+                    siftUp(heap, heapSize++, scratch.scores);
+                } else if (better(ord, heap[0], scratch.scores)) {
+                    heap[0] = ord;
+                    siftDown(heap, heapSize, scratch.scores);
+                }
+            }
+
+            Hit[] hits = new Hit[heapSize];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                int ord = heap[0];
+                hits[i] = new Hit(snapshots[ord].getId(), scratch.scores[ord], geo ? distances[ord] : null);
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize, scratch.scores);
+            }
+            return Arrays.asList(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lower-cases and splits on anything that is not a letter or digit; drops very short tokens
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    tokens.add(lower.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void applyLocked(Document document) {
+        ProviderSnapshot snapshot = document.getSnapshot();
+        removeLocked(snapshot.getId());
+        if (!snapshot.isApproved()) {
+            return;
+        }
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        addField(frequencies, document.getDisplayName(), DISPLAY_NAME_WEIGHT);
+        addField(frequencies, document.getTagline(), TAGLINE_WEIGHT);
+        addField(frequencies, document.getDescription(), DESCRIPTION_WEIGHT);
+
+        Integer free = freeOrdinals.poll();
+        int ord = free != null ? free : ordinalCount++;
+        if (ord >= snapshots.length) {
+            snapshots = Arrays.copyOf(snapshots, snapshots.length * 2);
+            docTerms = Arrays.copyOf(docTerms, docTerms.length * 2);
+        }
+        ordinals.put(snapshot.getId(), ord);
+        snapshots[ord] = snapshot;
+        docTerms[ord] = frequencies.keySet().toArray(new String[0]);
+        for (Map.Entry<String, Integer> e : frequencies.entrySet()) {
+            terms.computeIfAbsent(e.getKey(), k -> new Postings()).add(ord, e.getValue());
+        }
+    }
+
+    private static void addField(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void removeLocked(long providerId) {
+        Integer ord = ordinals.remove(providerId);
+        if (ord == null) {
+            return;
+        }
+        for (String term : docTerms[ord]) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(ord) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+        snapshots[ord] = null;
+        docTerms[ord] = null;
+        freeOrdinals.push(ord);
+    }
+
+    // Higher score wins; ties go to the lower ordinal so results are stable
+    private static boolean better(int a, int b, float[] scores) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return a < b;
+    }
+
+    private static void siftUp(int[] heap, int pos, float[] scores) {
+        int item = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!better(heap[parent], item, scores)) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = item;
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        if (size == 0) {
+            return;
+        }
+        int pos = 0;
+        int item = heap[0];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && better(heap[child], heap[child + 1], scores)) {
+                child++;
+            }
+            if (!better(item, heap[child], scores)) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = item;
+    }
+
+    @Getter
+    // Searchable text of one provider plus the filter fields captured with it
+    public static final class Document {
+        private final ProviderSnapshot snapshot;
+        private final String displayName;
+        private final String tagline;
+        private final String description;
+
+        public Document(ProviderSnapshot snapshot, String displayName, String tagline, String description) {
+            this.snapshot = snapshot;
+            this.displayName = displayName;
+            this.tagline = tagline;
+            this.description = description;
+        }
+    }
+
+    @Getter
+    public static final class Hit {
+        private final long providerId;
+        private final double score;
+        private final Double distanceKm; // null unless the search had an origin
+
+        Hit(long providerId, double score, Double distanceKm) {
+            this.providerId = providerId;
+            this.score = score;
+            this.distanceKm = distanceKm;
+        }
+    }
+
+    // Posting list of one term: provider ordinals and their weighted term frequencies
+    private static final class Postings {
+        private int[] ords = new int[4];
+        private int[] tfs = new int[4];
+        private int size;
+
+        void add(int ord, int tf) {
+            if (size == ords.length) {
+                ords = Arrays.copyOf(ords, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            ords[size] = ord;
+            tfs[size] = tf;
+            size++;
+        }
+
+        boolean remove(int ord) {
+            for (int i = 0; i < size; i++) {
+                if (ords[i] == ord) {
+                    size--;
+                    ords[i] = ords[size];
+                    tfs[i] = tfs[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Per-thread query state indexed by ordinal. Marks are stamped with a per-query base instead of
+    // being cleared, so a query costs time proportional to the postings it touches, not the index size.
+    private static final class Scratch {
+        private int[] marks = new int[0];
+        private float[] scores = new float[0];
+        private double[] distances = new double[0];
+        private int[] candidates = new int[0];
+        private int nextBase = 1;
+
+        int begin(int capacity, int tokenCount) {
+            if (marks.length < capacity) {
+                int size = Math.max(capacity, marks.length * 2);
+                marks = new int[size];
+                scores = new float[size];
+                distances = new double[size];
+                candidates = new int[size];
+                nextBase = 1;
+            }
+            if (nextBase > Integer.MAX_VALUE - MAX_QUERY_TOKENS - 2) {
+                Arrays.fill(marks, 0);
+                nextBase = 1;
+            }
+            int base = nextBase;
+            nextBase += tokenCount + 1;
+            return base;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.quickhelper.backend.service;
+
+import java.util.Arrays;
+
+// Column-oriented ranking input: one slot per candidate, primitives only, NaN for unknown values
+public class RankingCandidates {
+    private int size;
+    private long[] providerIds;
+    private double[] distanceKm;
+    private double[] rating;
+    private double[] basePrice;
+    private double[] experienceYears;
+    private double[] acceptSeconds;
+
+    public RankingCandidates(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 8);
+        providerIds = new long[capacity];
+        distanceKm = new double[capacity];
+        rating = new double[capacity];
+        basePrice = new double[capacity];
+        experienceYears = new double[capacity];
+        acceptSeconds = new double[capacity];
+    }
+
+    public void add(ProviderSnapshot snapshot, double distance, double averageAcceptSeconds) {
+        if (size == providerIds.length) {
+            int capacity = size * 2;
+            providerIds = Arrays.copyOf(providerIds, capacity);
+            distanceKm = Arrays.copyOf(distanceKm, capacity);
+            rating = Arrays.copyOf(rating, capacity);
+            basePrice = Arrays.copyOf(basePrice, capacity);
+            experienceYears = Arrays.copyOf(experienceYears, capacity);
+            acceptSeconds = Arrays.copyOf(acceptSeconds, capacity);
+        }
+        providerIds[size] = snapshot.getId();
+        distanceKm[size] = distance;
+        rating[size] = snapshot.getRating();
+        basePrice[size] = snapshot.getBasePrice() >= 0 ? snapshot.getBasePrice() : Double.NaN;
+        experienceYears[size] = snapshot.getExperienceYears() >= 0 ? snapshot.getExperienceYears() : Double.NaN;
+        acceptSeconds[size] = averageAcceptSeconds;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long providerId(int i) {
+        return providerIds[i];
+    }
+
+    public double distanceKm(int i) {
+        return distanceKm[i];
+    }
+
+    public double rating(int i) {
+        return rating[i];
+    }
+
+    public double basePrice(int i) {
+        return basePrice[i];
+    }
+
+    public double experienceYears(int i) {
+        return experienceYears[i];
+    }
+
+    public double acceptSeconds(int i) {
+        return acceptSeconds[i];
+    }
+}
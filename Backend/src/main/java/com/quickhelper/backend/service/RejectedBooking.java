@@ -0,0 +1,17 @@
+package com.quickhelper.backend.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@RequiredArgsConstructor
+// Booking moved to REJECTED by a bulk update, with what the user notification needs
+public class RejectedBooking {
+    private final long bookingId;
+    private final long userId;
+    private final long providerId;
+    private final String providerName;
+    private final LocalDateTime createdAt; // also when it entered REQUESTED, the only status bulk updates reject
+}
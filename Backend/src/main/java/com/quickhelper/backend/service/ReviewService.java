@@ -9,6 +9,7 @@ import com.quickhelper.backend.repository.ProviderProfileRepository;
 import com.quickhelper.backend.repository.BookingRepository;
 import com.quickhelper.backend.repository.ReviewRepository;
 import com.quickhelper.backend.repository.UserRepository;
+import com.quickhelper.backend.util.TransactionUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import java.util.Optional;
@@ -25,6 +26,8 @@ public class ReviewService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ProviderProfileRepository providerProfileRepository;  // ✅ ADD THIS
+    private final ProviderService providerService;
+    private final PlatformStatsService platformStatsService;
 
     @Transactional
     // Creates a review for a completed booking and recalculates provider rating
@@ -46,6 +49,8 @@ public class ReviewService {
         review.setComment(request.getComment());
 
         Review saved = reviewRepository.save(review);
+        int rating = saved.getRating();
+        TransactionUtil.afterCommit(() -> platformStatsService.onReviewCreated(rating));
 
         updateProviderRating(booking.getProvider());
 
@@ -81,6 +86,7 @@ public class ReviewService {
                 profile.setRating(averageRating);
 
                 providerProfileRepository.save(profile);
+                providerService.syncSearchIndexes(profile); // rating feeds provider ranking
             }
         }
     }
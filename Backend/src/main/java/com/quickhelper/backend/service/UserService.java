@@ -4,7 +4,9 @@ import com.quickhelper.backend.dto.UserResponseDTO;
 import com.quickhelper.backend.exception.DuplicateResourceException;
 import com.quickhelper.backend.exception.ResourceNotFoundException;
 import com.quickhelper.backend.model.User;
+import com.quickhelper.backend.model.UserRole;
 import com.quickhelper.backend.repository.UserRepository;
+import com.quickhelper.backend.util.TransactionUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -19,6 +21,8 @@ import java.util.stream.Collectors;
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ProviderSearchCache providerSearchCache;
+    private final ProviderAvailabilityRegistry availabilityRegistry;
 
     @Transactional
     // Creates a new user with unique email and hashed password
@@ -67,6 +71,14 @@ public class UserService {
         User user = findById(id);
         user.setCity(city);
         User updatedUser = userRepository.save(user);
+        if (updatedUser.getRole() == UserRole.PROVIDER) {
+            // The old city is gone by now, so drop every cached search rather than guess which keys held it
+            Long userId = updatedUser.getId();
+            TransactionUtil.afterCommit(() -> {
+                availabilityRegistry.updateCity(userId, city);
+                providerSearchCache.clear();
+            });
+        }
         return mapToUserResponseDTO(updatedUser);
     }
 
@@ -0,0 +1,60 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.RankingWeightsDTO;
+import org.springframework.stereotype.Component;
+
+@Component
+// Default scoring: weighted average of per-factor scores normalised to [0, 1]
+public class WeightedProviderScoringStage implements ProviderScoringStage {
+    private static final double MAX_RATING = 5.0;
+    private static final double EXPERIENCE_CAP_YEARS = 20.0;
+    private static final double ACCEPT_HALF_SCORE_SECONDS = 60.0; // accepting within a minute scores 0.5
+    private static final double UNKNOWN = 0.5; // neutral score when a factor is missing
+
+    @Override
+    public void score(RankingCandidates candidates, RankingWeightsDTO weights, double maxDistanceKm, double[] scores) {
+        int n = candidates.size();
+        double totalWeight = weights.getDistance() + weights.getRating() + weights.getPrice()
+                + weights.getExperience() + weights.getResponsiveness();
+        if (totalWeight <= 0) {
+            totalWeight = 1.0;
+        }
+
+        // Prices are only comparable within the candidate set, so scale them min-max
+        double minPrice = Double.POSITIVE_INFINITY;
+        double maxPrice = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double price = candidates.basePrice(i);
+            if (!Double.isNaN(price)) {
+                minPrice = Math.min(minPrice, price);
+                maxPrice = Math.max(maxPrice, price);
+            }
+        }
+        double priceRange = maxPrice - minPrice;
+        double distanceScale = maxDistanceKm > 0 && Double.isFinite(maxDistanceKm) ? maxDistanceKm : 1.0;
+
+        for (int i = 0; i < n; i++) {
+            double distance = Double.isFinite(maxDistanceKm)
+                    ? 1.0 - Math.min(candidates.distanceKm(i) / distanceScale, 1.0)
+                    : 1.0 / (1.0 + candidates.distanceKm(i));
+            double rating = Math.min(candidates.rating(i), MAX_RATING) / MAX_RATING;
+
+            double basePrice = candidates.basePrice(i);
+            double price = Double.isNaN(basePrice) ? UNKNOWN
+                    : priceRange > 0 ? 1.0 - (basePrice - minPrice) / priceRange : 1.0;
+
+            double years = candidates.experienceYears(i);
+            double experience = Double.isNaN(years) ? UNKNOWN : Math.min(years, EXPERIENCE_CAP_YEARS) / EXPERIENCE_CAP_YEARS;
+
+            double seconds = candidates.acceptSeconds(i);
+            double responsiveness = Double.isNaN(seconds) ? UNKNOWN
+                    : ACCEPT_HALF_SCORE_SECONDS / (ACCEPT_HALF_SCORE_SECONDS + seconds);
+
+            scores[i] = (weights.getDistance() * distance
+                    + weights.getRating() * rating
+                    + weights.getPrice() * price
+                    + weights.getExperience() * experience
+                    + weights.getResponsiveness() * responsiveness) / totalWeight;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.quickhelper.backend.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+// Latitude/longitude rectangle that fully contains a search circle, used as a cheap SQL prefilter
+public class BoundingBox {
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double minLat;
+    private final double maxLat;
+    private final double minLng;
+    private final double maxLng;
+
+    /**
+     * Builds the smallest box containing every point within radiusKm of the center.
+     * Boxes touching a pole or crossing the antimeridian widen to the full longitude range,
+     * which keeps the prefilter conservative; the exact Haversine check does the rest.
+     */
+    public static BoundingBox around(double lat, double lng, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(lat - latDelta, -90.0);
+        double maxLat = Math.min(lat + latDelta, 90.0);
+
+        double poleward = Math.max(Math.abs(minLat), Math.abs(maxLat));
+        double cos = Math.cos(Math.toRadians(poleward));
+        if (poleward >= 90.0 || cos <= 1e-9) {
+            return new BoundingBox(minLat, maxLat, -180.0, 180.0);
+        }
+        double lngDelta = radiusKm / (KM_PER_DEGREE * cos);
+        double minLng = lng - lngDelta;
+        double maxLng = lng + lngDelta;
+        if (minLng < -180.0 || maxLng > 180.0) {
+            return new BoundingBox(minLat, maxLat, -180.0, 180.0);
+        }
+        return new BoundingBox(minLat, maxLat, minLng, maxLng);
+    }
+}
@@ -4,12 +4,12 @@ package com.quickhelper.backend.util;
  * Utility class for calculating distances between geographical coordinates
  */
 public class DistanceCalculator {
-    
+
     private static final double EARTH_RADIUS_KM = 6371.0;
-    
+
     /**
      * Calculates the distance between two points using the Haversine formula
-     * 
+     *
      * @param lat1 Latitude of point 1 in degrees
      * @param lon1 Longitude of point 1 in degrees
      * @param lat2 Latitude of point 2 in degrees
@@ -17,39 +17,77 @@ public class DistanceCalculator {
      * @return Distance in kilometers
      */
     public static double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        System.out.println("Calculating distance between (" + lat1 + ", " + lon1 + ") and (" + lat2 + ", " + lon2 + ")");
-        
         // Validate inputs
         if (Double.isNaN(lat1) || Double.isNaN(lon1) || Double.isNaN(lat2) || Double.isNaN(lon2)) {
-            System.out.println("Invalid input: NaN detected");
             return Double.MAX_VALUE; // Return a very large distance
         }
-        
+
         if (Double.isInfinite(lat1) || Double.isInfinite(lon1) || Double.isInfinite(lat2) || Double.isInfinite(lon2)) {
-            System.out.println("Invalid input: Infinite value detected");
             return Double.MAX_VALUE; // Return a very large distance
         }
-        
+
         // Convert degrees to radians
         double lat1Rad = Math.toRadians(lat1);
-        double lon1Rad = Math.toRadians(lon1);
         double lat2Rad = Math.toRadians(lat2);
-        double lon2Rad = Math.toRadians(lon2);
-        
-        // Differences in coordinates
-        double deltaLat = lat2Rad - lat1Rad;
-        double deltaLon = lon2Rad - lon1Rad;
-        
+
+        // Half-angle sines of the coordinate differences
+        double sinHalfDeltaLat = Math.sin((lat2Rad - lat1Rad) / 2);
+        double sinHalfDeltaLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+
         // Haversine formula
-        double a = Math.pow(Math.sin(deltaLat / 2), 2) +
+        double a = sinHalfDeltaLat * sinHalfDeltaLat +
                    Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                   Math.pow(Math.sin(deltaLon / 2), 2);
-        
+                   sinHalfDeltaLon * sinHalfDeltaLon;
+
         double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
+
         // Distance in kilometers
-        double distance = EARTH_RADIUS_KM * c;
-        System.out.println("Calculated distance: " + distance + " km");
-        return distance;
+        return EARTH_RADIUS_KM * c;
+    }
+
+    /**
+     * Computes Haversine distances from one origin to many points without allocating or logging.
+     * The origin's cosine is computed once per call. Points whose squared half-chord exceeds the
+     * one implied by maxDistanceKm are rejected before the arctangent and get
+     * {@link Double#POSITIVE_INFINITY}; pass {@code Double.POSITIVE_INFINITY} to disable the cut-off.
+     *
+     * @param originLat Origin latitude in degrees
+     * @param originLon Origin longitude in degrees
+     * @param lats      Point latitudes in degrees
+     * @param lons      Point longitudes in degrees
+     * @param count     Number of points to process, starting at index 0
+     * @param out       Receives the distance in kilometers for each point
+     * @param maxDistanceKm Early-reject threshold in kilometers
+     * @return Number of points within maxDistanceKm
+     */
+    public static int calculateDistances(double originLat, double originLon,
+                                         double[] lats, double[] lons, int count,
+                                         double[] out, double maxDistanceKm) {
+        double originLatRad = Math.toRadians(originLat);
+        double cosOrigin = Math.cos(originLatRad);
+
+        // a = sin^2(c / 2) grows with distance, so compare against the value at the cut-off
+        double maxAngle = maxDistanceKm / EARTH_RADIUS_KM;
+        double maxA = 1.0;
+        if (maxAngle < Math.PI) {
+            double sinHalf = Math.sin(maxAngle / 2);
+            maxA = sinHalf * sinHalf;
+        }
+
+        int within = 0;
+        for (int i = 0; i < count; i++) {
+            double latRad = Math.toRadians(lats[i]);
+            double sinHalfDeltaLat = Math.sin((latRad - originLatRad) / 2);
+            double sinHalfDeltaLon = Math.sin(Math.toRadians(lons[i] - originLon) / 2);
+            double a = sinHalfDeltaLat * sinHalfDeltaLat
+                    + cosOrigin * Math.cos(latRad) * sinHalfDeltaLon * sinHalfDeltaLon;
+            if (a > maxA) {
+                out[i] = Double.POSITIVE_INFINITY;
+                continue;
+            }
+            out[i] = 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+            within++;
+        }
+        return within;
     }
-}
\ No newline at end of file
+}
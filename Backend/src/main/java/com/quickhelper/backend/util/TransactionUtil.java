@@ -0,0 +1,28 @@
+package com.quickhelper.backend.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Helpers for deferring in-memory side effects until the surrounding transaction commits
+public final class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    /**
+     * Runs the action after the current transaction commits, or immediately when no
+     * transaction is active. Rolled back transactions never run the action.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
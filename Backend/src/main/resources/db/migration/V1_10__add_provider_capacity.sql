@@ -0,0 +1,10 @@
+-- Per-provider booking capacity: active_bookings counts the provider's REQUESTED and ACCEPTED bookings and is
+-- only changed by conditional updates; capacity_paused marks availability that was switched off on saturation
+ALTER TABLE provider_profiles ADD COLUMN active_bookings INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE provider_profiles ADD COLUMN capacity_paused BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE provider_profiles pp SET active_bookings = c.active
+FROM (SELECT provider_id, COUNT(*) AS active FROM bookings
+      WHERE provider_id IS NOT NULL AND status IN ('REQUESTED', 'ACCEPTED')
+      GROUP BY provider_id) c
+WHERE pp.user_id = c.provider_id;
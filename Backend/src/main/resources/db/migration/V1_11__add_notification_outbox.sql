@@ -0,0 +1,13 @@
+-- Notifications appended by booking transitions in their own transaction; a background dispatcher moves them
+-- into notifications in batches and pushes them over WebSocket once they are committed
+CREATE TABLE notification_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    receiver_id BIGINT NOT NULL,
+    receiver_role VARCHAR(255) NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    message TEXT NOT NULL,
+    is_high_priority BOOLEAN NOT NULL DEFAULT FALSE,
+    related_booking_id BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,40 @@
+-- Append-only log of booking transitions; rows are never updated or deleted
+CREATE TABLE booking_events (
+    id BIGSERIAL PRIMARY KEY,
+    booking_id BIGINT NOT NULL REFERENCES bookings(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL,
+    provider_id BIGINT,
+    type VARCHAR(50) NOT NULL,
+    from_status VARCHAR(50),
+    to_status VARCHAR(50) NOT NULL,
+    occurred_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- User timeline reads newest first by event id
+CREATE INDEX idx_booking_events_user_id ON booking_events(user_id, id DESC);
+CREATE INDEX idx_booking_events_booking_id ON booking_events(booking_id, id);
+
+-- Provider dashboard read model, maintained incrementally from the events; status columns count the
+-- provider's bookings currently in that status
+CREATE TABLE provider_booking_stats (
+    provider_id BIGINT PRIMARY KEY,
+    requested BIGINT NOT NULL DEFAULT 0,
+    accepted BIGINT NOT NULL DEFAULT 0,
+    rejected BIGINT NOT NULL DEFAULT 0,
+    cancelled BIGINT NOT NULL DEFAULT 0,
+    completed BIGINT NOT NULL DEFAULT 0,
+    on_way BIGINT NOT NULL DEFAULT 0,
+    started BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO provider_booking_stats (provider_id, requested, accepted, rejected, cancelled, completed)
+SELECT provider_id,
+       COUNT(*) FILTER (WHERE status = 'REQUESTED'),
+       COUNT(*) FILTER (WHERE status = 'ACCEPTED'),
+       COUNT(*) FILTER (WHERE status = 'REJECTED'),
+       COUNT(*) FILTER (WHERE status = 'CANCELLED'),
+       COUNT(*) FILTER (WHERE status = 'COMPLETED')
+FROM bookings
+WHERE provider_id IS NOT NULL
+GROUP BY provider_id;
@@ -0,0 +1,15 @@
+-- On-way and in-service become booking statuses of their own
+ALTER TABLE bookings DROP CONSTRAINT chk_bookings_status;
+ALTER TABLE bookings ADD CONSTRAINT chk_bookings_status CHECK (status IN ('REQUESTED', 'ACCEPTED', 'ON_WAY', 'IN_SERVICE', 'REJECTED', 'CANCELLED', 'COMPLETED'));
+
+-- When the booking entered its current status, so each transition can time the status it leaves. Rejections and
+-- cancellations were not stamped before, so they fall back to the latest known time
+ALTER TABLE bookings ADD COLUMN status_changed_at TIMESTAMP;
+UPDATE bookings SET status_changed_at = COALESCE(completed_at, accepted_at, created_at);
+ALTER TABLE bookings ALTER COLUMN status_changed_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE bookings ALTER COLUMN status_changed_at SET NOT NULL;
+
+-- The dashboard's on-way and started event counters become counts of bookings currently ON_WAY and IN_SERVICE;
+-- no booking is in either status yet
+ALTER TABLE provider_booking_stats RENAME COLUMN started TO in_service;
+UPDATE provider_booking_stats SET on_way = 0, in_service = 0;
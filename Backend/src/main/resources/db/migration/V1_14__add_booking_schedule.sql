@@ -0,0 +1,14 @@
+-- Optional time slot of a booking, [scheduled_start, scheduled_end). On-demand bookings leave both NULL
+ALTER TABLE bookings ADD COLUMN scheduled_start TIMESTAMP;
+ALTER TABLE bookings ADD COLUMN scheduled_end TIMESTAMP;
+ALTER TABLE bookings ADD CONSTRAINT chk_bookings_schedule
+    CHECK ((scheduled_start IS NULL AND scheduled_end IS NULL) OR scheduled_end > scheduled_start);
+
+-- Safety net behind the in-memory slot index: two active bookings of a provider can never hold overlapping
+-- slots, even when concurrent requests both pass the in-memory check. btree_gist lets the GiST index combine
+-- equality on provider_id with range overlap
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings ADD CONSTRAINT excl_bookings_provider_slot
+    EXCLUDE USING gist (provider_id WITH =, tsrange(scheduled_start, scheduled_end) WITH &&)
+    WHERE (scheduled_start IS NOT NULL AND status IN ('REQUESTED', 'ACCEPTED', 'ON_WAY', 'IN_SERVICE'));
@@ -0,0 +1,3 @@
+-- Composite index backing the bounding-box prefilter used by distance searches
+CREATE INDEX IF NOT EXISTS idx_provider_profiles_search
+    ON provider_profiles(service_type, is_available, profile_status, location_lat, location_lng);
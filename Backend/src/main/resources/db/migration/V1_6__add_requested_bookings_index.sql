@@ -0,0 +1,3 @@
+-- Partial index backing the timeout sweep over pending booking requests
+CREATE INDEX IF NOT EXISTS idx_bookings_requested_created_at
+    ON bookings(created_at) WHERE status = 'REQUESTED';
@@ -0,0 +1,9 @@
+-- Broadcast dispatch: a request is created without a provider, offered to several nearby providers,
+-- and assigned to the first one that claims it
+
+ALTER TABLE bookings ALTER COLUMN provider_id DROP NOT NULL;
+ALTER TABLE bookings ADD COLUMN location_lat DOUBLE PRECISION;
+ALTER TABLE bookings ADD COLUMN location_lng DOUBLE PRECISION;
+
+ALTER TABLE notifications DROP CONSTRAINT chk_notifications_type;
+ALTER TABLE notifications ADD CONSTRAINT chk_notifications_type CHECK (type IN ('BOOKING_REQUEST_SENT', 'BOOKING_ACCEPTED', 'BOOKING_REJECTED', 'PROVIDER_ON_WAY', 'LIVE_LOCATION_STARTED', 'SERVICE_STARTED', 'SERVICE_COMPLETED', 'PAYMENT_CONFIRMED', 'RATING_REMINDER', 'NEW_BOOKING_REQUEST', 'NEW_BOOKING_OFFER', 'BOOKING_OFFER_REVOKED', 'BOOKING_CANCELLED', 'JOB_ACCEPTED', 'NAVIGATION_STARTED', 'JOB_COMPLETED', 'EARNINGS_CREDITED'));
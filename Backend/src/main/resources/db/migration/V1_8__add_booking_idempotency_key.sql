@@ -0,0 +1,5 @@
+-- Idempotency-Key of the create request; a retry with the same key returns the original booking
+ALTER TABLE bookings ADD COLUMN idempotency_key VARCHAR(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_bookings_user_idempotency_key
+    ON bookings(user_id, idempotency_key) WHERE idempotency_key IS NOT NULL;
@@ -0,0 +1,6 @@
+-- Keyset pagination of booking history: each page is an index range scan in (created_at, id) order
+CREATE INDEX IF NOT EXISTS idx_bookings_user_created_at_id
+    ON bookings(user_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_provider_created_at_id
+    ON bookings(provider_id, created_at DESC, id DESC) WHERE provider_id IS NOT NULL;
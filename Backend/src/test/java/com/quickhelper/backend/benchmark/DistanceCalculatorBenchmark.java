@@ -0,0 +1,84 @@
+package com.quickhelper.backend.benchmark;
+
+import com.quickhelper.backend.util.DistanceCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+// Batch Haversine kernel against calling calculateDistance once per point.
+// Run main() from the IDE, or after ./mvnw test-compile:
+//   java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main DistanceCalculatorBenchmark
+public class DistanceCalculatorBenchmark {
+
+    private static final double ORIGIN_LAT = 28.6139;
+    private static final double ORIGIN_LNG = 77.2090;
+
+    @Param({"1000", "100000"})
+    public int points;
+
+    // Cut-off radius; most generated points lie far outside the smaller one
+    @Param({"10", "Infinity"})
+    public double maxDistanceKm;
+
+    private double[] lats;
+    private double[] lngs;
+    private double[] out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        lats = new double[points];
+        lngs = new double[points];
+        out = new double[points];
+        for (int i = 0; i < points; i++) {
+            lats[i] = ORIGIN_LAT + (random.nextDouble() - 0.5) * 2.0;
+            lngs[i] = ORIGIN_LNG + (random.nextDouble() - 0.5) * 2.0;
+        }
+    }
+
+    @Benchmark
+    public int perPointCalls() {
+        int within = 0;
+        for (int i = 0; i < points; i++) {
+            out[i] = DistanceCalculator.calculateDistance(ORIGIN_LAT, ORIGIN_LNG, lats[i], lngs[i]);
+            if (out[i] <= maxDistanceKm) {
+                within++;
+            }
+        }
+        return within;
+    }
+
+    @Benchmark
+    public void batchKernel(Blackhole blackhole) {
+        blackhole.consume(DistanceCalculator.calculateDistances(
+                ORIGIN_LAT, ORIGIN_LNG, lats, lngs, points, out, maxDistanceKm));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DistanceCalculatorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.quickhelper.backend.benchmark;
+
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.service.ProviderGeoIndex;
+import com.quickhelper.backend.service.ProviderSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+// Radius search latency of the grid index against the previous full scan, for growing provider counts.
+// Run main() from the IDE, or after ./mvnw test-compile:
+//   java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main ProviderGeoIndexBenchmark
+public class ProviderGeoIndexBenchmark {
+
+    // Providers are spread over a box roughly the size of India
+    private static final double MIN_LAT = 8.0;
+    private static final double MAX_LAT = 35.0;
+    private static final double MIN_LNG = 68.0;
+    private static final double MAX_LNG = 97.0;
+    private static final double RADIUS_KM = 10.0;
+
+    @Param({"10000", "100000", "1000000"})
+    public int providers;
+
+    private ProviderGeoIndex index;
+    private List<ProviderSnapshot> snapshots;
+    private double[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        ServiceType[] types = ServiceType.values();
+        snapshots = new ArrayList<>(providers);
+        for (int i = 0; i < providers; i++) {
+            snapshots.add(new ProviderSnapshot(
+                    i, i,
+                    types[i % types.length],
+                    MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                    MIN_LNG + random.nextDouble() * (MAX_LNG - MIN_LNG),
+                    random.nextInt(4) != 0,
+                    true,
+                    1 + random.nextDouble() * 4,
+                    200 + random.nextInt(800),
+                    random.nextInt(20)));
+        }
+        index = new ProviderGeoIndex(0.05);
+        index.rebuild(snapshots);
+
+        queries = new double[1024][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[]{
+                    MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                    MIN_LNG + random.nextDouble() * (MAX_LNG - MIN_LNG)};
+        }
+    }
+
+    @Benchmark
+    public List<Long> gridIndex() {
+        double[] q = queries[next++ & (queries.length - 1)];
+        return index.findWithinRadius(ServiceType.PLUMBER, q[0], q[1], RADIUS_KM, true);
+    }
+
+    @Benchmark
+    public List<Long> fullScan() {
+        double[] q = queries[next++ & (queries.length - 1)];
+        List<Long> result = new ArrayList<>();
+        for (ProviderSnapshot s : snapshots) {
+            if (s.getServiceType() == ServiceType.PLUMBER && s.isAvailable()
+                    && haversineKm(q[0], q[1], s.getLat(), s.getLng()) <= RADIUS_KM) {
+                result.add(s.getId());
+            }
+        }
+        return result;
+    }
+
+    private static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * 6371.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProviderGeoIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.quickhelper.backend.benchmark;
+
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.service.ProviderSnapshot;
+import com.quickhelper.backend.service.ProviderTextIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+// Typeahead latency of the inverted index against a substring scan over the same profiles.
+// Run main() from the IDE, or after ./mvnw test-compile:
+//   java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main ProviderTextIndexBenchmark
+public class ProviderTextIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "plumber", "plumbing", "pipe", "leak", "repair", "bathroom", "kitchen", "electrician", "wiring",
+            "switch", "fan", "light", "install", "carpenter", "furniture", "door", "window", "painter", "wall",
+            "paint", "cleaning", "deep", "sofa", "carpet", "pest", "control", "ac", "service", "fridge",
+            "washing", "machine", "geyser", "tile", "marble", "modular", "quick", "reliable", "certified",
+            "experienced", "affordable", "emergency", "home", "office", "residential", "commercial", "expert"};
+    private static final String[] QUERIES = {"pl", "plumb", "leak rep", "electr", "deep clean", "ac serv", "kit"};
+
+    @Param({"100000"})
+    public int providers;
+
+    private ProviderTextIndex index;
+    private List<String> texts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        ServiceType[] types = ServiceType.values();
+        List<ProviderTextIndex.Document> documents = new ArrayList<>(providers);
+        texts = new ArrayList<>(providers);
+        for (int i = 0; i < providers; i++) {
+            ProviderSnapshot snapshot = new ProviderSnapshot(i, i, types[i % types.length],
+                    8 + random.nextDouble() * 27, 68 + random.nextDouble() * 29,
+                    random.nextInt(4) != 0, true, 4.0, 500, 5);
+            String name = words(random, 2) + " " + i;
+            String tagline = words(random, 5);
+            String description = words(random, 40);
+            documents.add(new ProviderTextIndex.Document(snapshot, name, tagline, description));
+            texts.add((name + " " + tagline + " " + description).toLowerCase(Locale.ROOT));
+        }
+        index = new ProviderTextIndex();
+        index.rebuild(documents);
+    }
+
+    @Benchmark
+    public List<ProviderTextIndex.Hit> invertedIndex() {
+        return index.search(QUERIES[next++ % QUERIES.length], null, false, null, null, null, 10);
+    }
+
+    @Benchmark
+    public List<ProviderTextIndex.Hit> invertedIndexFiltered() {
+        return index.search(QUERIES[next++ % QUERIES.length], ServiceType.PLUMBER, true, 19.07, 72.87, 50.0, 10);
+    }
+
+    // Ranking needs every match, so the scan cannot stop at the first ten
+    @Benchmark
+    public List<Integer> substringScan() {
+        String query = QUERIES[next++ % QUERIES.length];
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            if (texts.get(i).contains(query)) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProviderTextIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,176 @@
+package com.quickhelper.backend.repository;
+
+import com.quickhelper.backend.model.ProfileStatus;
+import com.quickhelper.backend.model.ProviderProfile;
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.model.User;
+import com.quickhelper.backend.model.UserRole;
+import com.quickhelper.backend.service.BookingDeadlineWheel;
+import com.quickhelper.backend.service.BookingExpiryService;
+import com.quickhelper.backend.service.BookingStateMachine;
+import com.quickhelper.backend.service.NotificationService;
+import com.quickhelper.backend.service.ProviderCapacityService;
+import com.quickhelper.backend.service.ProviderService;
+import com.quickhelper.backend.service.RejectedBooking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Times out a request of a fully booked provider the way the wheel and the sweeper do, outside any caller
+// transaction, and checks that the freed slot brings the provider back into search and stays that way
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "bookings.capacity.max-active=3"
+})
+@Import({BookingExpiryService.class, ProviderCapacityService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingTimeoutCapacityTest {
+
+    private static final int MAX_ACTIVE = 3;
+    private static final long BOOKING_ID = 99L;
+
+    @Autowired
+    private BookingExpiryService expiryService;
+
+    @Autowired
+    private ProviderCapacityService capacityService;
+
+    @Autowired
+    private ProviderProfileRepository providerProfileRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private BookingJdbcRepository bookingJdbcRepository; // PostgreSQL-only statements
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private BookingDeadlineWheel deadlineWheel;
+
+    @MockBean
+    private BookingStateMachine stateMachine;
+
+    @MockBean
+    private ProviderService providerService;
+
+    private User provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = saveUser("provider", UserRole.PROVIDER);
+        ProviderProfile profile = new ProviderProfile();
+        profile.setUser(provider);
+        profile.setServiceType(ServiceType.PLUMBER);
+        profile.setProfileStatus(ProfileStatus.APPROVED);
+        profile.setIsApproved(true);
+        providerProfileRepository.save(profile);
+
+        for (int i = 0; i < MAX_ACTIVE; i++) {
+            transactionTemplate.executeWithoutResult(status -> capacityService.reserve(provider.getId()));
+        }
+        ProviderProfile saturated = providerProfileRepository.findByUserId(provider.getId()).orElseThrow();
+        assertFalse(saturated.getIsAvailable());
+        assertTrue(saturated.getCapacityPaused());
+    }
+
+    @AfterEach
+    void tearDown() {
+        providerProfileRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testExpire_ResumesSaturatedProvider() {
+        when(bookingJdbcRepository.rejectRequested(List.of(BOOKING_ID))).thenAnswer(invocation -> rejectOne());
+
+        expiryService.expire(List.of(BOOKING_ID));
+
+        assertResumed();
+    }
+
+    @Test
+    void testSweepOverdue_ResumesSaturatedProvider() {
+        when(bookingJdbcRepository.rejectOverdue(any(LocalDateTime.class), anyInt())).thenAnswer(invocation -> rejectOne());
+
+        assertEquals(1, expiryService.sweepOverdue());
+
+        assertResumed();
+    }
+
+    @Test
+    void testProfileEdit_KeepsResumeCommittedMeanwhile() {
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ProviderProfile edited = providerProfileRepository.findByUserId(provider.getId()).orElseThrow();
+            assertFalse(edited.getIsAvailable());
+            concurrent.executeWithoutResult(inner -> {
+                rejectOne();
+                capacityService.released(List.of(provider.getId()));
+            });
+            edited.setDescription("Now also fixing geysers");
+            providerProfileRepository.save(edited);
+        });
+
+        ProviderProfile stored = providerProfileRepository.findByUserId(provider.getId()).orElseThrow();
+        assertEquals("Now also fixing geysers", stored.getDescription());
+        assertTrue(stored.getIsAvailable());
+    }
+
+    // Stands in for the rejecting statement, which frees the provider's slot in the same transaction
+    private List<RejectedBooking> rejectOne() {
+        assertEquals(1, providerProfileRepository.releaseSlot(provider.getId()));
+        return List.of(new RejectedBooking(BOOKING_ID, 1L, provider.getId(), provider.getName(), LocalDateTime.now()));
+    }
+
+    private void assertResumed() {
+        ProviderProfile resumed = providerProfileRepository.findByUserId(provider.getId()).orElseThrow();
+        assertTrue(resumed.getIsAvailable());
+        assertFalse(resumed.getCapacityPaused());
+        assertEquals(MAX_ACTIVE - 1, resumed.getActiveBookings());
+        assertEquals(MAX_ACTIVE - 1, capacityService.activeBookings(provider.getId()));
+        verify(providerService).syncSearchIndexes(argThat(ProviderProfile::getIsAvailable));
+    }
+
+    private User saveUser(String name, UserRole role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setCity("Delhi");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,252 @@
+package com.quickhelper.backend.repository;
+
+import com.quickhelper.backend.exception.BadRequestException;
+import com.quickhelper.backend.exception.ConflictException;
+import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.model.User;
+import com.quickhelper.backend.model.UserRole;
+import com.quickhelper.backend.service.BookingDispatchService;
+import com.quickhelper.backend.service.BookingExpiryService;
+import com.quickhelper.backend.service.BookingIdempotencyStore;
+import com.quickhelper.backend.service.BookingLocationStreamService;
+import com.quickhelper.backend.service.BookingService;
+import com.quickhelper.backend.service.BookingStateMachine;
+import com.quickhelper.backend.service.NotificationService;
+import com.quickhelper.backend.service.PlatformStatsService;
+import com.quickhelper.backend.service.ProviderCalendarService;
+import com.quickhelper.backend.service.ProviderCapacityService;
+import com.quickhelper.backend.service.ProviderResponsivenessTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// Fires conflicting booking transitions from several threads against a real database and checks that the
+// conditional updates let exactly one of them win each race
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(BookingService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingTransitionConcurrencyTest {
+
+    private static final int ROUNDS = 25;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private BookingExpiryService bookingExpiryService;
+
+    @MockBean
+    private BookingDispatchService dispatchService;
+
+    @MockBean
+    private ProviderResponsivenessTracker responsivenessTracker;
+
+    @MockBean
+    private BookingLocationStreamService locationStreamService;
+
+    @MockBean
+    private PlatformStatsService platformStatsService;
+
+    @MockBean
+    private BookingIdempotencyStore idempotencyStore;
+
+    @MockBean
+    private ProviderCapacityService capacityService;
+
+    @MockBean
+    private BookingStateMachine stateMachine;
+
+    @MockBean
+    private BookingJdbcRepository bookingJdbcRepository; // PostgreSQL-only statements
+
+    @MockBean
+    private ProviderCalendarService calendarService;
+
+    private ExecutorService pool;
+    private User customer;
+    private User provider;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(THREADS);
+        customer = saveUser("customer", UserRole.USER);
+        provider = saveUser("provider", UserRole.PROVIDER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        bookingRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testAcceptRejectRace_ExactlyOneWinner() throws Exception {
+        List<LongFunction<Object>> transitions = List.of(bookingService::acceptBooking, bookingService::rejectBooking);
+        for (int round = 0; round < ROUNDS; round++) {
+            Long bookingId = saveBooking(BookingStatus.REQUESTED).getId();
+
+            List<BookingStatus> winners = race(bookingId, transitions,
+                    List.of(BookingStatus.ACCEPTED, BookingStatus.REJECTED));
+
+            assertEquals(1, winners.size(), "round " + round + " winners " + winners);
+            Booking stored = bookingRepository.findById(bookingId).orElseThrow();
+            assertEquals(winners.get(0), stored.getStatus());
+            assertEquals(winners.get(0) == BookingStatus.ACCEPTED, stored.getAcceptedAt() != null);
+        }
+    }
+
+    @Test
+    void testCompleteCancelRace_ExactlyOneWinner() throws Exception {
+        List<LongFunction<Object>> transitions = List.of(bookingService::completeBooking, bookingService::cancelBooking);
+        for (int round = 0; round < ROUNDS; round++) {
+            Long bookingId = saveBooking(BookingStatus.ACCEPTED).getId();
+
+            List<BookingStatus> winners = race(bookingId, transitions,
+                    List.of(BookingStatus.COMPLETED, BookingStatus.CANCELLED));
+
+            assertEquals(1, winners.size(), "round " + round + " winners " + winners);
+            Booking stored = bookingRepository.findById(bookingId).orElseThrow();
+            assertEquals(winners.get(0), stored.getStatus());
+            assertEquals(winners.get(0) == BookingStatus.COMPLETED, stored.getCompletedAt() != null);
+        }
+    }
+
+    @Test
+    void testBroadcastClaimRace_ExactlyOneProviderWins() throws Exception {
+        List<User> providers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            providers.add(saveUser("claimer" + i, UserRole.PROVIDER));
+        }
+        when(dispatchService.isOffered(anyLong(), anyLong())).thenReturn(true);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Booking broadcast = saveBooking(BookingStatus.REQUESTED, null);
+            Long bookingId = broadcast.getId();
+            List<LongFunction<Object>> claims = new ArrayList<>();
+            for (User claimer : providers) {
+                claims.add(id -> bookingService.claimBooking(id, claimer.getId()));
+            }
+
+            List<BookingStatus> winners = race(bookingId, claims, List.of(BookingStatus.ACCEPTED));
+
+            assertEquals(1, winners.size(), "round " + round + " winners " + winners);
+            Booking stored = bookingRepository.findById(bookingId).orElseThrow();
+            assertEquals(BookingStatus.ACCEPTED, stored.getStatus());
+            assertNotNull(stored.getProvider());
+            assertNotNull(stored.getAcceptedAt());
+        }
+    }
+
+    @Test
+    void testTransitionStatus_StaleExpectationChangesNothing() {
+        Long bookingId = saveBooking(BookingStatus.ACCEPTED).getId();
+
+        Integer updated = transactionTemplate.execute(status ->
+                bookingRepository.transitionStatus(bookingId, List.of(BookingStatus.REQUESTED), BookingStatus.REJECTED,
+                        LocalDateTime.now()));
+
+        assertEquals(0, updated);
+        assertEquals(BookingStatus.ACCEPTED, bookingRepository.findStatusById(bookingId).orElseThrow());
+        assertThrows(BadRequestException.class, () -> bookingService.rejectBooking(bookingId));
+    }
+
+    // Starts THREADS transitions at once, cycling through the given ones, and returns the target of each winner.
+    // Losers must fail with a conflict (lost the UPDATE) or a bad request (read the winner's committed status)
+    private List<BookingStatus> race(Long bookingId, List<LongFunction<Object>> transitions,
+                                     List<BookingStatus> targets) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            LongFunction<Object> transition = transitions.get(i % transitions.size());
+            Callable<Object> call = () -> {
+                start.await();
+                return transition.apply(bookingId);
+            };
+            futures.add(pool.submit(call));
+        }
+        start.countDown();
+
+        List<BookingStatus> winners = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(30, TimeUnit.SECONDS);
+                winners.add(targets.get(i % targets.size()));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                assertTrue(cause instanceof ConflictException || cause instanceof BadRequestException,
+                        "unexpected failure: " + cause);
+            } catch (TimeoutException e) {
+                fail("transition did not finish");
+            }
+        }
+        return winners;
+    }
+
+    private User saveUser(String name, UserRole role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setCity("Delhi");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private Booking saveBooking(BookingStatus status) {
+        return saveBooking(status, provider);
+    }
+
+    private Booking saveBooking(BookingStatus status, User assignee) {
+        Booking booking = new Booking();
+        booking.setUser(customer);
+        booking.setProvider(assignee);
+        booking.setServiceType(ServiceType.PLUMBER);
+        booking.setStatus(status);
+        return bookingRepository.save(booking);
+    }
+}
@@ -0,0 +1,220 @@
+package com.quickhelper.backend.repository;
+
+import com.quickhelper.backend.dto.ProviderResponseDTO;
+import com.quickhelper.backend.dto.RankingWeightsDTO;
+import com.quickhelper.backend.model.ProfileStatus;
+import com.quickhelper.backend.model.ProviderProfile;
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.model.User;
+import com.quickhelper.backend.model.UserRole;
+import com.quickhelper.backend.service.BookingLocationStreamService;
+import com.quickhelper.backend.service.FileStorageService;
+import com.quickhelper.backend.service.PlatformStatsService;
+import com.quickhelper.backend.service.ProviderAvailabilityRegistry;
+import com.quickhelper.backend.service.ProviderDensityGrid;
+import com.quickhelper.backend.service.ProviderGeoIndex;
+import com.quickhelper.backend.service.ProviderLocationService;
+import com.quickhelper.backend.service.ProviderRankingEngine;
+import com.quickhelper.backend.service.ProviderResponsivenessTracker;
+import com.quickhelper.backend.service.ProviderSearchCache;
+import com.quickhelper.backend.service.ProviderService;
+import com.quickhelper.backend.service.ProviderSnapshot;
+import com.quickhelper.backend.service.ProviderTextIndex;
+import com.quickhelper.backend.service.WeightedProviderScoringStage;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doReturn;
+
+// Guards the provider listing endpoints against N+1 regressions by counting prepared statements
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import({ProviderService.class, ProviderGeoIndex.class, ProviderRankingEngine.class,
+        WeightedProviderScoringStage.class, ProviderResponsivenessTracker.class, ProviderSearchCache.class,
+        ProviderTextIndex.class, ProviderLocationService.class, ProviderLocationJdbcRepository.class,
+        ProviderAvailabilityRegistry.class, ProviderDensityGrid.class, PlatformStatsService.class})
+class ProviderListingQueryCountTest {
+
+    private static final int PROVIDER_COUNT = 6;
+    private static final double LAT = 28.6139;
+    private static final double LNG = 77.2090;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProviderService providerService;
+
+    @SpyBean
+    private ProviderGeoIndex providerGeoIndex;
+
+    @Autowired
+    private ProviderSearchCache providerSearchCache;
+
+    @SpyBean
+    private ProviderTextIndex providerTextIndex;
+
+    @SpyBean
+    private ProviderAvailabilityRegistry availabilityRegistry;
+
+    @MockBean
+    private FileStorageService fileStorageService;
+
+    @MockBean
+    private BookingLocationStreamService bookingLocationStreamService;
+
+    private Statistics statistics;
+    private final List<ProviderProfile> approved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PROVIDER_COUNT; i++) {
+            approved.add(persistProvider("provider" + i, ProfileStatus.APPROVED, LAT + i * 0.001, LNG + i * 0.001));
+        }
+        persistProvider("pending0", ProfileStatus.PENDING_APPROVAL, LAT, LNG);
+        persistProvider("pending1", ProfileStatus.PENDING_APPROVAL, LAT, LNG);
+        entityManager.flush();
+        entityManager.clear();
+
+        availabilityRegistry.rebuild(approved.stream().map(ProviderSnapshot::of).collect(Collectors.toList()),
+                approved.stream().collect(Collectors.toMap(p -> p.getUser().getId(), p -> p.getUser().getCity())));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        providerSearchCache.clear();
+    }
+
+    @Test
+    void testGetAllProviders_SingleStatement() {
+        List<ProviderResponseDTO> all = assertStatements(1, () -> providerService.getAllProviders(null));
+        assertEquals(PROVIDER_COUNT, all.size());
+        assertEquals(2, all.get(0).getPortfolioImages().size());
+        assertNotNull(all.get(0).getUser().getName());
+
+        assertEquals(PROVIDER_COUNT, assertStatements(1, () -> providerService.getAllProviders(" delhi ")).size());
+        assertEquals(PROVIDER_COUNT, assertStatements(0, () -> providerService.getAllProviders("Delhi")).size());
+    }
+
+    @Test
+    void testListPendingProviders_SingleStatement() {
+        assertEquals(2, assertStatements(1, () -> providerService.listPendingProviders()).size());
+    }
+
+    @Test
+    void testGetAvailableProviders_SingleStatement() {
+        assertEquals(PROVIDER_COUNT, assertStatements(1,
+                () -> providerService.getAvailableProviders(ServiceType.PLUMBER, null)).size());
+        assertEquals(PROVIDER_COUNT, assertStatements(1,
+                () -> providerService.getAvailableProviders(ServiceType.PLUMBER, "Delhi")).size());
+    }
+
+    @Test
+    void testListings_DatabaseFallback() {
+        doReturn(false).when(availabilityRegistry).isReady();
+
+        assertEquals(PROVIDER_COUNT, assertStatements(1, () -> providerService.getAllProviders("Delhi")).size());
+        assertEquals(PROVIDER_COUNT, assertStatements(1,
+                () -> providerService.getAvailableProviders(ServiceType.PLUMBER, null)).size());
+    }
+
+    @Test
+    void testRegistry_SkipsSearchWhenNobodyIsAvailable() {
+        assertTrue(assertStatements(0, () -> providerService.getAvailableProviders(ServiceType.ELECTRICIAN, null)).isEmpty());
+        assertTrue(assertStatements(0, () -> providerService.getAllProviders("Mumbai")).isEmpty());
+        assertTrue(assertStatements(0, () -> providerService.getRankedProviders(
+                ServiceType.ELECTRICIAN, LAT, LNG, 10.0, 3, new RankingWeightsDTO())).isEmpty());
+    }
+
+    @Test
+    void testDistanceSearches_DatabaseFallback() {
+        doReturn(false).when(providerGeoIndex).isReady();
+
+        assertEquals(PROVIDER_COUNT, assertStatements(1,
+                () -> providerService.getAllProvidersWithinDistance(LAT, LNG, 10.0)).size());
+        assertEquals(PROVIDER_COUNT, assertStatements(1,
+                () -> providerService.getAvailableProvidersWithinDistance(ServiceType.PLUMBER, LAT, LNG, 10.0)).size());
+        assertEquals(3, assertStatements(2,
+                () -> providerService.getNearestAvailableProviders(ServiceType.PLUMBER, LAT, LNG, 3, 10.0)).size());
+        assertEquals(3, assertStatements(2,
+                () -> providerService.getRankedProviders(ServiceType.PLUMBER, LAT, LNG, 10.0, 3, new RankingWeightsDTO())).size());
+    }
+
+    @Test
+    void testDistanceSearches_GeoIndex() {
+        providerGeoIndex.rebuild(approved.stream().map(ProviderSnapshot::of).collect(Collectors.toList()));
+
+        assertEquals(PROVIDER_COUNT, assertStatements(1,
+                () -> providerService.getAllProvidersWithinDistance(LAT, LNG, 10.0)).size());
+        assertEquals(3, assertStatements(1,
+                () -> providerService.getNearestAvailableProviders(ServiceType.PLUMBER, LAT, LNG, 3, 10.0)).size());
+        assertEquals(3, assertStatements(1,
+                () -> providerService.getRankedProviders(ServiceType.PLUMBER, LAT, LNG, 10.0, 3, new RankingWeightsDTO())).size());
+    }
+
+    @Test
+    void testSearchProviders_SingleStatement() {
+        doReturn(false).when(providerTextIndex).isReady();
+        assertEquals(PROVIDER_COUNT, assertStatements(1,
+                () -> providerService.searchProviders("home serv", null, false, null, null, null, 10)).size());
+
+        doReturn(true).when(providerTextIndex).isReady();
+        providerTextIndex.rebuild(approved.stream()
+                .map(p -> new ProviderTextIndex.Document(ProviderSnapshot.of(p), p.getDisplayName(), null, null))
+                .collect(Collectors.toList()));
+        assertEquals(PROVIDER_COUNT, assertStatements(1,
+                () -> providerService.searchProviders("home serv", ServiceType.PLUMBER, true, LAT, LNG, 10.0, 10)).size());
+    }
+
+    private <T> T assertStatements(long expected, Supplier<T> call) {
+        entityManager.clear();
+        statistics.clear();
+        T result = call.get();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements issued");
+        return result;
+    }
+
+    private ProviderProfile persistProvider(String name, ProfileStatus status, double lat, double lng) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setCity("Delhi");
+        user.setRole(UserRole.PROVIDER);
+        entityManager.persist(user);
+
+        ProviderProfile profile = new ProviderProfile();
+        profile.setUser(user);
+        profile.setServiceType(ServiceType.PLUMBER);
+        profile.setDisplayName(name + " Home Services");
+        profile.setProfileStatus(status);
+        profile.setIsApproved(status == ProfileStatus.APPROVED);
+        profile.setBasePrice(500);
+        profile.setExperienceYears(3);
+        profile.setLocationLat(lat);
+        profile.setLocationLng(lng);
+        profile.setPortfolioImages(new ArrayList<>(List.of(name + "-1.jpg", name + "-2.jpg")));
+        return entityManager.persist(profile);
+    }
+}
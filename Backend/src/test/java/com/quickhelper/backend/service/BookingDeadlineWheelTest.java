@@ -0,0 +1,92 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.BookingDeadlineStatsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingDeadlineWheelTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<List<Long>> batches = new ArrayList<>();
+    private BookingDeadlineWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        // 8 slots of 100 ms, so deadlines beyond 800 ms wrap around the wheel
+        wheel = new BookingDeadlineWheel(100, 8, 2, Runnable::run, now::get);
+        wheel.setExpiryHandler(ids -> batches.add(new ArrayList<>(ids)));
+    }
+
+    @Test
+    void testAdvance_FiresDueDeadlinesInBatchesOldestFirst() {
+        wheel.schedule(1L, now.get() + 250);
+        wheel.schedule(2L, now.get() + 120);
+        wheel.schedule(3L, now.get() + 1_250); // one revolution later
+        wheel.schedule(4L, now.get() + 200);
+        wheel.schedule(5L, now.get() - 5_000); // already overdue
+
+        tick(100);
+        assertEquals(List.of(List.of(5L)), batches);
+
+        tick(200);
+        assertEquals(List.of(List.of(5L), List.of(2L, 4L), List.of(1L)), batches);
+
+        tick(900);
+        assertEquals(3, batches.size()); // same slot as deadline 1, but not due yet
+        tick(300);
+        assertEquals(List.of(3L), batches.get(3));
+
+        BookingDeadlineStatsDTO stats = wheel.stats();
+        assertEquals(0, stats.getPendingDeadlines());
+        assertEquals(5, stats.getExpired());
+        assertEquals(4, stats.getBatches());
+        assertTrue(stats.getMaxLagMillis() >= 5_000);
+    }
+
+    @Test
+    void testCancelAndReschedule() {
+        wheel.schedule(1L, now.get() + 150);
+        wheel.schedule(2L, now.get() + 150);
+        wheel.cancel(1L);
+        wheel.schedule(2L, now.get() + 450);
+        assertEquals(1, wheel.pendingCount());
+
+        tick(300);
+        assertTrue(batches.isEmpty());
+        tick(200);
+        assertEquals(List.of(List.of(2L)), batches);
+    }
+
+    @Test
+    void testAdvance_CatchesUpAfterStallAndRetriesFailedBatches() {
+        wheel.schedule(1L, now.get() + 300);
+        wheel.schedule(2L, now.get() + 700);
+        List<Long> failed = new ArrayList<>();
+        wheel.setExpiryHandler(ids -> {
+            if (failed.isEmpty()) {
+                failed.addAll(ids);
+                throw new IllegalStateException("database down");
+            }
+            batches.add(new ArrayList<>(ids));
+        });
+
+        tick(5_000); // several revolutions without a tick
+        assertEquals(List.of(1L, 2L), failed);
+        assertEquals(2, wheel.pendingCount());
+        assertEquals(1, wheel.stats().getFailedBatches());
+
+        tick(500);
+        assertEquals(List.of(List.of(1L, 2L)), batches);
+    }
+
+    private void tick(long millis) {
+        now.addAndGet(millis);
+        wheel.advance();
+    }
+}
@@ -0,0 +1,162 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.ProviderResponseDTO;
+import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.model.User;
+import com.quickhelper.backend.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingDispatchServiceTest {
+
+    private static final long BOOKING_ID = 1L;
+    private static final long USER_ID = 100L;
+    private static final long WINDOW_MS = 30_000;
+
+    @Mock
+    private ProviderService providerService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingStateMachine stateMachine;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private BookingDispatchService dispatchService;
+
+    @BeforeEach
+    void setUp() {
+        dispatchService = new BookingDispatchService(providerService, notificationService, bookingRepository,
+                stateMachine, new TransactionTemplate(transactionManager), 2, new double[]{3, 8}, WINDOW_MS, clock::get);
+    }
+
+    @Test
+    void testDispatch_OffersFirstRingAndEscalatesAfterWindow() {
+        ranked(3, 10L, 11L, 12L);
+        ranked(8, 10L, 11L, 12L, 13L);
+
+        dispatchService.dispatch(booking());
+        verify(notificationService).notifyBookingOffered(List.of(10L, 11L), BOOKING_ID, "PLUMBER");
+        assertTrue(dispatchService.isOffered(BOOKING_ID, 10L));
+        assertFalse(dispatchService.isOffered(BOOKING_ID, 12L));
+
+        clock.addAndGet(WINDOW_MS - 1);
+        dispatchService.escalateDue();
+        verify(notificationService, times(1)).notifyBookingOffered(anyList(), anyLong(), anyString());
+
+        clock.addAndGet(1);
+        dispatchService.escalateDue();
+        verify(notificationService).notifyBookingOffered(List.of(12L, 13L), BOOKING_ID, "PLUMBER");
+        assertTrue(dispatchService.isOffered(BOOKING_ID, 10L)); // earlier offers stay open
+    }
+
+    @Test
+    void testDecline_AllDeclinedEscalatesWithoutWaiting() {
+        ranked(3, 10L);
+        ranked(8, 10L, 12L);
+        dispatchService.dispatch(booking());
+
+        dispatchService.decline(BOOKING_ID, 10L);
+
+        verify(notificationService).notifyBookingOffered(List.of(12L), BOOKING_ID, "PLUMBER");
+        assertFalse(dispatchService.isOffered(BOOKING_ID, 10L));
+        assertTrue(dispatchService.isOffered(BOOKING_ID, 12L));
+    }
+
+    @Test
+    void testExhausted_RejectsRequestAndRevokesOffers() {
+        ranked(3, 10L);
+        ranked(8);
+        when(bookingRepository.transitionStatus(eq(BOOKING_ID), anyCollection(), eq(BookingStatus.REJECTED), any(LocalDateTime.class))).thenReturn(1);
+        dispatchService.dispatch(booking());
+
+        clock.addAndGet(WINDOW_MS);
+        dispatchService.escalateDue();
+
+        verify(notificationService).notifyNoProviderFound(USER_ID, BOOKING_ID);
+        verify(notificationService).notifyBookingOfferRevoked(List.of(10L), BOOKING_ID);
+        verify(stateMachine).applied(eq(new BookingEvent(BOOKING_ID, USER_ID, null,
+                BookingEventType.UNCLAIMED, BookingStatus.REQUESTED, BookingStatus.REJECTED)), any(), any(LocalDateTime.class));
+        assertEquals(0, dispatchService.activeCount());
+    }
+
+    @Test
+    void testExhausted_LosingToClaimLeavesRevocationToAward() {
+        ranked(3, 10L, 11L);
+        ranked(8, 10L, 11L);
+        when(bookingRepository.transitionStatus(eq(BOOKING_ID), anyCollection(), eq(BookingStatus.REJECTED), any(LocalDateTime.class))).thenReturn(0);
+        dispatchService.dispatch(booking());
+
+        clock.addAndGet(WINDOW_MS);
+        dispatchService.escalateDue();
+        verify(notificationService, never()).notifyNoProviderFound(anyLong(), anyLong());
+        verify(stateMachine, never()).applied(any(BookingEvent.class), any(), any());
+
+        dispatchService.awarded(BOOKING_ID, 11L);
+        verify(notificationService).notifyBookingOfferRevoked(List.of(10L), BOOKING_ID);
+        assertFalse(dispatchService.isOffered(BOOKING_ID, 11L));
+        assertEquals(0, dispatchService.activeCount());
+    }
+
+    @Test
+    void testWithdrawn_RevokesEveryOffer() {
+        ranked(3, 10L, 11L);
+        dispatchService.dispatch(booking());
+
+        dispatchService.withdrawn(BOOKING_ID);
+
+        verify(notificationService).notifyBookingOfferRevoked(List.of(10L, 11L), BOOKING_ID);
+        clock.addAndGet(WINDOW_MS);
+        dispatchService.escalateDue();
+        verify(providerService, times(1)).getRankedProviders(any(), anyDouble(), anyDouble(), anyDouble(), anyInt(), any());
+    }
+
+    private void ranked(double radiusKm, Long... providerUserIds) {
+        List<ProviderResponseDTO> providers = Arrays.stream(providerUserIds).map(id -> {
+            ProviderResponseDTO dto = new ProviderResponseDTO();
+            dto.setUserId(id);
+            return dto;
+        }).collect(Collectors.toList());
+        lenient().when(providerService.getRankedProviders(eq(ServiceType.PLUMBER), anyDouble(), anyDouble(), eq(radiusKm),
+                anyInt(), any())).thenReturn(providers);
+    }
+
+    private Booking booking() {
+        User user = new User();
+        user.setId(USER_ID);
+        Booking booking = new Booking();
+        booking.setId(BOOKING_ID);
+        booking.setUser(user);
+        booking.setServiceType(ServiceType.PLUMBER);
+        booking.setStatus(BookingStatus.REQUESTED);
+        booking.setLocationLat(28.6);
+        booking.setLocationLng(77.2);
+        return booking;
+    }
+}
@@ -0,0 +1,103 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.repository.BookingEventJdbcRepository;
+import com.quickhelper.backend.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingEventServiceTest {
+
+    @Mock
+    private BookingEventJdbcRepository eventRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingEventService eventService;
+
+    @BeforeEach
+    void setUp() {
+        eventService = new BookingEventService(eventRepository, bookingRepository);
+    }
+
+    @Test
+    void testProviderDeltas_MovesCountersWithTransitions() {
+        List<ProviderBookingStatsDelta> deltas = BookingEventService.providerDeltas(List.of(
+                event(1L, 5L, BookingEventType.CREATED, null, BookingStatus.REQUESTED),
+                event(2L, 5L, BookingEventType.ACCEPTED, BookingStatus.REQUESTED, BookingStatus.ACCEPTED),
+                event(2L, 5L, BookingEventType.PROVIDER_ON_WAY, BookingStatus.ACCEPTED, BookingStatus.ON_WAY),
+                event(3L, 6L, BookingEventType.COMPLETED, BookingStatus.ACCEPTED, BookingStatus.COMPLETED)));
+
+        assertEquals(2, deltas.size());
+        ProviderBookingStatsDelta first = deltas.get(0);
+        assertEquals(5L, first.getProviderId());
+        assertEquals(0, first.get(BookingStatus.REQUESTED));
+        assertEquals(0, first.get(BookingStatus.ACCEPTED));
+        assertEquals(1, first.get(BookingStatus.ON_WAY));
+        ProviderBookingStatsDelta second = deltas.get(1);
+        assertEquals(-1, second.get(BookingStatus.ACCEPTED));
+        assertEquals(1, second.get(BookingStatus.COMPLETED));
+    }
+
+    @Test
+    void testProviderDeltas_ClaimOnlyAddsToClaimingProvider() {
+        List<ProviderBookingStatsDelta> deltas = BookingEventService.providerDeltas(List.of(
+                event(1L, null, BookingEventType.CREATED, null, BookingStatus.REQUESTED),
+                event(1L, 5L, BookingEventType.CLAIMED, BookingStatus.REQUESTED, BookingStatus.ACCEPTED)));
+
+        assertEquals(1, deltas.size());
+        assertEquals(0, deltas.get(0).get(BookingStatus.REQUESTED));
+        assertEquals(1, deltas.get(0).get(BookingStatus.ACCEPTED));
+    }
+
+    @Test
+    void testRecordAll_AppendsAndAdjustsStatusCounts() {
+        when(bookingRepository.countGroupedByStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{BookingStatus.REQUESTED, 2L}, new Object[]{BookingStatus.ACCEPTED, 1L}));
+        eventService.reconcile();
+
+        List<BookingEvent> events = List.of(
+                event(1L, 5L, BookingEventType.ACCEPTED, BookingStatus.REQUESTED, BookingStatus.ACCEPTED),
+                event(2L, 5L, BookingEventType.PAYMENT_CONFIRMED, BookingStatus.COMPLETED, BookingStatus.COMPLETED));
+        eventService.recordAll(events);
+
+        verify(eventRepository).append(events);
+        verify(eventRepository).addProviderStats(anyList());
+        Map<BookingStatus, Long> counts = eventService.getStatusCounts();
+        assertEquals(1L, counts.get(BookingStatus.REQUESTED));
+        assertEquals(2L, counts.get(BookingStatus.ACCEPTED));
+        assertEquals(0L, counts.get(BookingStatus.COMPLETED));
+    }
+
+    @Test
+    void testRecordedInBulk_OnlyAdjustsStatusCounts() {
+        when(bookingRepository.countGroupedByStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{BookingStatus.REQUESTED, 3L}));
+        eventService.reconcile();
+
+        eventService.recordedInBulk(List.of(
+                event(1L, 5L, BookingEventType.TIMED_OUT, BookingStatus.REQUESTED, BookingStatus.REJECTED)));
+
+        verifyNoInteractions(eventRepository);
+        assertEquals(2L, eventService.getStatusCounts().get(BookingStatus.REQUESTED));
+        assertEquals(1L, eventService.getStatusCounts().get(BookingStatus.REJECTED));
+    }
+
+    private BookingEvent event(long bookingId, Long providerId, BookingEventType type,
+                               BookingStatus from, BookingStatus to) {
+        return new BookingEvent(bookingId, 100L, providerId, type, from, to);
+    }
+}
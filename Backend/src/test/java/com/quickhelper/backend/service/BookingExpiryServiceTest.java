@@ -0,0 +1,115 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.repository.BookingJdbcRepository;
+import com.quickhelper.backend.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExpiryServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private BookingDeadlineWheel deadlineWheel;
+
+    @Mock
+    private ProviderCapacityService capacityService;
+
+    @Mock
+    private BookingStateMachine stateMachine;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingExpiryService expiryService;
+
+    @BeforeEach
+    void setUp() {
+        expiryService = new BookingExpiryService(bookingRepository, bookingJdbcRepository, notificationService,
+                deadlineWheel, capacityService, stateMachine, new TransactionTemplate(transactionManager), 120, 3, 2);
+    }
+
+    @Test
+    void testSweepOverdue_RejectsInBoundedChunksAndNotifiesPerChunk() {
+        List<RejectedBooking> first = rejected(1, 2, 3);
+        List<RejectedBooking> second = rejected(4, 5, 6);
+        when(bookingJdbcRepository.rejectOverdue(any(LocalDateTime.class), eq(3))).thenReturn(first, second);
+
+        assertEquals(6, expiryService.sweepOverdue()); // stops at max-chunks even though the last chunk was full
+
+        verify(bookingJdbcRepository, times(2)).rejectOverdue(any(LocalDateTime.class), eq(3));
+        verify(notificationService).notifyBookingsRejected(first);
+        verify(notificationService).notifyBookingsRejected(second);
+        verify(deadlineWheel, times(6)).cancel(anyLong());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testSweepOverdue_StopsOnShortChunkAndSurvivesFailures() {
+        when(bookingJdbcRepository.rejectOverdue(any(LocalDateTime.class), eq(3))).thenReturn(rejected(1));
+        assertEquals(1, expiryService.sweepOverdue());
+        verify(bookingJdbcRepository, times(1)).rejectOverdue(any(LocalDateTime.class), eq(3));
+
+        doThrow(new IllegalStateException("outbox down")).when(notificationService).notifyBookingsRejected(anyList());
+        assertEquals(0, expiryService.sweepOverdue()); // the chunk's rejections roll back with its notifications
+        verify(transactionManager).rollback(any());
+        verify(deadlineWheel, times(1)).cancel(anyLong());
+
+        when(bookingJdbcRepository.rejectOverdue(any(LocalDateTime.class), eq(3)))
+                .thenThrow(new QueryTimeoutException("timeout"));
+        assertEquals(0, expiryService.sweepOverdue());
+    }
+
+    @Test
+    void testExpire_RejectsWheelBatchWithOneUpdate() {
+        List<RejectedBooking> stillRequested = rejected(7);
+        when(bookingJdbcRepository.rejectRequested(List.of(7L, 8L))).thenReturn(stillRequested);
+
+        expiryService.expire(List.of(7L, 8L));
+
+        verify(notificationService).notifyBookingsRejected(stillRequested);
+        verify(capacityService).released(List.of(700L));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testExpire_RollsBackBatchWhenNotificationsCannotBeQueued() {
+        when(bookingJdbcRepository.rejectRequested(List.of(7L))).thenReturn(rejected(7));
+        doThrow(new QueryTimeoutException("outbox")).when(notificationService).notifyBookingsRejected(anyList());
+
+        assertThrows(QueryTimeoutException.class, () -> expiryService.expire(List.of(7L))); // the wheel retries the batch
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private List<RejectedBooking> rejected(long... ids) {
+        List<RejectedBooking> result = new ArrayList<>();
+        for (long id : ids) {
+            result.add(new RejectedBooking(id, id * 10, id * 100, "Provider " + id, LocalDateTime.now()));
+        }
+        return result;
+    }
+}
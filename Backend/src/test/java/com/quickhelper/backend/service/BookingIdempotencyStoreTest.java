@@ -0,0 +1,60 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.BookingResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingIdempotencyStoreTest {
+
+    @Test
+    void testGet_ReturnsRecordedResponsePerUser() {
+        BookingIdempotencyStore store = new BookingIdempotencyStore(10, 60);
+
+        store.put(1L, "retry-1", response(5L));
+
+        assertEquals(5L, store.get(1L, "retry-1").getId());
+        assertNull(store.get(2L, "retry-1"));
+        assertNull(store.get(1L, "retry-2"));
+    }
+
+    @Test
+    void testPut_KeepsFirstResponse() {
+        BookingIdempotencyStore store = new BookingIdempotencyStore(10, 60);
+
+        store.put(1L, "retry-1", response(5L));
+        store.put(1L, "retry-1", response(6L));
+
+        assertEquals(5L, store.get(1L, "retry-1").getId());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testPut_EvictsOldestBeyondCapacity() {
+        BookingIdempotencyStore store = new BookingIdempotencyStore(2, 60);
+
+        store.put(1L, "a", response(1L));
+        store.put(1L, "b", response(2L));
+        store.put(1L, "c", response(3L));
+
+        assertEquals(2, store.size());
+        assertNull(store.get(1L, "a"));
+        assertEquals(3L, store.get(1L, "c").getId());
+    }
+
+    @Test
+    void testGet_ExpiresAfterTtl() {
+        BookingIdempotencyStore store = new BookingIdempotencyStore(10, 0);
+
+        store.put(1L, "retry-1", response(5L));
+
+        assertNull(store.get(1L, "retry-1"));
+        assertEquals(0, store.size());
+    }
+
+    private static BookingResponseDTO response(Long id) {
+        BookingResponseDTO dto = new BookingResponseDTO();
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,93 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.BookingLocationDTO;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingLocationStreamServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingLocationStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        streamService = new BookingLocationStreamService(messagingTemplate, bookingRepository, 3, 1000);
+    }
+
+    @Test
+    void testOnPosition_RateLimitsAndConflatesToNewestPoint() {
+        streamService.open(10L, 7L);
+
+        streamService.onPosition(new LivePosition(7L, 28.60, 77.20, 0));
+        streamService.onPosition(new LivePosition(7L, 28.61, 77.21, 200));
+        streamService.onPosition(new LivePosition(7L, 28.62, 77.22, 400));
+        streamService.flushPending(900); // interval not over yet
+        streamService.flushPending(1000);
+        streamService.flushPending(2500); // nothing held back any more
+
+        ArgumentCaptor<BookingLocationDTO> pushed = ArgumentCaptor.forClass(BookingLocationDTO.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/booking/10/location"), pushed.capture());
+        assertEquals(28.60, pushed.getAllValues().get(0).getLocationLat());
+        assertEquals(28.62, pushed.getAllValues().get(1).getLocationLat()); // the 200 ms point was dropped
+    }
+
+    @Test
+    void testHistory_KeepsMostRecentPointsInOrder() {
+        streamService.open(10L, 7L);
+        double[] lats = {28.60, 28.61, 28.62, 28.63, 28.64};
+        for (int i = 0; i < lats.length; i++) {
+            streamService.onPosition(new LivePosition(7L, lats[i], 77.20, i * 2000L));
+        }
+
+        List<BookingLocationDTO> history = streamService.history(10L);
+        assertEquals(List.of(28.62, 28.63, 28.64), history.stream().map(BookingLocationDTO::getLocationLat).toList());
+        assertTrue(history.stream().allMatch(point -> point.getBookingId() == 10L));
+    }
+
+    @Test
+    void testClose_StopsStreamingAndDropsBuffer() {
+        streamService.open(10L, 7L);
+        streamService.open(11L, 7L);
+        streamService.close(10L);
+
+        streamService.onPosition(new LivePosition(7L, 28.60, 77.20, 0));
+        streamService.onPosition(new LivePosition(8L, 19.07, 72.87, 0)); // provider without an active booking
+
+        verify(messagingTemplate).convertAndSend(eq("/topic/booking/11/location"), any(BookingLocationDTO.class));
+        verifyNoMoreInteractions(messagingTemplate);
+        assertFalse(streamService.isOpen(10L));
+        assertTrue(streamService.history(10L).isEmpty());
+        assertEquals(1, streamService.history(11L).size());
+    }
+
+    @Test
+    void testWarmUp_ReopensAcceptedBookings() {
+        when(bookingRepository.findIdAndProviderProfileIdByStatusIn(BookingStatus.UNDERWAY))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 7L}));
+
+        streamService.warmUp();
+
+        assertTrue(streamService.isOpen(10L));
+        streamService.onPosition(new LivePosition(7L, 28.60, 77.20, 0));
+        verify(messagingTemplate).convertAndSend(eq("/topic/booking/10/location"), any(BookingLocationDTO.class));
+    }
+}
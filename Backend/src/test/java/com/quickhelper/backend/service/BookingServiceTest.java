@@ -1,22 +1,34 @@
 package com.quickhelper.backend.service;
 
+import com.quickhelper.backend.dto.BookingBatchItemDTO;
+import com.quickhelper.backend.dto.BookingBatchRequestDTO;
+import com.quickhelper.backend.dto.BookingBatchResultDTO;
 import com.quickhelper.backend.dto.BookingRequestDTO;
+import com.quickhelper.backend.dto.BookingSummaryDTO;
 import com.quickhelper.backend.exception.BadRequestException;
 import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingEventType;
 import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.model.ProfileStatus;
+import com.quickhelper.backend.model.ProviderProfile;
 import com.quickhelper.backend.model.ServiceType;
 import com.quickhelper.backend.model.User;
 import com.quickhelper.backend.model.UserRole;
+import com.quickhelper.backend.repository.BookingJdbcRepository;
 import com.quickhelper.backend.repository.BookingRepository;
+import com.quickhelper.backend.repository.ProviderProfileRepository;
 import com.quickhelper.backend.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,15 +43,61 @@ class BookingServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private ProviderProfileRepository providerProfileRepository;
+
+    @Mock
+    private BookingDispatchService dispatchService;
+
+    @Mock
+    private ProviderResponsivenessTracker responsivenessTracker;
+
+    @Mock
+    private BookingLocationStreamService locationStreamService;
+
+    @Mock
+    private PlatformStatsService platformStatsService;
+
+    @Mock
+    private BookingIdempotencyStore idempotencyStore;
+
+    @Mock
+    private ProviderCalendarService calendarService;
+
+    @Mock
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    @Mock
+    private BookingEventService eventService;
+
+    @Mock
+    private BookingTransitionMetrics metrics;
+
+    @Mock
+    private BookingExpiryService bookingExpiryService;
+
+    @Mock
+    private ProviderCapacityService capacityService;
+
+    @Mock
+    private NotificationService notificationService;
+
     private BookingService bookingService;
 
     private User regularUser;
     private User providerUser;
+    private ProviderProfile providerProfile;
     private Booking booking;
 
     @BeforeEach
     void setUp() {
+        // A real state machine, so transitions move the booking's status as they do in production
+        BookingStateMachine stateMachine = new BookingStateMachine(eventService, metrics, calendarService);
+        bookingService = new BookingService(bookingRepository, userRepository, providerProfileRepository,
+                notificationService, bookingExpiryService, dispatchService, responsivenessTracker, locationStreamService,
+                platformStatsService, idempotencyStore, capacityService, stateMachine, bookingJdbcRepository,
+                calendarService);
+
         regularUser = new User();
         regularUser.setId(1L);
         regularUser.setName("Regular User");
@@ -52,6 +110,12 @@ class BookingServiceTest {
         providerUser.setEmail("provider@example.com");
         providerUser.setRole(UserRole.PROVIDER);
 
+        providerProfile = new ProviderProfile();
+        providerProfile.setId(20L);
+        providerProfile.setUser(providerUser);
+        providerProfile.setProfileStatus(ProfileStatus.APPROVED);
+        providerProfile.setIsAvailable(true);
+
         booking = new Booking();
         booking.setId(1L);
         booking.setUser(regularUser);
@@ -70,6 +134,7 @@ class BookingServiceTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(regularUser));
         when(userRepository.findById(2L)).thenReturn(Optional.of(providerUser));
+        when(providerProfileRepository.findByUser(providerUser)).thenReturn(Optional.of(providerProfile));
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
         // When
@@ -79,6 +144,9 @@ class BookingServiceTest {
         assertNotNull(result);
         assertEquals(BookingStatus.REQUESTED, result.getStatus());
         verify(bookingRepository).save(any(Booking.class));
+        verify(capacityService).reserve(2L);
+        verify(bookingExpiryService).scheduleTimeout(booking);
+        verify(notificationService).notifyBookingRequestSent(1L, 2L, 1L, "PLUMBER");
     }
 
     @Test
@@ -104,7 +172,8 @@ class BookingServiceTest {
     void testAcceptBooking_Success() {
         // Given
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(bookingRepository.markAccepted(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(providerProfileRepository.findByUserId(2L)).thenReturn(Optional.of(providerProfile));
 
         // When
         var result = bookingService.acceptBooking(1L);
@@ -112,7 +181,12 @@ class BookingServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(BookingStatus.ACCEPTED, result.getStatus());
-        verify(bookingRepository).save(any(Booking.class));
+        assertNotNull(result.getAcceptedAt());
+        verify(bookingRepository).markAccepted(eq(1L), any(LocalDateTime.class));
+        verify(bookingExpiryService).cancelTimeout(1L);
+        verify(locationStreamService).open(1L, 20L);
+        verify(notificationService).notifyBookingAccepted(1L, 1L, "Provider User");
+        verify(eventService).record(booking, BookingEventType.ACCEPTED, BookingStatus.REQUESTED);
     }
 
     @Test
@@ -131,7 +205,7 @@ class BookingServiceTest {
     void testRejectBooking_Success() {
         // Given
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(bookingRepository.transitionStatus(eq(1L), any(), eq(BookingStatus.REJECTED), any(LocalDateTime.class))).thenReturn(1);
 
         // When
         var result = bookingService.rejectBooking(1L);
@@ -139,7 +213,10 @@ class BookingServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(BookingStatus.REJECTED, result.getStatus());
-        verify(bookingRepository).save(any(Booking.class));
+        verify(bookingRepository).transitionStatus(eq(1L), any(), eq(BookingStatus.REJECTED), any(LocalDateTime.class));
+        verify(bookingExpiryService).cancelTimeout(1L);
+        verify(capacityService).release(2L);
+        verify(notificationService).notifyBookingRejected(1L, 1L, "Provider User");
     }
 
     @Test
@@ -147,7 +224,7 @@ class BookingServiceTest {
         // Given
         booking.setStatus(BookingStatus.ACCEPTED);
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(bookingRepository.markCompleted(eq(1L), any(), any(LocalDateTime.class))).thenReturn(1);
 
         // When
         var result = bookingService.completeBooking(1L);
@@ -155,7 +232,11 @@ class BookingServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(BookingStatus.COMPLETED, result.getStatus());
-        verify(bookingRepository).save(any(Booking.class));
+        assertNotNull(result.getCompletedAt());
+        verify(bookingRepository).markCompleted(eq(1L), any(), any(LocalDateTime.class));
+        verify(capacityService).release(2L);
+        verify(locationStreamService).close(1L);
+        verify(platformStatsService).onBookingCompleted();
     }
 
     @Test
@@ -168,4 +249,86 @@ class BookingServiceTest {
             bookingService.completeBooking(1L);
         });
     }
+
+    @Test
+    void testRespondToBookings_ReportsEachBooking() {
+        // Given
+        BookingBatchRequestDTO request = new BookingBatchRequestDTO();
+        request.setAction(BookingBatchRequestDTO.Action.REJECT);
+        request.setBookingIds(List.of(3L, 4L, 3L, 5L, 6L));
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        List<RejectedBooking> rejected = List.of(new RejectedBooking(3L, 1L, 2L, "Provider User", createdAt));
+
+        when(userRepository.findById(2L)).thenReturn(Optional.of(providerUser));
+        when(bookingJdbcRepository.rejectForProvider(eq(2L), eq(Set.of(3L, 4L, 5L, 6L)), any(LocalDateTime.class)))
+                .thenReturn(rejected);
+        when(bookingRepository.findIdStatusAndProviderIdByIdIn(List.of(4L, 5L, 6L))).thenReturn(List.<Object[]>of(
+                new Object[]{4L, BookingStatus.ACCEPTED, 2L}, new Object[]{5L, BookingStatus.REQUESTED, 7L}));
+
+        // When
+        BookingBatchResultDTO result = bookingService.respondToBookings(2L, request);
+
+        // Then
+        assertEquals(1, result.getApplied());
+        List<BookingBatchItemDTO> items = result.getResults();
+        assertEquals(List.of(3L, 4L, 5L, 6L), items.stream().map(BookingBatchItemDTO::getBookingId).toList());
+        assertTrue(items.get(0).isApplied());
+        assertEquals(BookingStatus.REJECTED, items.get(0).getStatus());
+        assertEquals("Booking is ACCEPTED", items.get(1).getMessage());
+        assertEquals("Booking is not assigned to this provider", items.get(2).getMessage());
+        assertNull(items.get(2).getStatus());
+        assertEquals("Booking not found", items.get(3).getMessage());
+        verify(capacityService).released(List.of(2L));
+        verify(notificationService).notifyBookingsRejected(rejected);
+        verify(eventService).recordedInBulk(argThat(events -> events.size() == 1
+                && events.get(0).getType() == BookingEventType.REJECTED));
+        verify(eventService, never()).recordAll(anyList());
+        verify(metrics).record(eq(BookingEventType.REJECTED), eq(BookingStatus.REQUESTED), anyLong());
+        verify(bookingExpiryService).cancelTimeout(3L);
+    }
+
+    @Test
+    void testGetBookingHistoryByUser_ReturnsCursorWhenMoreRows() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        List<BookingSummaryDTO> rows = List.of(summary(9L, now), summary(8L, now), summary(7L, now.minusHours(1)));
+        when(bookingRepository.findHistoryByUser(eq(1L), any(), any(Pageable.class))).thenReturn(rows);
+
+        // When
+        var page = bookingService.getBookingHistoryByUser(1L, null, null, 2);
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        BookingHistoryCursor next = BookingHistoryCursor.decode(page.getNextCursor());
+        assertEquals(8L, next.getId());
+        assertEquals(now, next.getCreatedAt());
+    }
+
+    @Test
+    void testGetBookingHistoryByProvider_ContinuesAfterCursor() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        String cursor = new BookingHistoryCursor(now, 8L).encode();
+        when(bookingRepository.findHistoryByProviderAfter(eq(2L), any(), eq(now), eq(8L), any(Pageable.class)))
+                .thenReturn(List.of(summary(7L, now.minusHours(1))));
+
+        // When
+        var page = bookingService.getBookingHistoryByProvider(2L, List.of(BookingStatus.COMPLETED), cursor, 2);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetBookingHistoryByUser_InvalidCursor() {
+        assertThrows(BadRequestException.class, () -> {
+            bookingService.getBookingHistoryByUser(1L, null, "not-a-cursor", 20);
+        });
+    }
+
+    private BookingSummaryDTO summary(Long id, LocalDateTime createdAt) {
+        return new BookingSummaryDTO(id, ServiceType.PLUMBER, BookingStatus.COMPLETED, null, createdAt,
+                null, null, 1L, "Regular User", 2L, "Provider User");
+    }
 }
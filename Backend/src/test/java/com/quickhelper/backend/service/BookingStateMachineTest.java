@@ -0,0 +1,108 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.BookingTransitionStatsDTO;
+import com.quickhelper.backend.exception.BadRequestException;
+import com.quickhelper.backend.model.Booking;
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingStateMachineTest {
+
+    @Mock
+    private BookingEventService eventService;
+
+    @Mock
+    private ProviderCalendarService calendarService;
+
+    private final BookingTransitionMetrics metrics = new BookingTransitionMetrics();
+    private BookingStateMachine stateMachine;
+
+    @BeforeEach
+    void setUp() {
+        stateMachine = new BookingStateMachine(eventService, metrics, calendarService);
+    }
+
+    @Test
+    void testRequire_FollowsTransitionTable() {
+        assertEquals(BookingStatus.ON_WAY,
+                BookingStateMachine.require(booking(BookingStatus.ON_WAY), BookingEventType.SERVICE_STARTED));
+        assertEquals(BookingStatus.IN_SERVICE,
+                BookingStateMachine.require(booking(BookingStatus.IN_SERVICE), BookingEventType.COMPLETED));
+        assertThrows(BadRequestException.class,
+                () -> BookingStateMachine.require(booking(BookingStatus.IN_SERVICE), BookingEventType.CANCELLED));
+        assertThrows(BadRequestException.class,
+                () -> BookingStateMachine.require(booking(BookingStatus.REJECTED), BookingEventType.ACCEPTED));
+    }
+
+    @Test
+    void testApplied_MovesBookingAndRecordsTimeInPreviousStatus() {
+        Booking booking = booking(BookingStatus.ACCEPTED);
+        LocalDateTime acceptedAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        booking.setStatusChangedAt(acceptedAt);
+
+        stateMachine.applied(booking, BookingEventType.PROVIDER_ON_WAY, acceptedAt.plusSeconds(90));
+
+        assertEquals(BookingStatus.ON_WAY, booking.getStatus());
+        assertEquals(acceptedAt.plusSeconds(90), booking.getStatusChangedAt());
+        verify(eventService).record(booking, BookingEventType.PROVIDER_ON_WAY, BookingStatus.ACCEPTED);
+        List<BookingTransitionStatsDTO> stats = metrics.snapshot();
+        assertEquals(1, stats.size());
+        assertEquals(BookingStatus.ACCEPTED, stats.get(0).getFromStatus());
+        assertEquals(BookingStatus.ON_WAY, stats.get(0).getToStatus());
+        assertEquals(90_000, stats.get(0).getMaxMillis());
+    }
+
+    @Test
+    void testApplied_SameStatusKeepsStatusChangedAt() {
+        Booking booking = booking(BookingStatus.COMPLETED);
+        LocalDateTime completedAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        booking.setStatusChangedAt(completedAt);
+
+        stateMachine.applied(booking, BookingEventType.PAYMENT_CONFIRMED, completedAt.plusMinutes(5));
+
+        assertEquals(completedAt, booking.getStatusChangedAt());
+        assertEquals(1, metrics.count(BookingEventType.PAYMENT_CONFIRMED, BookingStatus.COMPLETED));
+    }
+
+    @Test
+    void testAppliedInBulk_RecordsTimeSinceRequest() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        List<RejectedBooking> rejected = List.of(
+                new RejectedBooking(1L, 10L, 100L, "Provider 1", now.minusMinutes(2)),
+                new RejectedBooking(2L, 20L, 200L, "Provider 2", now.minusMinutes(3)));
+
+        stateMachine.appliedInBulk(BookingEventType.TIMED_OUT, rejected, now);
+
+        verify(eventService).recordedInBulk(argThat(events -> events.size() == 2
+                && events.get(0).getType() == BookingEventType.TIMED_OUT
+                && events.get(1).getToStatus() == BookingStatus.REJECTED));
+        verify(eventService, never()).recordAll(anyList());
+        verify(calendarService).ended(anyList());
+        assertEquals(2, metrics.count(BookingEventType.TIMED_OUT, BookingStatus.REQUESTED));
+        assertEquals(180_000, metrics.snapshot().get(0).getMaxMillis());
+    }
+
+    private Booking booking(BookingStatus status) {
+        User user = new User();
+        user.setId(1L);
+        Booking booking = new Booking();
+        booking.setId(5L);
+        booking.setUser(user);
+        booking.setStatus(status);
+        return booking;
+    }
+}
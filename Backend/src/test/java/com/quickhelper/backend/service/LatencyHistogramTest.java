@@ -0,0 +1,54 @@
+package com.quickhelper.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketOf_PowerOfTwoBoundaries() {
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(1, LatencyHistogram.bucketOf(1));
+        assertEquals(2, LatencyHistogram.bucketOf(2));
+        assertEquals(2, LatencyHistogram.bucketOf(3));
+        assertEquals(11, LatencyHistogram.bucketOf(1024));
+        assertEquals(39, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testPercentiles_ReportBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5_000);
+        }
+
+        assertEquals(100, histogram.count());
+        assertEquals(590, histogram.meanMillis());
+        assertEquals(127, histogram.percentileMillis(0.5));
+        assertEquals(127, histogram.percentileMillis(0.9));
+        assertEquals(5_000, histogram.percentileMillis(0.99)); // capped at the largest value seen
+        assertEquals(5_000, histogram.maxMillis());
+    }
+
+    @Test
+    void testRecord_NegativeCountsAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(1, histogram.count());
+        assertEquals(0, histogram.percentileMillis(1.0));
+    }
+
+    @Test
+    void testEmpty_ReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.meanMillis());
+        assertEquals(0, histogram.percentileMillis(0.99));
+    }
+}
@@ -0,0 +1,103 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.NotificationDTO;
+import com.quickhelper.backend.model.Notification;
+import com.quickhelper.backend.model.NotificationType;
+import com.quickhelper.backend.model.UserRole;
+import com.quickhelper.backend.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxDispatcherTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final List<Runnable> queued = new ArrayList<>();
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new NotificationOutboxDispatcher(outboxRepository, messagingTemplate, 2, queued::add);
+    }
+
+    @Test
+    void testDrain_MovesBatchesUntilOutboxIsEmpty() {
+        when(outboxRepository.drain(2)).thenReturn(
+                List.of(notification(1L, UserRole.USER, 10L), notification(2L, UserRole.PROVIDER, 20L)),
+                List.of(notification(3L, UserRole.USER, 10L)));
+
+        assertEquals(3, dispatcher.drain());
+
+        verify(outboxRepository, times(2)).drain(2);
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/user/10/notifications"), any(NotificationDTO.class));
+        verify(messagingTemplate).convertAndSend(eq("/topic/provider/20/notifications"), any(NotificationDTO.class));
+    }
+
+    @Test
+    void testDrain_FailedPushDoesNotStopBatch() {
+        when(outboxRepository.drain(2)).thenReturn(
+                List.of(notification(1L, UserRole.USER, 10L), notification(2L, UserRole.USER, 11L)),
+                List.of());
+        doThrow(new MessagingException("broker down"))
+                .when(messagingTemplate).convertAndSend(eq("/topic/user/10/notifications"), any(NotificationDTO.class));
+
+        assertEquals(2, dispatcher.drain());
+        verify(messagingTemplate).convertAndSend(eq("/topic/user/11/notifications"), any(NotificationDTO.class));
+    }
+
+    @Test
+    void testWakeUp_CoalescesUntilDrainRuns() {
+        when(outboxRepository.drain(2)).thenReturn(List.of());
+
+        dispatcher.wakeUp();
+        dispatcher.wakeUp();
+        assertEquals(1, queued.size());
+
+        queued.remove(0).run();
+        dispatcher.wakeUp();
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    void testWakeUp_SurvivesDatabaseFailure() {
+        when(outboxRepository.drain(2)).thenThrow(new QueryTimeoutException("timeout"));
+
+        dispatcher.wakeUp();
+        assertDoesNotThrow(() -> queued.remove(0).run());
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    private Notification notification(Long id, UserRole role, Long receiverId) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setReceiverId(receiverId);
+        notification.setReceiverRole(role);
+        notification.setType(NotificationType.BOOKING_ACCEPTED);
+        notification.setTitle("Booking Accepted");
+        notification.setMessage("Accepted");
+        notification.setIsRead(false);
+        notification.setIsHighPriority(false);
+        notification.setRelatedBookingId(5L);
+        notification.setCreatedAt(LocalDateTime.now());
+        return notification;
+    }
+}
@@ -0,0 +1,78 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.repository.BookingRepository;
+import com.quickhelper.backend.repository.ProviderProfileRepository;
+import com.quickhelper.backend.repository.ReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlatformStatsServiceTest {
+
+    @Mock
+    private ProviderProfileRepository providerProfileRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @InjectMocks
+    private PlatformStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        when(providerProfileRepository.countByIsApprovedTrue()).thenReturn(10L);
+        when(bookingRepository.countByStatus(BookingStatus.COMPLETED)).thenReturn(40L);
+        when(reviewRepository.count()).thenReturn(4L);
+        when(reviewRepository.sumRatings()).thenReturn(18L);
+    }
+
+    @Test
+    void testEvents_AdjustCountersWithoutQueries() {
+        statsService.warmUp();
+        statsService.onBookingCompleted();
+        statsService.onReviewCreated(2);
+        statsService.onProviderApprovalChanged(true);
+        statsService.onProviderApprovalChanged(true);
+        statsService.onProviderApprovalChanged(false);
+
+        assertEquals(11, statsService.getActiveProviders());
+        assertEquals(41, statsService.getJobsCompleted());
+        assertEquals(4.0, statsService.getAverageRating());
+        verify(reviewRepository, times(1)).sumRatings();
+    }
+
+    @Test
+    void testReconcile_ResetsDriftAndKeepsValuesOnFailure() {
+        statsService.warmUp();
+        statsService.onBookingCompleted();
+        statsService.reconcile();
+        assertEquals(40, statsService.getJobsCompleted());
+
+        when(bookingRepository.countByStatus(BookingStatus.COMPLETED)).thenThrow(new QueryTimeoutException("timeout"));
+        statsService.onBookingCompleted();
+        statsService.reconcile();
+        assertEquals(41, statsService.getJobsCompleted());
+    }
+
+    @Test
+    void testGetters_ReconcileLazilyBeforeWarmUp() {
+        when(reviewRepository.count()).thenReturn(0L);
+        when(reviewRepository.sumRatings()).thenReturn(0L);
+
+        assertNull(statsService.getAverageRating());
+        assertEquals(10, statsService.getActiveProviders());
+        verify(providerProfileRepository, times(1)).countByIsApprovedTrue();
+    }
+}
@@ -0,0 +1,63 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ServiceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderAvailabilityRegistryTest {
+
+    private ProviderAvailabilityRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ProviderAvailabilityRegistry();
+        registry.rebuild(List.of(
+                snapshot(1L, ServiceType.PLUMBER, true, true),
+                snapshot(2L, ServiceType.PLUMBER, false, true),
+                snapshot(3L, ServiceType.ELECTRICIAN, true, true),
+                snapshot(4L, ServiceType.PLUMBER, true, false)
+        ), Map.of(10L, "Delhi", 20L, "Mumbai", 30L, " delhi ", 40L, "Delhi"));
+    }
+
+    @Test
+    void testCandidates_IntersectsFilters() {
+        assertTrue(registry.isReady());
+        assertEquals(List.of(1L, 2L, 3L), registry.candidates(null, null, false));
+        assertEquals(List.of(1L), registry.candidates(ServiceType.PLUMBER, null, true));
+        assertEquals(List.of(1L, 3L), registry.candidates(null, "DELHI", true));
+        assertEquals(List.of(2L), registry.candidates(ServiceType.PLUMBER, "mumbai", false));
+        assertTrue(registry.candidates(null, "Pune", false).isEmpty());
+        assertEquals(0, registry.count(ServiceType.CLEANER, null, false));
+    }
+
+    @Test
+    void testApply_UpdatesBitsAndReusesFreedOrdinals() {
+        registry.apply(snapshot(2L, ServiceType.ELECTRICIAN, true, true), "Mumbai");
+        assertEquals(List.of(2L, 3L), registry.candidates(ServiceType.ELECTRICIAN, null, true));
+
+        registry.apply(snapshot(1L, ServiceType.PLUMBER, true, false), "Delhi");
+        assertEquals(List.of(3L), registry.candidates(null, "Delhi", false));
+
+        registry.apply(snapshot(5L, ServiceType.PLUMBER, true, true), "Pune");
+        assertEquals(List.of(5L, 2L, 3L), registry.candidates(null, null, false)); // took provider 1's ordinal
+        assertEquals(3, registry.size());
+    }
+
+    @Test
+    void testUpdateCity_MovesProviderUser() {
+        registry.updateCity(30L, "Mumbai");
+        registry.updateCity(40L, "Mumbai"); // not approved, ignored
+
+        assertEquals(List.of(1L), registry.candidates(null, "Delhi", false));
+        assertEquals(List.of(2L, 3L), registry.candidates(null, "Mumbai", false));
+    }
+
+    private ProviderSnapshot snapshot(long id, ServiceType type, boolean available, boolean approved) {
+        return new ProviderSnapshot(id, id * 10, type, 28.6, 77.2, available, approved, 4.0, 500, 3);
+    }
+}
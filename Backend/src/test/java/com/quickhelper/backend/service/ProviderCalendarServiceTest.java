@@ -0,0 +1,76 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.exception.BadRequestException;
+import com.quickhelper.backend.exception.ConflictException;
+import com.quickhelper.backend.model.BookingEventType;
+import com.quickhelper.backend.model.BookingStatus;
+import com.quickhelper.backend.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProviderCalendarServiceTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 5, 1, 9, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private final ProviderSlotIndex slotIndex = new ProviderSlotIndex();
+    private ProviderCalendarService calendarService;
+
+    @BeforeEach
+    void setUp() {
+        calendarService = new ProviderCalendarService(bookingRepository, slotIndex);
+    }
+
+    @Test
+    void testValidate_RejectsPartialOrInvertedSlots() {
+        assertDoesNotThrow(() -> ProviderCalendarService.validate(null, null));
+        assertThrows(BadRequestException.class, () -> ProviderCalendarService.validate(NINE, null));
+        assertThrows(BadRequestException.class, () -> ProviderCalendarService.validate(NINE, NINE));
+        assertThrows(BadRequestException.class, () -> ProviderCalendarService.validate(NINE, NINE.plusHours(13)));
+    }
+
+    @Test
+    void testRequireFree_QueriesDatabaseUntilIndexIsReady() {
+        when(bookingRepository.findScheduledSlotsOverlapping(eq(5L), eq(BookingStatus.ACTIVE), eq(NINE), eq(NINE.plusHours(1))))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, NINE, NINE.plusHours(2)}));
+
+        assertThrows(ConflictException.class, () -> calendarService.requireFree(5L, NINE, NINE.plusHours(1)));
+    }
+
+    @Test
+    void testReconcile_ServesChecksFromIndex() {
+        when(bookingRepository.findScheduledSlotsEndingAfter(eq(BookingStatus.ACTIVE), any(LocalDateTime.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 5L, NINE, NINE.plusHours(2)}));
+        calendarService.reconcile();
+
+        assertThrows(ConflictException.class, () -> calendarService.requireFree(5L, NINE.plusHours(1), NINE.plusHours(3)));
+        assertDoesNotThrow(() -> calendarService.requireFree(5L, NINE.plusHours(2), NINE.plusHours(3)));
+        verify(bookingRepository, never()).findScheduledSlotsOverlapping(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void testEnded_FreesSlotsOfBookingsLeavingActiveStatuses() {
+        slotIndex.rebuild(List.of(new BookedSlot(1L, 5L, NINE, NINE.plusHours(1)),
+                new BookedSlot(2L, 5L, NINE.plusHours(2), NINE.plusHours(3))));
+
+        calendarService.ended(List.of(
+                new BookingEvent(1L, 10L, 5L, BookingEventType.CANCELLED, BookingStatus.ACCEPTED, BookingStatus.CANCELLED),
+                new BookingEvent(2L, 10L, 5L, BookingEventType.ACCEPTED, BookingStatus.REQUESTED, BookingStatus.ACCEPTED)));
+
+        assertFalse(slotIndex.conflicts(5L, NINE, NINE.plusHours(1)));
+        assertTrue(slotIndex.conflicts(5L, NINE.plusHours(2), NINE.plusHours(3)));
+    }
+}
@@ -0,0 +1,93 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.exception.ConflictException;
+import com.quickhelper.backend.model.ProviderProfile;
+import com.quickhelper.backend.repository.ProviderProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProviderCapacityServiceTest {
+
+    @Mock
+    private ProviderProfileRepository providerProfileRepository;
+
+    @Mock
+    private ProviderService providerService;
+
+    private ProviderCapacityService capacityService;
+
+    @BeforeEach
+    void setUp() {
+        capacityService = new ProviderCapacityService(providerProfileRepository, providerService, 2);
+    }
+
+    @Test
+    void testReserve_PausesProviderOnLastSlot() {
+        ProviderProfile profile = new ProviderProfile();
+        when(providerProfileRepository.reserveSlot(5L, 2)).thenReturn(1);
+        when(providerProfileRepository.pauseIfSaturated(5L, 2)).thenReturn(0, 1);
+        when(providerProfileRepository.findByUserId(5L)).thenReturn(Optional.of(profile));
+
+        capacityService.reserve(5L);
+        capacityService.reserve(5L);
+
+        assertEquals(2, capacityService.activeBookings(5L));
+        assertFalse(capacityService.hasCapacity(5L));
+        verify(providerService, times(1)).syncSearchIndexes(profile);
+    }
+
+    @Test
+    void testReserve_RefusesFullProviderWithoutDatabase() {
+        when(providerProfileRepository.findActiveBookingCounts()).thenReturn(List.<Object[]>of(new Object[]{5L, 2}));
+        capacityService.reconcile();
+
+        assertThrows(ConflictException.class, () -> capacityService.reserve(5L));
+        verify(providerProfileRepository, never()).reserveSlot(anyLong(), anyInt());
+    }
+
+    @Test
+    void testReserve_ConditionalUpdateDecidesLastSlot() {
+        when(providerProfileRepository.reserveSlot(5L, 2)).thenReturn(0);
+
+        assertThrows(ConflictException.class, () -> capacityService.reserve(5L));
+        assertEquals(0, capacityService.activeBookings(5L));
+    }
+
+    @Test
+    void testRelease_ResumesPausedProvider() {
+        ProviderProfile profile = new ProviderProfile();
+        when(providerProfileRepository.findActiveBookingCounts()).thenReturn(List.<Object[]>of(new Object[]{5L, 2}));
+        capacityService.reconcile();
+        when(providerProfileRepository.releaseSlot(5L)).thenReturn(1);
+        when(providerProfileRepository.resumeIfFreed(5L, 2)).thenReturn(1);
+        when(providerProfileRepository.findByUserId(5L)).thenReturn(Optional.of(profile));
+
+        capacityService.release(5L);
+
+        assertEquals(1, capacityService.activeBookings(5L));
+        assertTrue(capacityService.hasCapacity(5L));
+        verify(providerService).syncSearchIndexes(profile);
+    }
+
+    @Test
+    void testReleased_CountsOneSlotPerBooking() {
+        when(providerProfileRepository.findActiveBookingCounts()).thenReturn(List.<Object[]>of(new Object[]{5L, 2}));
+        capacityService.reconcile();
+
+        capacityService.released(List.of(5L, 5L));
+
+        assertEquals(0, capacityService.activeBookings(5L));
+        verify(providerProfileRepository, never()).releaseSlot(anyLong());
+    }
+}
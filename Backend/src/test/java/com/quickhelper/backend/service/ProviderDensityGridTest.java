@@ -0,0 +1,64 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ServiceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderDensityGridTest {
+
+    private static final double DELHI_LAT = 28.6139;
+    private static final double DELHI_LNG = 77.2090;
+
+    private ProviderDensityGrid grid;
+
+    @BeforeEach
+    void setUp() {
+        grid = new ProviderDensityGrid(0.1);
+        grid.rebuild(List.of(
+                snapshot(1L, ServiceType.PLUMBER, 28.61, 77.21, true, true),
+                snapshot(2L, ServiceType.PLUMBER, 28.65, 77.25, false, true),
+                snapshot(3L, ServiceType.ELECTRICIAN, 28.70, 77.10, true, true),
+                snapshot(4L, ServiceType.PLUMBER, 28.61, 77.21, true, false), // not approved
+                snapshot(5L, ServiceType.PLUMBER, 19.07, 72.87, true, true)   // Mumbai
+        ));
+    }
+
+    @Test
+    void testCountWithin_FiltersByRadiusAndType() {
+        ProviderDensityGrid.Counts all = grid.countWithin(DELHI_LAT, DELHI_LNG, 50, null);
+        assertEquals(3, all.getApproved());
+        assertEquals(2, all.getAvailable());
+
+        ProviderDensityGrid.Counts plumbers = grid.countWithin(DELHI_LAT, DELHI_LNG, 50, ServiceType.PLUMBER);
+        assertEquals(2, plumbers.getApproved());
+        assertEquals(1, plumbers.getAvailable());
+
+        assertEquals(4, grid.countWithin(DELHI_LAT, DELHI_LNG, 1500, null).getApproved());
+        assertEquals(0, grid.countWithin(0, 0, 50, null).getApproved());
+    }
+
+    @Test
+    void testApplyAndMove_UpdateCountsIncrementally() {
+        grid.apply(snapshot(2L, ServiceType.PLUMBER, 28.65, 77.25, true, true));
+        assertEquals(2, grid.countWithin(DELHI_LAT, DELHI_LNG, 50, ServiceType.PLUMBER).getAvailable());
+
+        grid.apply(snapshot(4L, ServiceType.PLUMBER, 28.61, 77.21, true, true));
+        assertEquals(4, grid.countWithin(DELHI_LAT, DELHI_LNG, 50, null).getApproved());
+
+        grid.move(5L, 28.62, 77.20); // Mumbai provider drives to Delhi
+        assertEquals(5, grid.countWithin(DELHI_LAT, DELHI_LNG, 50, null).getApproved());
+        assertEquals(0, grid.countWithin(19.07, 72.87, 50, null).getApproved());
+
+        grid.remove(1L);
+        grid.apply(snapshot(3L, ServiceType.ELECTRICIAN, 28.70, 77.10, true, false));
+        assertEquals(3, grid.countWithin(DELHI_LAT, DELHI_LNG, 50, null).getApproved());
+    }
+
+    private ProviderSnapshot snapshot(long id, ServiceType type, double lat, double lng, boolean available, boolean approved) {
+        return new ProviderSnapshot(id, id * 10, type, lat, lng, available, approved, 4.0, 500, 3);
+    }
+}
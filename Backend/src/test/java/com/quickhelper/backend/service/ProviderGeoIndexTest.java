@@ -0,0 +1,69 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ServiceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderGeoIndexTest {
+
+    private ProviderGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProviderGeoIndex(0.05);
+        index.rebuild(List.of(
+                snapshot(1L, ServiceType.PLUMBER, 28.6139, 77.2090, true, true),  // Delhi
+                snapshot(2L, ServiceType.PLUMBER, 28.6500, 77.2300, false, true), // Delhi, busy
+                snapshot(3L, ServiceType.ELECTRICIAN, 28.6200, 77.2100, true, true),
+                snapshot(4L, ServiceType.PLUMBER, 19.0760, 72.8777, true, true),  // Mumbai
+                snapshot(5L, ServiceType.PLUMBER, 28.6140, 77.2091, true, false)  // not approved
+        ));
+    }
+
+    @Test
+    void testFindWithinRadius_FiltersByTypeAndAvailability() {
+        assertEquals(List.of(1L), index.findWithinRadius(ServiceType.PLUMBER, 28.6139, 77.2090, 10, true));
+        assertEquals(2, index.findWithinRadius(ServiceType.PLUMBER, 28.6139, 77.2090, 10, false).size());
+        assertEquals(3, index.findWithinRadius(null, 28.6139, 77.2090, 10, false).size());
+        assertEquals(4, index.findWithinRadius(null, 28.6139, 77.2090, 2000, false).size());
+    }
+
+    @Test
+    void testApply_MovesAndRemovesProviders() {
+        index.apply(snapshot(4L, ServiceType.PLUMBER, 28.6100, 77.2000, true, true));
+        assertTrue(index.findWithinRadius(ServiceType.PLUMBER, 28.6139, 77.2090, 5, true).contains(4L));
+
+        index.apply(snapshot(1L, ServiceType.PLUMBER, 28.6139, 77.2090, true, false));
+        assertEquals(List.of(4L), index.findWithinRadius(ServiceType.PLUMBER, 28.6139, 77.2090, 5, true));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testFindWithinRadius_AcrossAntimeridian() {
+        index.apply(snapshot(6L, ServiceType.CLEANER, 0.0, 179.99, true, true));
+        assertEquals(List.of(6L), index.findWithinRadius(ServiceType.CLEANER, 0.0, -179.99, 5, true));
+    }
+
+    @Test
+    void testFindNearest_ReturnsClosestFirstAndStopsAtK() {
+        for (int i = 0; i < 50; i++) {
+            index.apply(snapshot(100L + i, ServiceType.CLEANER, 12.9716 + i * 0.01, 77.5946, true, true));
+        }
+        List<ProviderGeoIndex.Neighbor> nearest = index.findNearest(ServiceType.CLEANER, 12.9716, 77.5946, 3, 50);
+        assertEquals(List.of(100L, 101L, 102L), nearest.stream().map(ProviderGeoIndex.Neighbor::getProviderId).toList());
+        assertTrue(nearest.get(0).getDistanceKm() < nearest.get(1).getDistanceKm());
+
+        // Far away providers are only picked up when the radius allows it
+        assertEquals(1, index.findNearest(ServiceType.PLUMBER, 19.0760, 72.8777, 2, 5).size());
+        assertEquals(2, index.findNearest(ServiceType.PLUMBER, 19.0760, 72.8777, 2, 2000).size());
+    }
+
+    private static ProviderSnapshot snapshot(long id, ServiceType type, double lat, double lng,
+                                             boolean available, boolean approved) {
+        return new ProviderSnapshot(id, id, type, lat, lng, available, approved, 4.0, 500, 3);
+    }
+}
@@ -0,0 +1,113 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ProviderProfile;
+import com.quickhelper.backend.model.ServiceType;
+import com.quickhelper.backend.repository.ProviderLocationJdbcRepository;
+import com.quickhelper.backend.repository.ProviderProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProviderLocationServiceTest {
+
+    @Mock
+    private ProviderProfileRepository providerProfileRepository;
+
+    @Mock
+    private ProviderLocationJdbcRepository providerLocationJdbcRepository;
+
+    @Mock
+    private ProviderSearchCache providerSearchCache;
+
+    @Mock
+    private BookingLocationStreamService bookingLocationStreamService;
+
+    private ProviderGeoIndex providerGeoIndex;
+    private ProviderLocationService locationService;
+
+    @BeforeEach
+    void setUp() {
+        providerGeoIndex = new ProviderGeoIndex(0.05);
+        providerGeoIndex.rebuild(List.of(
+                new ProviderSnapshot(7L, 70L, ServiceType.PLUMBER, 28.6139, 77.2090, true, true, 4.0, 500, 3)));
+        locationService = new ProviderLocationService(providerProfileRepository, providerLocationJdbcRepository,
+                providerGeoIndex, new ProviderTextIndex(), providerSearchCache, new ProviderDensityGrid(0.1),
+                bookingLocationStreamService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_CoalescesPingsIntoOneWritePerProvider() {
+        locationService.record(7L, 28.60, 77.20);
+        locationService.record(7L, 28.61, 77.21);
+        locationService.record(8L, 19.07, 72.87);
+
+        locationService.flush();
+
+        ArgumentCaptor<List<LivePosition>> batch = ArgumentCaptor.forClass(List.class);
+        verify(providerLocationJdbcRepository).batchUpdateLocations(batch.capture());
+        assertEquals(2, batch.getValue().size());
+        LivePosition moved = batch.getValue().stream().filter(p -> p.getProviderId() == 7L).findFirst().orElseThrow();
+        assertEquals(28.61, moved.getLat());
+        verify(providerSearchCache).invalidate(argThat(s -> s.getId() == 7L), isNull());
+
+        locationService.flush();
+        verifyNoMoreInteractions(providerLocationJdbcRepository);
+    }
+
+    @Test
+    void testRecord_MovesProviderInGeoIndexImmediately() {
+        locationService.record(7L, 19.0760, 72.8777);
+
+        assertEquals(List.of(7L), providerGeoIndex.findWithinRadius(ServiceType.PLUMBER, 19.0760, 72.8777, 1, true));
+        assertTrue(providerGeoIndex.findWithinRadius(ServiceType.PLUMBER, 28.6139, 77.2090, 1, true).isEmpty());
+        assertEquals(72.8777, locationService.currentPosition(7L).getLng());
+    }
+
+    @Test
+    void testRecord_IgnoresInvalidCoordinates() {
+        locationService.record(7L, 91.0, 0.0);
+        locationService.record(7L, null, 0.0);
+
+        assertNull(locationService.currentPosition(7L));
+        locationService.flush();
+        verifyNoInteractions(providerLocationJdbcRepository);
+    }
+
+    @Test
+    void testFlush_RequeuesOnFailureWithoutOverwritingNewerPings() {
+        when(providerLocationJdbcRepository.batchUpdateLocations(anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+        locationService.record(7L, 28.60, 77.20);
+        locationService.flush();
+
+        locationService.flush();
+        verify(providerLocationJdbcRepository, times(2)).batchUpdateLocations(anyList());
+    }
+
+    @Test
+    void testRecordForUser_ResolvesProfileOnce() {
+        ProviderProfile profile = new ProviderProfile();
+        profile.setId(7L);
+        when(providerProfileRepository.findByUserId(70L)).thenReturn(Optional.of(profile));
+
+        locationService.recordForUser(70L, 28.60, 77.20);
+        locationService.recordForUser(70L, 28.61, 77.21);
+
+        verify(providerProfileRepository, times(1)).findByUserId(70L);
+        assertEquals(28.61, locationService.currentPosition(7L).getLat());
+    }
+}
@@ -0,0 +1,69 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.RankingWeightsDTO;
+import com.quickhelper.backend.model.ServiceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderRankingEngineTest {
+
+    private ProviderRankingEngine engine;
+    private RankingCandidates candidates;
+
+    @BeforeEach
+    void setUp() {
+        engine = new ProviderRankingEngine(new WeightedProviderScoringStage());
+        candidates = new RankingCandidates(4);
+        candidates.add(snapshot(1L, 3.0, 800, 2), 1.0, Double.NaN);   // close, mediocre
+        candidates.add(snapshot(2L, 5.0, 400, 15), 6.0, 30.0);        // further, excellent
+        candidates.add(snapshot(3L, 4.0, 600, 5), 4.0, 600.0);        // middle, slow to accept
+        candidates.add(snapshot(4L, 1.0, 1000, 0), 9.5, Double.NaN);  // far, poor
+    }
+
+    @Test
+    void testTopN_DistanceOnlyOrdersByDistance() {
+        RankingWeightsDTO weights = new RankingWeightsDTO();
+        weights.setRating(0);
+        weights.setPrice(0);
+        weights.setExperience(0);
+        weights.setResponsiveness(0);
+
+        double[] scores = new double[candidates.size()];
+        int[] top = engine.topN(candidates, weights, 10.0, 3, scores);
+
+        assertArrayEquals(new long[]{1L, 3L, 2L}, providerIds(top));
+    }
+
+    @Test
+    void testTopN_DefaultWeightsFavourQuality() {
+        double[] scores = new double[candidates.size()];
+        int[] top = engine.topN(candidates, new RankingWeightsDTO(), 10.0, 2, scores);
+
+        assertEquals(2L, candidates.providerId(top[0]));
+        assertTrue(scores[top[0]] >= scores[top[1]]);
+        for (double score : scores) {
+            assertTrue(score >= 0.0 && score <= 1.0);
+        }
+    }
+
+    @Test
+    void testTopN_LimitLargerThanCandidates() {
+        double[] scores = new double[candidates.size()];
+        assertEquals(4, engine.topN(candidates, new RankingWeightsDTO(), 10.0, 50, scores).length);
+        assertEquals(0, engine.topN(new RankingCandidates(0), new RankingWeightsDTO(), 10.0, 5, new double[0]).length);
+    }
+
+    private long[] providerIds(int[] slots) {
+        long[] ids = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            ids[i] = candidates.providerId(slots[i]);
+        }
+        return ids;
+    }
+
+    private ProviderSnapshot snapshot(long id, double rating, int basePrice, int experienceYears) {
+        return new ProviderSnapshot(id, id, ServiceType.PLUMBER, 0, 0, true, true, rating, basePrice, experienceYears);
+    }
+}
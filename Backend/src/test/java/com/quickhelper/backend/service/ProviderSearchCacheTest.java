@@ -0,0 +1,130 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.ProviderResponseDTO;
+import com.quickhelper.backend.dto.SearchCacheStatsDTO;
+import com.quickhelper.backend.model.ServiceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderSearchCacheTest {
+
+    private ProviderSearchCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProviderSearchCache(2, 60, 0.01);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testGet_HitsAfterFirstLoad() {
+        ProviderSearchCache.Key key = cache.listingKey(ServiceType.PLUMBER, " Delhi ", true);
+
+        cache.get(key, () -> load(1L));
+        List<ProviderResponseDTO> cached = cache.get(cache.listingKey(ServiceType.PLUMBER, "delhi", true), () -> load(1L));
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, cached.get(0).getId());
+        SearchCacheStatsDTO stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsed() {
+        ProviderSearchCache.Key plumbers = cache.listingKey(ServiceType.PLUMBER, null, true);
+        ProviderSearchCache.Key electricians = cache.listingKey(ServiceType.ELECTRICIAN, null, true);
+        ProviderSearchCache.Key everyone = cache.listingKey(null, null, false);
+
+        cache.get(plumbers, () -> load(1L));
+        cache.get(electricians, () -> load(2L));
+        cache.get(plumbers, () -> load(1L));
+        cache.get(everyone, () -> load(1L, 2L));
+
+        assertEquals(1, cache.stats().getEvictions());
+        cache.get(plumbers, () -> load(1L));
+        assertEquals(3, loads.get());
+        cache.get(electricians, () -> load(2L));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testGet_ExpiresAfterTtl() {
+        cache = new ProviderSearchCache(10, 0, 0.01);
+        ProviderSearchCache.Key key = cache.listingKey(null, null, false);
+
+        cache.get(key, () -> load(1L));
+        cache.get(key, () -> load(1L));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @Test
+    void testInvalidate_OnlyDropsAffectedEntries() {
+        ProviderSearchCache.Key delhiPlumbers = cache.listingKey(ServiceType.PLUMBER, "Delhi", true);
+        ProviderSearchCache.Key mumbaiPlumbers = cache.listingKey(ServiceType.PLUMBER, "Mumbai", true);
+        cache.get(delhiPlumbers, () -> load(1L));
+        cache.get(mumbaiPlumbers, () -> load(2L));
+
+        // A Delhi plumber going offline leaves the Mumbai listing alone
+        cache.invalidate(snapshot(1L, ServiceType.PLUMBER, 28.61, 77.20, false), "Delhi");
+        cache.get(mumbaiPlumbers, () -> load(2L));
+        assertEquals(2, loads.get());
+
+        // A new Delhi plumber joins the Delhi listing even though it was not in the cached results
+        cache.get(delhiPlumbers, () -> load());
+        cache.invalidate(snapshot(3L, ServiceType.PLUMBER, 28.61, 77.20, true), "Delhi");
+        cache.get(delhiPlumbers, () -> load(3L));
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.stats().getInvalidations());
+    }
+
+    @Test
+    void testInvalidate_AreaEntriesUseDistance() {
+        ProviderSearchCache.Key delhi = cache.areaKey(ServiceType.PLUMBER, true, 28.6139, 77.2090, 10);
+        assertEquals(delhi, cache.areaKey(ServiceType.PLUMBER, true, 28.6141, 77.2093, 10));
+        cache.get(delhi, () -> load());
+
+        cache.invalidate(snapshot(1L, ServiceType.PLUMBER, 19.07, 72.87, true), "Mumbai");
+        cache.get(delhi, () -> load());
+        assertEquals(1, loads.get());
+
+        cache.invalidate(snapshot(2L, ServiceType.PLUMBER, 28.65, 77.23, true), null);
+        cache.get(delhi, () -> load(2L));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_DoesNotStoreLoadRacingWithInvalidation() {
+        ProviderSearchCache.Key key = cache.listingKey(null, null, false);
+
+        cache.get(key, () -> {
+            cache.invalidate(snapshot(9L, ServiceType.PLUMBER, 0, 0, true), null);
+            return load(1L);
+        });
+        cache.get(key, () -> load(1L));
+
+        assertEquals(2, loads.get());
+    }
+
+    private List<ProviderResponseDTO> load(Long... ids) {
+        loads.incrementAndGet();
+        return java.util.Arrays.stream(ids).map(id -> {
+            ProviderResponseDTO dto = new ProviderResponseDTO();
+            dto.setId(id);
+            return dto;
+        }).toList();
+    }
+
+    private ProviderSnapshot snapshot(long id, ServiceType type, double lat, double lng, boolean available) {
+        return new ProviderSnapshot(id, id, type, lat, lng, available, true, 4.0, 500, 3);
+    }
+}
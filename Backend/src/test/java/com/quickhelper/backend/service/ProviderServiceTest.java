@@ -32,6 +32,27 @@ class ProviderServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ProviderGeoIndex providerGeoIndex;
+
+    @Mock
+    private ProviderSearchCache providerSearchCache;
+
+    @Mock
+    private ProviderTextIndex providerTextIndex;
+
+    @Mock
+    private ProviderLocationService providerLocationService;
+
+    @Mock
+    private ProviderAvailabilityRegistry availabilityRegistry;
+
+    @Mock
+    private ProviderDensityGrid densityGrid;
+
+    @Mock
+    private PlatformStatsService platformStatsService;
+
     @InjectMocks
     private ProviderService providerService;
 
@@ -0,0 +1,79 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.dto.TimeSlotDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderSlotIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    private ProviderSlotIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProviderSlotIndex();
+        index.rebuild(List.of(
+                slot(1L, 5L, 9, 10),
+                slot(2L, 5L, 12, 14),
+                slot(3L, 6L, 9, 17)));
+    }
+
+    @Test
+    void testConflicts_OnlyOverlappingIntervalsOfSameProvider() {
+        assertTrue(index.conflicts(5L, at(9, 30), at(11, 0)));
+        assertTrue(index.conflicts(5L, at(11, 0), at(15, 0)));
+        assertFalse(index.conflicts(5L, at(10, 0), at(12, 0))); // touching ends are free
+        assertFalse(index.conflicts(5L, at(14, 0), at(18, 0)));
+        assertFalse(index.conflicts(7L, at(9, 0), at(17, 0)));
+    }
+
+    @Test
+    void testFreeSlots_ReturnsGapsClippedToWindow() {
+        List<TimeSlotDTO> free = index.freeSlots(5L, at(9, 30), at(16, 0), Duration.ofHours(1));
+
+        assertEquals(2, free.size());
+        assertEquals(new TimeSlotDTO(at(10, 0), at(12, 0)), free.get(0));
+        assertEquals(new TimeSlotDTO(at(14, 0), at(16, 0)), free.get(1));
+    }
+
+    @Test
+    void testFreeSlots_SkipsGapsShorterThanMinimum() {
+        index.add(slot(4L, 5L, 10, 11));
+
+        List<TimeSlotDTO> free = index.freeSlots(5L, at(8, 0), at(14, 0), Duration.ofMinutes(90));
+
+        assertEquals(List.of(), free);
+    }
+
+    @Test
+    void testRemove_FreesTheSlot() {
+        index.remove(5L, 2L);
+
+        assertFalse(index.conflicts(5L, at(12, 0), at(13, 0)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testAdd_DropsStaleOverlappingSlots() {
+        index.add(new BookedSlot(4L, 5L, at(9, 30), at(12, 30)));
+
+        assertEquals(2, index.size());
+        assertFalse(index.conflicts(5L, at(9, 0), at(9, 30)));
+        assertTrue(index.conflicts(5L, at(12, 0), at(12, 15)));
+    }
+
+    private static BookedSlot slot(long bookingId, long providerUserId, int startHour, int endHour) {
+        return new BookedSlot(bookingId, providerUserId, at(startHour, 0), at(endHour, 0));
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.withHour(hour).withMinute(minute);
+    }
+}
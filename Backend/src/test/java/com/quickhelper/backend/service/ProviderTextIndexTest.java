@@ -0,0 +1,79 @@
+package com.quickhelper.backend.service;
+
+import com.quickhelper.backend.model.ServiceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderTextIndexTest {
+
+    private ProviderTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProviderTextIndex();
+        index.rebuild(List.of(
+                document(1L, ServiceType.PLUMBER, 28.6139, 77.2090, true, "Ravi Plumbing",
+                        "Leak repair in minutes", "Pipe leak and bathroom fitting repair"),
+                document(2L, ServiceType.PLUMBER, 19.0760, 72.8777, true, "Mumbai Pipes",
+                        "Plumber for every home", "Kitchen sink and pipe work"),
+                document(3L, ServiceType.ELECTRICIAN, 28.6200, 77.2100, false, "Bright Sparks",
+                        "Certified electrician", "Wiring, switch boards and fan repair"),
+                document(4L, ServiceType.PLUMBER, 28.6140, 77.2091, true, "Hidden",
+                        "Pipe repair", null)
+        ));
+    }
+
+    @Test
+    void testSearch_PrefixMatchesAndRanksByWeightedFrequency() {
+        List<Long> ids = ids(index.search("plumb", null, false, null, null, null, 10));
+        assertEquals(List.of(1L, 2L), ids); // a name match outranks a tagline match
+
+        assertEquals(List.of(1L, 4L), ids(index.search("Pipe REP", null, false, null, null, null, 10)));
+        assertTrue(index.search("p", null, false, null, null, null, 10).isEmpty());
+        assertTrue(index.search("tiles", null, false, null, null, null, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_AppliesFilters() {
+        assertEquals(List.of(1L, 4L, 3L), ids(index.search("repair", null, false, null, null, null, 10)));
+        assertEquals(List.of(1L, 4L), ids(index.search("repair", ServiceType.PLUMBER, true, null, null, null, 10)));
+        assertTrue(ids(index.search("repair", null, true, null, null, null, 10)).stream().noneMatch(id -> id == 3L));
+
+        List<ProviderTextIndex.Hit> nearby = index.search("pipe", null, false, 28.6139, 77.2090, 10.0, 10);
+        assertEquals(List.of(4L, 1L), ids(nearby));
+        assertTrue(nearby.get(0).getDistanceKm() < 1.0);
+        assertEquals(1, index.search("pipe", null, false, null, null, null, 1).size());
+    }
+
+    @Test
+    void testApply_ReindexesAndDropsUnapproved() {
+        index.apply(document(2L, ServiceType.PLUMBER, 19.0760, 72.8777, true, "Mumbai Tiles",
+                "Tiling and marble", null));
+        assertEquals(List.of(1L), ids(index.search("plumb", null, false, null, null, null, 10)));
+        assertEquals(List.of(2L), ids(index.search("marb", null, false, null, null, null, 10)));
+
+        index.apply(new ProviderTextIndex.Document(new ProviderSnapshot(1L, 1L, ServiceType.PLUMBER,
+                28.6139, 77.2090, true, false, 4.0, 500, 3), "Ravi Plumbing", null, null));
+        assertTrue(index.search("ravi", null, false, null, null, null, 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("ac", "repair", "24x7"), ProviderTextIndex.tokenize("AC repair, 24x7! a"));
+    }
+
+    private List<Long> ids(List<ProviderTextIndex.Hit> hits) {
+        return hits.stream().map(ProviderTextIndex.Hit::getProviderId).toList();
+    }
+
+    private ProviderTextIndex.Document document(long id, ServiceType type, double lat, double lng, boolean available,
+                                                String name, String tagline, String description) {
+        return new ProviderTextIndex.Document(new ProviderSnapshot(id, id, type, lat, lng, available, true, 4.0, 500, 3),
+                name, tagline, description);
+    }
+}
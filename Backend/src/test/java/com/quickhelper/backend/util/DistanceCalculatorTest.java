@@ -0,0 +1,35 @@
+package com.quickhelper.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceCalculatorTest {
+
+    @Test
+    void testCalculateDistance_DelhiToMumbai() {
+        double distance = DistanceCalculator.calculateDistance(28.6139, 77.2090, 19.0760, 72.8777);
+        assertEquals(1148.0, distance, 5.0);
+    }
+
+    @Test
+    void testCalculateDistances_MatchesScalarAndRejectsFarPoints() {
+        double[] lats = {28.6139, 28.7041, 19.0760, 12.9716};
+        double[] lngs = {77.2090, 77.1025, 72.8777, 77.5946};
+        double[] out = new double[lats.length];
+
+        int within = DistanceCalculator.calculateDistances(28.6139, 77.2090, lats, lngs, lats.length, out,
+                Double.POSITIVE_INFINITY);
+        assertEquals(4, within);
+        for (int i = 0; i < lats.length; i++) {
+            assertEquals(DistanceCalculator.calculateDistance(28.6139, 77.2090, lats[i], lngs[i]), out[i], 1e-9);
+        }
+
+        within = DistanceCalculator.calculateDistances(28.6139, 77.2090, lats, lngs, lats.length, out, 50);
+        assertEquals(2, within);
+        assertEquals(0.0, out[0], 1e-9);
+        assertTrue(out[1] < 50);
+        assertEquals(Double.POSITIVE_INFINITY, out[2]);
+        assertEquals(Double.POSITIVE_INFINITY, out[3]);
+    }
+}
@@ -41,6 +41,8 @@ const SERVICE_MAPPING: Record<ServiceType, { label: string; icon: any; color: st
 const STATUS_CONFIG: Record<BookingStatus, { label: string; bg: string; text: string }> = {
   REQUESTED: { label: 'Scheduled', bg: '#F3F4F6', text: '#6B7280' },
   ACCEPTED: { label: 'In Progress', bg: '#DBEAFE', text: '#2563EB' },
+  ON_WAY: { label: 'On the Way', bg: '#DBEAFE', text: '#2563EB' },
+  IN_SERVICE: { label: 'In Progress', bg: '#DBEAFE', text: '#2563EB' },
   REJECTED: { label: 'Cancelled', bg: '#FEE2E2', text: '#DC2626' },
   CANCELLED: { label: 'Cancelled', bg: '#FEE2E2', text: '#DC2626' },
   COMPLETED: { label: 'Completed', bg: '#D1FAE5', text: '#16A34A' },
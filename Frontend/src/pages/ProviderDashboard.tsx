@@ -114,13 +114,15 @@ export const ProviderDashboard = ({ user }: ProviderDashboardProps) => {
     // Optimistic update all
     bookingIds.forEach(id => optimisticUpdateStatus(id, 'ACCEPTED'))
     try {
-      // Process sequentially to ensure all are accepted
-      // In a real optimized backend, we'd have a batch-accept endpoint
-      await Promise.all(bookingIds.map(id => bookingService.acceptBooking(id)))
-      toast.success(`Accepted package of ${bookingIds.length} bookings!`)
+      const result = await bookingService.respondToBookings(user.id, 'ACCEPT', bookingIds)
+      if (result.applied === bookingIds.length) {
+        toast.success(`Accepted package of ${bookingIds.length} bookings!`)
+      } else {
+        toast.error(`Accepted ${result.applied} of ${bookingIds.length} bookings in the package`)
+      }
       fetchData()
     } catch (error: any) {
-      toast.error('Failed to accept some bookings in the package')
+      toast.error(error.response?.data?.message || 'Failed to accept the package')
       fetchData()
     }
   }
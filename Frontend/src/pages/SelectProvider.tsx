@@ -27,6 +27,15 @@ const SERVICE_TYPE_LABELS: Record<ServiceType, string> = SERVICE_TYPES.reduce((a
   return acc;
 }, {} as Record<ServiceType, string>);
 
+// One-hour slot starting at the chosen date and time, sent so the provider's calendar can refuse double-bookings
+const toSchedule = (date: string, time?: string) => {
+  if (!time) return {}
+  const start = `${date}T${time.length === 5 ? `${time}:00` : time}`
+  const end = new Date(`${start}Z`)
+  end.setUTCHours(end.getUTCHours() + 1)
+  return { scheduledStart: start, scheduledEnd: end.toISOString().slice(0, 19) }
+}
+
 export const SelectProvider = () => {
   const { user } = useAuth()
   const navigate = useNavigate()
@@ -194,6 +203,7 @@ export const SelectProvider = () => {
               note: data.note,
               bookingDate: bookingDate.toISOString().split('T')[0],
               preferredTime: data.time,
+              ...toSchedule(bookingDate.toISOString().split('T')[0], data.time),
             })
             successCount++
           } catch (error) {
@@ -208,6 +218,7 @@ export const SelectProvider = () => {
           note: data.note,
           bookingDate: data.date,
           preferredTime: data.time,
+          ...toSchedule(data.date, data.time),
         })
         toast.success(
           `Booking request sent to ${SERVICE_TYPE_LABELS[selectedProvider.serviceType]} for ${new Date(data.date).toLocaleDateString()}`
@@ -248,6 +259,7 @@ export const SelectProvider = () => {
               note: 'Multiple Booking Package',
               bookingDate: day.toISOString().split('T')[0],
               preferredTime: '09:00', // Default time for batch
+              ...toSchedule(day.toISOString().split('T')[0], '09:00'),
             })
             successCount++
           } catch (err) {
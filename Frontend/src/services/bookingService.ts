@@ -1,7 +1,7 @@
 // Import the API client for making HTTP requests
 import { apiClient } from './apiClient'
 // Import type definitions for booking-related data structures
-import type { Booking, BookingRequest } from '../types'
+import type { Booking, BookingBatchResult, BookingRequest, TimeSlot } from '../types'
 
 // Booking service object containing methods for booking-related API operations
 export const bookingService = {
@@ -48,6 +48,42 @@ export const bookingService = {
     return response.data
   },
 
+  // Accepts or rejects several pending booking requests of a provider in one request
+  // @param providerId - The ID of the provider answering the requests
+  // @param action - 'ACCEPT' or 'REJECT'
+  // @param bookingIds - IDs of the bookings to answer (at most 100)
+  // @returns Promise that resolves to the per-booking outcomes
+  respondToBookings: async (
+    providerId: number,
+    action: 'ACCEPT' | 'REJECT',
+    bookingIds: number[]
+  ): Promise<BookingBatchResult> => {
+    const response = await apiClient.put<BookingBatchResult>(
+      `/bookings/provider/${providerId}/batch`,
+      { action, bookingIds }
+    )
+    return response.data
+  },
+
+  // Gets the free intervals in a provider's calendar
+  // @param providerId - The user ID of the provider
+  // @param from - Start of the window (ISO local date-time)
+  // @param to - End of the window (ISO local date-time), at most 31 days after from
+  // @param minMinutes - Shortest interval to return
+  // @returns Promise that resolves to the free intervals in order
+  getFreeSlots: async (
+    providerId: number,
+    from: string,
+    to: string,
+    minMinutes = 60
+  ): Promise<TimeSlot[]> => {
+    const response = await apiClient.get<TimeSlot[]>(
+      `/bookings/provider/${providerId}/free-slots`,
+      { params: { from, to, minMinutes } }
+    )
+    return response.data
+  },
+
   // Rejects a pending booking request (called by provider)
   // @param bookingId - The ID of the booking to reject
   // @returns Promise that resolves to the updated Booking object with REJECTED status
@@ -5,7 +5,7 @@ export type UserRole = 'USER' | 'PROVIDER' | 'ADMIN'
 export type ServiceType = 'PLUMBER' | 'ELECTRICIAN' | 'CLEANER' | 'LAUNDRY' | 'OTHER'
 
 // Booking status: defines the possible states of a booking request
-export type BookingStatus = 'REQUESTED' | 'ACCEPTED' | 'REJECTED' | 'CANCELLED' | 'COMPLETED'
+export type BookingStatus = 'REQUESTED' | 'ACCEPTED' | 'ON_WAY' | 'IN_SERVICE' | 'REJECTED' | 'CANCELLED' | 'COMPLETED'
 
 // User interface: represents a user in the system
 export interface User {
@@ -111,6 +111,8 @@ export interface Booking {
   serviceType: ServiceType // Type of service being booked
   status: BookingStatus // Current status of the booking
   note?: string // Optional note from the user about the booking
+  scheduledStart?: string // Start of the booked slot (ISO format); absent for on-demand bookings
+  scheduledEnd?: string // End of the booked slot (ISO format)
   createdAt: string // Timestamp when the booking was created (ISO format)
   acceptedAt?: string // Optional timestamp when the booking was accepted
   completedAt?: string // Optional timestamp when the service was completed
@@ -118,6 +120,18 @@ export interface Booking {
   preferredTime?: string // Time of the service
 }
 
+// BookingBatchResult interface: per-booking outcomes of a provider's batch accept or reject
+export interface BookingBatchResult {
+  action: 'ACCEPT' | 'REJECT' // Action that was applied
+  applied: number // Number of bookings that changed
+  results: {
+    bookingId: number // ID of the booking
+    applied: boolean // Whether this booking changed
+    status?: BookingStatus // Status after the batch; absent when the booking is not the provider's
+    message?: string // Why the booking was left alone
+  }[]
+}
+
 // BookingRequest interface: data structure for creating a new booking request
 export interface BookingRequest {
   providerId: number // ID of the provider to book
@@ -125,6 +139,14 @@ export interface BookingRequest {
   note?: string // Optional note for the provider
   bookingDate?: string // Optional preferred date for the service (ISO format)
   preferredTime?: string // Optional preferred time for the service
+  scheduledStart?: string // Optional start of the slot to book (ISO local date-time)
+  scheduledEnd?: string // Optional end of the slot to book (ISO local date-time)
+}
+
+// TimeSlot interface: free interval in a provider's calendar
+export interface TimeSlot {
+  start: string // Start of the interval (ISO local date-time)
+  end: string // End of the interval, exclusive
 }
 
 // Review interface: represents a customer review for a completed booking